@@ -0,0 +1,83 @@
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+
+import model.ThreeTrioGame;
+import playerstrategy.AlphaBetaStrategy;
+import playerstrategy.ParallelAlphaBetaStrategy;
+import playerstrategy.TranspositionTable;
+
+/**
+ * Times the first move of the alpha-beta search on each bundled board and deck, with one thread
+ * and then with each parallel mode on 2, 4, ... threads up to the number of cores, and prints how
+ * much faster each run reached the same depth than the single thread. The 3x3 boards are searched
+ * to the end of the game, the large board to a fixed depth. Every config is searched once before
+ * timing starts, so that the first runs are not slowed down by the JIT compiler.
+ */
+public class SearchBenchmark {
+  private static final String[][] CONFIGS = {
+      {"./board3.config", "./deck1.config"},
+      {"./board1.config", "./deck.config"},
+      {"./board2.config", "./deck2.config"},
+      {"./board.config", "./deck.config"}
+  };
+  // no run takes this long, the depth limit is what ends each search
+  private static final long TIME_LIMIT = 600_000;
+  private static final int TABLE_SIZE = 64;
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args optionally, the depth to search the large board to, 6 by default
+   * @throws FileNotFoundException if a config file is not found
+   */
+  public static void main(String[] args) throws FileNotFoundException {
+    int largeDepth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+    int cores = Runtime.getRuntime().availableProcessors();
+    List<Integer> threadCounts = new ArrayList<>();
+    for (int threads = 2; threads <= cores; threads *= 2) {
+      threadCounts.add(threads);
+    }
+    if (threadCounts.isEmpty() || threadCounts.get(threadCounts.size() - 1) != cores) {
+      threadCounts.add(Math.max(cores, 2));
+    }
+    for (String[] config : CONFIGS) {
+      ThreeTrioGame game = new ThreeTrioGame(config[0], config[1]);
+      game.startGame(game.createDeck(), game.createBoard());
+      for (ParallelAlphaBetaStrategy.Mode mode : ParallelAlphaBetaStrategy.Mode.values()) {
+        ParallelAlphaBetaStrategy warmup = new ParallelAlphaBetaStrategy(game, 2, mode,
+                TIME_LIMIT, new TranspositionTable(TABLE_SIZE));
+        warmup.setMaxDepth(Math.min(largeDepth, 5));
+        warmup.getMove();
+      }
+    }
+    System.out.println(cores + " cores");
+    for (String[] config : CONFIGS) {
+      ThreeTrioGame game = new ThreeTrioGame(config[0], config[1]);
+      game.startGame(game.createDeck(), game.createBoard());
+      int depth = game.getBoardW() * game.getBoardH() > 9 ? largeDepth : 0;
+
+      AlphaBetaStrategy serial = new AlphaBetaStrategy(game, TIME_LIMIT,
+              new TranspositionTable(TABLE_SIZE));
+      serial.setMaxDepth(depth);
+      long start = System.nanoTime();
+      serial.getMove();
+      long serialTime = System.nanoTime() - start;
+      System.out.printf("%s %s, depth %d: 1 thread %d ms%n", config[0], config[1],
+              serial.getCompletedDepth(), serialTime / 1_000_000);
+
+      for (ParallelAlphaBetaStrategy.Mode mode : ParallelAlphaBetaStrategy.Mode.values()) {
+        for (int threads : threadCounts) {
+          ParallelAlphaBetaStrategy parallel = new ParallelAlphaBetaStrategy(game, threads, mode,
+                  TIME_LIMIT, new TranspositionTable(TABLE_SIZE));
+          parallel.setMaxDepth(depth);
+          start = System.nanoTime();
+          parallel.getMove();
+          long time = System.nanoTime() - start;
+          System.out.printf("  %s %d threads: %d ms, %d nodes, speedup %.2f%n", mode, threads,
+                  time / 1_000_000, parallel.getNodes(), (double) serialTime / time);
+        }
+      }
+    }
+  }
+}
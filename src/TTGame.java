@@ -1,4 +1,5 @@
 import java.io.FileNotFoundException;
+import java.util.List;
 
 import controller.SimpleController;
 import model.FallenModel;
@@ -12,10 +13,16 @@ import model.ThreeTrioModel;
 import player.Computer;
 import player.Human;
 import player.Player;
+import playerstrategy.AlphaBetaStrategy;
 import playerstrategy.CornerStrategy;
+import playerstrategy.EndgameStrategy;
+import playerstrategy.EnsembleStrategy;
 import playerstrategy.FlipMaxCardsStrategy;
 import playerstrategy.LeastLikelyToFlipStrategy;
+import playerstrategy.MctsStrategy;
+import playerstrategy.ParallelAlphaBetaStrategy;
 import playerstrategy.PlayerStrategy;
+import playerstrategy.PortfolioStrategy;
 import view.GuiGameView;
 import view.ThreeTrioGuiView;
 
@@ -24,18 +31,61 @@ import view.ThreeTrioGuiView;
  * Makes testing so much easier.
  */
 public class TTGame {
-  private static Player createPlayer(String arg, String playerName, ThreeTrioModel model) {
+  // the strategies that take a thread count
+  private static final List<String> THREADED = List.of("alphabeta", "rootsplit", "mcts");
+
+  private static Player createPlayer(String arg, String playerName,
+                                    ThreeTrioModel<ThreeTrioCard> model) {
     if (arg.equalsIgnoreCase("human")) {
       return new Human(playerName);
     } else if (arg.startsWith("computer:")) {
-      String strategyName = arg.split(":")[1];
-      return new Computer(playerName, getStrategy(strategyName, model));
+      String[] parts = arg.split(":");
+      if (parts.length < 2) {
+        throw new IllegalArgumentException("Missing strategy: " + arg);
+      }
+      int threads = 1;
+      int endgame = -1;
+      for (int i = 2; i < parts.length; i++) {
+        if (parts[i].equalsIgnoreCase("endgame")) {
+          endgame = EndgameStrategy.DEFAULT_THRESHOLD;
+        } else if (parts[i].toLowerCase().startsWith("endgame=")) {
+          endgame = parseCount(parts[i].substring("endgame=".length()), 0, arg);
+        } else if (THREADED.contains(parts[1].toLowerCase())) {
+          threads = parseCount(parts[i], 1, arg);
+        } else {
+          throw new IllegalArgumentException("Strategy '" + parts[1]
+                  + "' does not take a thread count: " + arg);
+        }
+      }
+      PlayerStrategy strategy = getStrategy(parts[1], model, threads);
+      if (endgame >= 0) {
+        // the solver only takes over once few enough tiles are open to search to the end
+        strategy = new EndgameStrategy(model, strategy, endgame);
+      }
+      return new Computer(playerName, strategy);
     } else {
       throw new IllegalArgumentException("Invalid player type: " + arg);
     }
   }
 
-  private static PlayerStrategy getStrategy(String strategyName, ThreeTrioModel model) {
+  // the whole number in the given text, which must be at least the given least value
+  private static int parseCount(String text, int least, String arg) {
+    int count;
+    try {
+      count = Integer.parseInt(text);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Not a number: '" + text + "' in " + arg);
+    }
+    if (count < least) {
+      throw new IllegalArgumentException("Must be at least " + least + ": '" + text + "' in "
+              + arg);
+    }
+    return count;
+  }
+
+  private static PlayerStrategy getStrategy(String strategyName,
+                                            ThreeTrioModel<ThreeTrioCard> model,
+                                            int threads) {
     switch (strategyName.toLowerCase()) {
       case "flipmaxcards":
         return new FlipMaxCardsStrategy(model);
@@ -43,6 +93,21 @@ public class TTGame {
         return new CornerStrategy(model);
       case "leastlikely":
         return new LeastLikelyToFlipStrategy(model);
+      case "alphabeta":
+        if (threads > 1) {
+          return new ParallelAlphaBetaStrategy(model, threads,
+                  ParallelAlphaBetaStrategy.Mode.LAZY_SMP);
+        }
+        return new AlphaBetaStrategy(model);
+      case "rootsplit":
+        return new ParallelAlphaBetaStrategy(model, threads,
+                ParallelAlphaBetaStrategy.Mode.ROOT_SPLIT);
+      case "ensemble":
+        return new EnsembleStrategy(model);
+      case "mcts":
+        return new MctsStrategy(model, threads, MctsStrategy.DEFAULT_TIME_LIMIT);
+      case "portfolio":
+        return new PortfolioStrategy(model);
       default:
         throw new IllegalArgumentException("Unknown strategy: " + strategyName);
     }
@@ -81,6 +146,21 @@ public class TTGame {
     }
   }
 
+  // prints how to run the game and what each argument can be
+  private static void printUsage() {
+    System.out.println("Usage: java TTGame <Player1Type> <Player2Type>" +
+            " <P1Hints>:<P2Hints> <GameMode> <Modifier>");
+    System.out.println("<PlayerType> can be 'human' or 'computer:<strategy>'");
+    System.out.println("<PlayerType> can be 'human' or 'computer:<strategy>'");
+    System.out.println("'alphabeta', 'rootsplit' and 'mcts' take a thread count,"
+            + " 'computer:<strategy>:<threads>'");
+    System.out.println("Any strategy can end the game with the exact solver,"
+            + " 'computer:<strategy>:endgame' or 'computer:<strategy>:endgame=<openTiles>'");
+    System.out.println("<PHints> == 'easy' for hints");
+    System.out.println("<GameMode> can be 'reverse', 'fallen', or 'normal'");
+    System.out.println("<Modifier> can be 'same', 'plus', or 'normal'");
+  }
+
   /**
    * Main method to run the game.
    *
@@ -89,28 +169,29 @@ public class TTGame {
    */
   public static void main(String[] args) throws FileNotFoundException {
     if (args.length < 4 || args.length > 5) {
-      System.out.println("Usage: java TTGame <Player1Type> <Player2Type>" +
-              " <P1Hints>:<P2Hints> <GameMode> <Modifier>");
-      System.out.println("<PlayerType> can be 'human' or 'computer:<strategy>'");
-      System.out.println("<PlayerType> can be 'human' or 'computer:<strategy>'");
-      System.out.println("<PHints> == 'easy' for hints");
-      System.out.println("<GameMode> can be 'reverse', 'fallen', or 'normal'");
-      System.out.println("<Modifier> can be 'same', 'plus', or 'normal'");
+      printUsage();
       return;
     }
 
     ThreeTrioModel<ThreeTrioCard> ttGame = addRule(args[4], createModel(args[3],
             "./board2.config", "./deck2.config"));
 
-    Player player1 = createPlayer(args[0], "Player 1", ttGame);
-    Player player2 = createPlayer(args[1], "Player 2", ttGame);
-
+    Player player1;
+    Player player2;
+    try {
+      player1 = createPlayer(args[0], "Player 1", ttGame);
+      player2 = createPlayer(args[1], "Player 2", ttGame);
+    } catch (IllegalArgumentException e) {
+      System.out.println(e.getMessage());
+      printUsage();
+      return;
+    }
 
     ttGame.setPlayers(player1, player2);
 
-    ThreeTrioGuiView view = new GuiGameView((ReadonlyThreeTrioModel) ttGame, player1,
+    ThreeTrioGuiView view = new GuiGameView(ttGame, player1,
             args[2].split(":")[0].equalsIgnoreCase("easy"));
-    ThreeTrioGuiView view2 = new GuiGameView((ReadonlyThreeTrioModel) ttGame, player2,
+    ThreeTrioGuiView view2 = new GuiGameView(ttGame, player2,
             args[2].split(":")[1].equalsIgnoreCase("easy"));
 
     //ttGame.startGame(ttGame.createDeck(), ttGame.createBoard());
@@ -142,7 +223,8 @@ public class TTGame {
     thread2.start();
   }
 
-  private ThreeTrioGuiView createView(ReadonlyThreeTrioModel model, String arg, Player player) {
+  private ThreeTrioGuiView createView(ReadonlyThreeTrioModel<ThreeTrioCard> model, String arg,
+                                      Player player) {
     return new GuiGameView(model, player, arg.equalsIgnoreCase("easy"));
   }
 }
\ No newline at end of file
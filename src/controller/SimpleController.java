@@ -4,9 +4,11 @@ import java.io.FileNotFoundException;
 
 import model.Color;
 import playerstrategy.Move;
+import model.ThreeTrioCard;
 import model.ThreeTrioModel;
 import player.Computer;
 import player.Player;
+import playerstrategy.SearchLimits;
 import view.ThreeTrioGuiFeatures;
 import view.ThreeTrioGuiView;
 
@@ -14,10 +16,15 @@ import view.ThreeTrioGuiView;
  * The controller for the ThreeTrio game. Extends features to listen for in the GUI.
  */
 public class SimpleController implements ThreeTrioGuiFeatures, ThreeTrioControllerFeatures {
+  /**
+   * Longest a machine player may think about one move when no limit is given, in milliseconds.
+   */
+  public static final long DEFAULT_MOVE_TIME_LIMIT = 5000;
   private final ThreeTrioGuiView view;
   private final ThreeTrioModel model;
   private int selectedCardIdx;
   private final Player player;
+  private final long moveTimeLimit;
 
   /**
    * Constructs a SimpleController with a given model and view.
@@ -25,7 +32,26 @@ public class SimpleController implements ThreeTrioGuiFeatures, ThreeTrioControll
    * @param model model to be interacted with and rendered
    * @param view  view to render the model with and listen for user input
    */
-  public SimpleController(ThreeTrioModel model, ThreeTrioGuiView view, Player player) {
+  public SimpleController(ThreeTrioModel<ThreeTrioCard> model, ThreeTrioGuiView view,
+                          Player player) {
+    this(model, view, player, DEFAULT_MOVE_TIME_LIMIT);
+  }
+
+  /**
+   * Constructs a SimpleController with a given model and view, that gives machine players up to
+   * the given time for each move.
+   *
+   * @param model         model to be interacted with and rendered
+   * @param view          view to render the model with and listen for user input
+   * @param moveTimeLimit the most time a machine player may take for a move, in milliseconds
+   * @throws IllegalArgumentException if the time limit is not positive
+   */
+  public SimpleController(ThreeTrioModel<ThreeTrioCard> model, ThreeTrioGuiView view,
+                          Player player, long moveTimeLimit) {
+    if (moveTimeLimit <= 0) {
+      throw new IllegalArgumentException("The move time limit must be positive");
+    }
+    this.moveTimeLimit = moveTimeLimit;
     this.model = model;
     this.view = view;
     this.view.addFeaturesListener(this);
@@ -89,7 +115,7 @@ public class SimpleController implements ThreeTrioGuiFeatures, ThreeTrioControll
     }
     if (model.getActivePlayer() instanceof Computer) {
       Computer machinePlayer = (Computer) model.getActivePlayer();
-      Move move = machinePlayer.getMove();
+      Move move = machinePlayer.getMove(SearchLimits.ofTime(moveTimeLimit));
       int rowToPlay = move.getRow();
       int colToPlay = move.getCol();
       int cardIdxToPlay = -1;
@@ -104,6 +130,10 @@ public class SimpleController implements ThreeTrioGuiFeatures, ThreeTrioControll
       } catch (IllegalArgumentException e) {
         view.invalidPlay();
       }
+      // think on the human opponent's time, the move is asked for again on their next play
+      if (!model.isGameOver() && !(model.getActivePlayer() instanceof Computer)) {
+        machinePlayer.startPondering();
+      }
       view.refresh();
     }
   }
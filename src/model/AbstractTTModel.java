@@ -101,32 +101,112 @@ public class AbstractTTModel extends ThreeTrioGame implements ThreeTrioModel<Thr
     return model.countPossibleFlips(row, col, card);
   }
 
+  @Override
+  public void scoreMoves(int[] scores) {
+    model.scoreMoves(scores);
+  }
+
   @Override
   public boolean isValidMove(int row, int col) {
     return model.isValidMove(row, col);
   }
 
+  @Override
+  public int[] openTiles() {
+    return model.openTiles();
+  }
+
+  @Override
+  public Color ownerAt(int row, int col) {
+    return model.ownerAt(row, col);
+  }
+
+  @Override
+  public int attackAt(int row, int col, Direction dir) {
+    return model.attackAt(row, col, dir);
+  }
+
+  @Override
+  public boolean isHoleAt(int row, int col) {
+    return model.isHoleAt(row, col);
+  }
+
+  @Override
+  public int handSize() {
+    return model.handSize();
+  }
+
+  @Override
+  public int handAttack(int handIdx, Direction dir) {
+    return model.handAttack(handIdx, dir);
+  }
+
+  @Override
+  public int otherHandSize() {
+    return model.otherHandSize();
+  }
+
+  @Override
+  public int otherHandAttack(int handIdx, Direction dir) {
+    return model.otherHandAttack(handIdx, dir);
+  }
+
+  @Override
+  public long stateHash() {
+    return model.stateHash();
+  }
+
   @Override
   public boolean hasGameStarted() {
     return model.hasGameStarted();
   }
 
   @Override
-  public void startGame(List<ThreeTrioCard> deck, ThreeTrioCard[][] board) {
-    model.startGame(deck, board);
+  public BitboardGame snapshot() {
+    return new BitboardGame(model);
   }
 
   @Override
-  protected void flipAdjacentCards(int row, int col, ThreeTrioCard lastCard,
-                                   List<ThreeTrioCard> flippedCards) {
-    super.flipAdjacentCards(row, col, lastCard, flippedCards);
+  public ThreeTrioModel<ThreeTrioCard> searchCopy() {
+    return model instanceof ThreeTrioGame ? ((ThreeTrioGame) model).searchCopy() : snapshot();
   }
 
   @Override
-  protected void flipAdjacentCards(ThreeTrioCard[][] board, int row,
-                                   int col, ThreeTrioCard lastCard,
-                                   List<ThreeTrioCard> flippedCards) {
-    super.flipAdjacentCards(board, row, col, lastCard, flippedCards);
+  public long changeMarker() {
+    return model instanceof ThreeTrioGame ? ((ThreeTrioGame) model).changeMarker() : 0;
+  }
+
+  @Override
+  public int changedSince(long marker, int[] cells) {
+    return model instanceof ThreeTrioGame ? ((ThreeTrioGame) model).changedSince(marker, cells)
+            : -1;
+  }
+
+  @Override
+  public BoardSymmetry getSymmetry() {
+    return model instanceof ThreeTrioGame ? ((ThreeTrioGame) model).getSymmetry()
+            : BoardSymmetry.of(model.getBoard());
+  }
+
+  @Override
+  public BoardTopology getTopology() {
+    return model instanceof ThreeTrioGame ? ((ThreeTrioGame) model).getTopology()
+            : BoardTopology.of(model.getBoard());
+  }
+
+  @Override
+  public BeatMatrix getBeatMatrix() {
+    if (model instanceof ThreeTrioGame) {
+      return ((ThreeTrioGame) model).getBeatMatrix();
+    }
+    List<ThreeTrioCard> cards = new ArrayList<>(model.getPlayerOneHand());
+    cards.addAll(model.getPlayerTwoHand());
+    return BeatMatrix.of(cards, model);
+  }
+
+  @Override
+  public void startGame(List<ThreeTrioCard> deck, ThreeTrioCard[][] board) {
+    model.startGame(deck, board);
   }
 
   @Override
@@ -135,6 +215,16 @@ public class AbstractTTModel extends ThreeTrioGame implements ThreeTrioModel<Thr
     this.model.playToBoard(row, col, handIdx);
   }
 
+  @Override
+  public void makeMove(int row, int col, int handIdx) {
+    this.model.makeMove(row, col, handIdx);
+  }
+
+  @Override
+  public void unmakeMove() {
+    this.model.unmakeMove();
+  }
+
   @Override
   public List<ThreeTrioCard> createDeck() throws FileNotFoundException {
     return model.createDeck();
@@ -151,8 +241,8 @@ public class AbstractTTModel extends ThreeTrioGame implements ThreeTrioModel<Thr
       throw new IllegalStateException("The game is not started or is already over");
     }
     ThreeTrioCard lastCard = board[row][col];
-    List<ThreeTrioCard> flippedCards = new ArrayList<>();
-    flipAdjacentCards(row, col, lastCard, flippedCards);
+    resolveFlips(board, row, col, lastCard);
+    flipBattleCells(lastCard.getColor());
   }
 
   @Override
@@ -174,20 +264,4 @@ public class AbstractTTModel extends ThreeTrioGame implements ThreeTrioModel<Thr
   public Player getActivePlayer() {
     return model.getActivePlayer();
   }
-
-  @Override
-  public void checkAndFlip(int adjRow, int adjCol, Direction dirFrom, Direction dirTo, int row,
-                           int col, ThreeTrioCard lastCard, List<ThreeTrioCard> flippedCards) {
-    System.out.println("THIS SHOULD NOT BE HERE");
-    //to be implemented by subclasses
-  }
-
-  @Override
-  public void checkAndFlip(ThreeTrioCard[][] board, int adjRow, int adjCol, Direction dirFrom,
-                           Direction dirTo, int row, int col, ThreeTrioCard lastCard,
-                           List<ThreeTrioCard> flippedCards) {
-    System.out.println("THIS SHOULD NOT BE HERE");
-    //to be implemented by subclasses
-  }
-
-}
\ No newline at end of file
+}
@@ -0,0 +1,66 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Enum to represent the rules that change which attack values beat which. A rule holds no state,
+ * so the same rule can be shared by any number of games. Rules stack: each rule is given whether
+ * the attack beats the defense under the rules below it, and returns the result with its own
+ * change applied on top.
+ */
+public enum AttackRule {
+  /**
+   * The reverse rule, a lower attack value beats a higher one.
+   */
+  REVERSE {
+    @Override
+    boolean apply(int attack, int defense, boolean beats) {
+      return !beats;
+    }
+  },
+  /**
+   * The fallen angel rule, an attack of 1 and a defense of A swap their usual result.
+   */
+  FALLEN_ANGEL {
+    @Override
+    boolean apply(int attack, int defense, boolean beats) {
+      return attack == 1 && defense == 10 ? !beats : beats;
+    }
+  };
+
+  /**
+   * Size of each side of a beat table. Attack values go from 1 to A (10), index 0 is unused.
+   */
+  static final int NUM_VALUES = 11;
+
+  /**
+   * Applies this rule to the result of one comparison.
+   *
+   * @param attack  the attack value of the attacking card
+   * @param defense the attack value of the defending card on the side being attacked
+   * @param beats   whether the attack beats the defense under the rules below this one
+   * @return whether the attack beats the defense once this rule is applied
+   */
+  abstract boolean apply(int attack, int defense, boolean beats);
+
+  /**
+   * Works out every comparison under the given stack of rules, starting from the normal rule
+   * that a higher attack value beats a lower one. The result is indexed [attack][defense].
+   *
+   * @param rules the rules to apply, from the bottom of the stack to the top
+   * @return a table of whether each attack value beats each defense value
+   */
+  static boolean[][] beatTable(List<AttackRule> rules) {
+    boolean[][] table = new boolean[NUM_VALUES][NUM_VALUES];
+    for (int attack = 1; attack < NUM_VALUES; attack++) {
+      for (int defense = 1; defense < NUM_VALUES; defense++) {
+        boolean beats = attack > defense;
+        for (AttackRule rule : rules) {
+          beats = rule.apply(attack, defense, beats);
+        }
+        table[attack][defense] = beats;
+      }
+    }
+    return table;
+  }
+}
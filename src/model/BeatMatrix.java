@@ -0,0 +1,175 @@
+package model;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Which cards of a game flip which, on each side, under the game's rules. Cards are numbered by
+ * their place in the list the matrix was built from, and sets of cards are bitsets over those
+ * numbers, one bit per card in words of 64. For each side of each card the matrix keeps the set
+ * of cards that flip it when placed next to that side, so the number of cards of a set that can
+ * flip a card is one AND and one bit count a word.
+ *
+ * <p>The matrix only holds the comparisons of attack values, so it knows nothing of the same and
+ * plus rules, which look at more than one side at once.
+ */
+public final class BeatMatrix {
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  private final ThreeTrioCard[] cards;
+  private final int words;
+  // flippedBy[dir][card * words + word] is a word of the set of cards that flip the card when
+  // placed on that side of it
+  private final long[][] flippedBy;
+
+  private BeatMatrix(ThreeTrioCard[] cards, boolean[][] beats) {
+    this.cards = cards;
+    this.words = Math.max(1, (cards.length + 63) >>> 6);
+    this.flippedBy = new long[DIRECTIONS.length][cards.length * words];
+    for (Direction side : DIRECTIONS) {
+      int dir = side.ordinal();
+      // the attacker's side that faces the defender is the one opposite
+      int facing = dir ^ 1;
+      for (int defender = 0; defender < cards.length; defender++) {
+        int defense = CardDefinition.attackOf(cards[defender].getPackedAttacks(), dir);
+        for (int attacker = 0; attacker < cards.length; attacker++) {
+          int attack = CardDefinition.attackOf(cards[attacker].getPackedAttacks(), facing);
+          if (beats[attack][defense]) {
+            flippedBy[dir][defender * words + (attacker >>> 6)] |= 1L << attacker;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Builds the matrix of the given cards under the given model's rules. The rules of a
+   * ThreeTrioGame are read straight from it, those of any other full model are probed through
+   * its compareAttacks, and a read-only model is taken to play by the normal rules.
+   *
+   * @param cards the cards, numbered by their place in the list
+   * @param model the model whose rules to use
+   * @return the matrix of the cards
+   */
+  public static BeatMatrix of(List<ThreeTrioCard> cards,
+                              ReadonlyThreeTrioModel<ThreeTrioCard> model) {
+    boolean[][] beats;
+    if (model instanceof ThreeTrioGame) {
+      beats = ((ThreeTrioGame) model).beatTable();
+    } else if (model instanceof ThreeTrioModel) {
+      beats = BitboardGame.probeBeats((ThreeTrioModel<ThreeTrioCard>) model);
+    } else {
+      beats = AttackRule.beatTable(Collections.emptyList());
+    }
+    return of(cards, beats);
+  }
+
+  /**
+   * Builds the matrix of the given cards under the given comparisons.
+   *
+   * @param cards the cards, numbered by their place in the list
+   * @param beats whether each attack value beats each defense value, see AttackRule
+   * @return the matrix of the cards
+   */
+  static BeatMatrix of(List<ThreeTrioCard> cards, boolean[][] beats) {
+    return new BeatMatrix(cards.toArray(new ThreeTrioCard[0]), beats);
+  }
+
+  /**
+   * Returns the number of cards in the matrix.
+   *
+   * @return the number of cards
+   */
+  public int size() {
+    return cards.length;
+  }
+
+  /**
+   * Returns the number of the given card: the card itself if it is in the matrix, otherwise the
+   * first card with the same name and attack values, such as a copy of it.
+   *
+   * @param card the card to look up
+   * @return the number of the card, or -1 if the matrix has no such card
+   */
+  public int indexOf(ThreeTrioCard card) {
+    int same = -1;
+    for (int i = 0; i < cards.length; i++) {
+      if (cards[i] == card) {
+        return i;
+      }
+      if (same == -1 && sameCard(cards[i], card)) {
+        same = i;
+      }
+    }
+    return same;
+  }
+
+  /**
+   * Returns the set of the given cards. A card that is not in the matrix itself takes the
+   * first card like it not yet in the set, so copies of a hand count as many as the hand.
+   *
+   * @param hand the cards to put in the set
+   * @return the set of the cards, as a bitset
+   * @throws IllegalArgumentException if one of the cards is not in the matrix
+   */
+  public long[] setOf(List<ThreeTrioCard> hand) {
+    long[] set = new long[words];
+    for (ThreeTrioCard card : hand) {
+      int found = -1;
+      for (int i = 0; i < cards.length && found == -1; i++) {
+        if (cards[i] == card && (set[i >>> 6] & 1L << i) == 0) {
+          found = i;
+        }
+      }
+      for (int i = 0; i < cards.length && found == -1; i++) {
+        if (sameCard(cards[i], card) && (set[i >>> 6] & 1L << i) == 0) {
+          found = i;
+        }
+      }
+      if (found == -1) {
+        throw new IllegalArgumentException("The card is not in the matrix: " + card);
+      }
+      set[found >>> 6] |= 1L << found;
+    }
+    return set;
+  }
+
+  /**
+   * Returns true if the attacking card flips the defending card when placed on the given side
+   * of it.
+   *
+   * @param attacker the number of the attacking card
+   * @param side     the side of the defending card the attacker is placed on
+   * @param defender the number of the defending card
+   * @return whether the attacker flips the defender
+   */
+  public boolean flips(int attacker, Direction side, int defender) {
+    return (flippedBy[side.ordinal()][defender * words + (attacker >>> 6)]
+            & 1L << attacker) != 0;
+  }
+
+  /**
+   * Returns how many cards of the given set flip the given card when placed on the given side
+   * of it.
+   *
+   * @param card the number of the card
+   * @param side the side of the card the attackers are placed on
+   * @param set  the set of attackers, see setOf
+   * @return the number of them that flip the card
+   */
+  public int countFlippers(int card, Direction side, long[] set) {
+    long[] row = flippedBy[side.ordinal()];
+    int offset = card * words;
+    int count = 0;
+    for (int word = 0; word < words; word++) {
+      count += Long.bitCount(row[offset + word] & set[word]);
+    }
+    return count;
+  }
+
+  private static boolean sameCard(ThreeTrioCard a, ThreeTrioCard b) {
+    return a.getPackedAttacks() == b.getPackedAttacks()
+            && Objects.equals(a.getName(), b.getName());
+  }
+}
@@ -0,0 +1,1028 @@
+package model;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import player.Player;
+
+/**
+ * A packed implementation of the Three Trio model meant for fast simulation. The board is stored
+ * as primitive arrays instead of a 2D array of card objects:
+ * <ul>
+ *   <li>card ids for every cell in an int[] (row major, index = row * numCols + col)</li>
+ *   <li>red and blue ownership as two bitsets</li>
+ *   <li>holes and empty tiles as bitset masks</li>
+ * </ul>
+ * Cards are only ever referenced by their id, so nothing has to be copied or hashed when a
+ * position is played out. Card objects are only materialized at the edges of the API
+ * (getBoard, getCard, the hand getters) so this class can be used anywhere a
+ * {@link ThreeTrioModel} is expected.
+ */
+public class BitboardGame implements ThreeTrioModel<ThreeTrioCard> {
+  /**
+   * Marker in the cell array for a tile that has no card on it.
+   */
+  public static final int EMPTY = -1;
+  /**
+   * Marker in the cell array for a hole.
+   */
+  public static final int HOLE = -2;
+
+  private int numRows;
+  private int numCols;
+  private int numCells;
+  private int[] cells;
+  private long[] redMask;
+  private long[] blueMask;
+  private long[] holeMask;
+  private long[] emptyMask;
+  private int numTiles;
+  private int numEmpty;
+  private int redOnBoard;
+  private int blueOnBoard;
+  // Zobrist hash of the board and both hands, without the side to move. See Zobrist.
+  private long stateHash;
+  // the symmetries of the board, those of them besides the identity that leave every card of
+  // the game as it is, and the hash of the state turned by each of those, kept like stateHash
+  private BoardSymmetry symmetry;
+  private int[] cardSymmetries;
+  private long[] turnedHashes;
+  // the tile next to each cell on each side, found once when the board is set
+  private BoardTopology topology;
+
+  // card id -> the card it was created from, its packed attacks (see CardDefinition) and its
+  // Zobrist code
+  private ThreeTrioCard[] cards;
+  private int[] attacks;
+  private long[] cardCodes;
+  private int numCards;
+  // which card of this game flips which, by card id, worked out when first asked for
+  private BeatMatrix beatMatrix;
+
+  private int[] playerOneHand;
+  private int playerOneSize;
+  private int[] playerTwoHand;
+  private int playerTwoSize;
+
+  // beats[attack][defend] is true if an attack of that value flips a side of that value
+  private final boolean[][] beats;
+  private int[] flipQueue;
+
+  // undo log for makeMove/unmakeMove. Per move: the cell played to, the hand index played from
+  // and how many cells flipped, which are kept on their own stack.
+  private int[] undoMoves = new int[3 * 16];
+  private int[] undoFlips = new int[16];
+  private int undoDepth;
+  private int undoFlipSize;
+
+  private boolean playerOneTurn;
+  private boolean gameStarted;
+  private boolean gameOver;
+  private Player player1;
+  private Player player2;
+  private List<ThreeTrioCard> deck;
+  private ConfigReader configReader;
+  private String boardConfig;
+  private String deckConfig;
+
+  /**
+   * Constructs an empty packed game. The game must be started with startGame before it can be
+   * played.
+   */
+  public BitboardGame() {
+    this.beats = AttackRule.beatTable(Collections.emptyList());
+    this.deck = new ArrayList<>();
+    this.playerOneTurn = true;
+  }
+
+  /**
+   * Constructs an empty packed game with the given board and deck configurations.
+   *
+   * @param boardConfig the path to the board configuration file
+   * @param deckConfig  the path to the deck configuration file
+   * @throws NullPointerException if either boardConfig or deckConfig is null
+   */
+  public BitboardGame(String boardConfig, String deckConfig) {
+    this();
+    this.configReader = new ConfigReader(Objects.requireNonNull(boardConfig),
+            Objects.requireNonNull(deckConfig));
+    this.boardConfig = boardConfig;
+    this.deckConfig = deckConfig;
+  }
+
+  /**
+   * Constructs a packed copy of the given model's current state. The copy shares no mutable
+   * state with the model. If the model is a full ThreeTrioModel its attack comparison is used
+   * (so Reverse and Fallen Angel games are simulated correctly), otherwise the normal rules are.
+   *
+   * @param model the model to copy
+   * @throws IllegalArgumentException if the model has not started
+   */
+  public BitboardGame(ReadonlyThreeTrioModel<ThreeTrioCard> model) {
+    this(model, model.getBoard(), model.getPlayerOneHand(), model.getPlayerTwoHand(),
+            model.getTurn());
+  }
+
+  /**
+   * Constructs a packed game from the given board and hands. Used by models that can hand over
+   * their state without making defensive copies first.
+   *
+   * @param model         the model whose attack comparison should be used
+   * @param board         the board to copy
+   * @param playerOneHand the hand of player one
+   * @param playerTwoHand the hand of player two
+   * @param playerOneTurn true if it is player one's turn
+   */
+  BitboardGame(ReadonlyThreeTrioModel<ThreeTrioCard> model, ThreeTrioCard[][] board,
+               List<ThreeTrioCard> playerOneHand, List<ThreeTrioCard> playerTwoHand,
+               boolean playerOneTurn) {
+    if (board == null) {
+      throw new IllegalArgumentException("The model must have a board to be copied");
+    }
+    this.deck = new ArrayList<>();
+    BoardSymmetry boardSymmetry = null;
+    BoardTopology boardTopology = null;
+    if (model instanceof ThreeTrioModel) {
+      ThreeTrioModel<ThreeTrioCard> fullModel = (ThreeTrioModel<ThreeTrioCard>) model;
+      this.beats = model instanceof ThreeTrioGame ? ((ThreeTrioGame) model).beatTable()
+              : probeBeats(fullModel);
+      if (model instanceof ThreeTrioGame) {
+        boardSymmetry = ((ThreeTrioGame) model).getSymmetry();
+        boardTopology = ((ThreeTrioGame) model).getTopology();
+      }
+      this.boardConfig = fullModel.getBoardConfig();
+      this.deckConfig = fullModel.getDeckConfig();
+    } else {
+      this.beats = AttackRule.beatTable(Collections.emptyList());
+    }
+    initCards(board.length * board[0].length + playerOneHand.size() + playerTwoHand.size());
+    initBoard(board, boardSymmetry, boardTopology);
+    for (int row = 0; row < numRows; row++) {
+      for (int col = 0; col < numCols; col++) {
+        ThreeTrioCard card = board[row][col];
+        if (!card.isHole() && card.getName() != null) {
+          placeCard(row * numCols + col, registerCard(card), card.getColor() != Color.BLUE);
+        }
+      }
+    }
+    this.playerOneHand = new int[playerOneHand.size()];
+    for (ThreeTrioCard card : playerOneHand) {
+      this.playerOneHand[playerOneSize++] = registerCard(card);
+    }
+    this.playerTwoHand = new int[playerTwoHand.size()];
+    for (ThreeTrioCard card : playerTwoHand) {
+      this.playerTwoHand[playerTwoSize++] = registerCard(card);
+    }
+    this.stateHash += handHash();
+    initTurnedHashes();
+    this.playerOneTurn = playerOneTurn;
+    this.gameStarted = true;
+    this.gameOver = numEmpty == 0;
+  }
+
+  /**
+   * Returns a packed copy of the given model, taken without copying any cards when the model
+   * is a {@link ThreeTrioGame}.
+   *
+   * @param model the model to copy
+   * @return a packed copy of the model's current state
+   */
+  public static BitboardGame copyOf(ReadonlyThreeTrioModel<ThreeTrioCard> model) {
+    if (model instanceof ThreeTrioGame) {
+      return ((ThreeTrioGame) model).snapshot();
+    }
+    return new BitboardGame(model);
+  }
+
+  // asks the model how every pair of attack values compares, so any rule the model applies
+  // in compareAttacks is baked into the table
+  static boolean[][] probeBeats(ThreeTrioModel<ThreeTrioCard> model) {
+    ThreeTrioCard[] probes = new ThreeTrioCard[AttackRule.NUM_VALUES];
+    for (int value = 1; value < AttackRule.NUM_VALUES; value++) {
+      probes[value] = new PlayingCard("probe", value, value, value, value);
+    }
+    boolean[][] table = new boolean[AttackRule.NUM_VALUES][AttackRule.NUM_VALUES];
+    for (int attack = 1; attack < AttackRule.NUM_VALUES; attack++) {
+      for (int defend = 1; defend < AttackRule.NUM_VALUES; defend++) {
+        table[attack][defend] = model.compareAttacks(probes[defend], probes[attack],
+                Direction.NORTH, Direction.SOUTH);
+      }
+    }
+    return table;
+  }
+
+  private void initCards(int capacity) {
+    this.cards = new ThreeTrioCard[Math.max(capacity, 1)];
+    this.attacks = new int[cards.length];
+    this.cardCodes = new long[cards.length];
+    this.numCards = 0;
+    this.beatMatrix = null;
+  }
+
+  private int registerCard(ThreeTrioCard card) {
+    if (numCards == cards.length) {
+      int newLength = cards.length * 2;
+      cards = Arrays.copyOf(cards, newLength);
+      attacks = Arrays.copyOf(attacks, newLength);
+      cardCodes = Arrays.copyOf(cardCodes, newLength);
+    }
+    cards[numCards] = card;
+    attacks[numCards] = card.getPackedAttacks();
+    cardCodes[numCards] = Zobrist.cardCode(card);
+    return numCards++;
+  }
+
+  // sets up an empty board with the layout of the given one, whose symmetries and topology are
+  // found unless they are given
+  private void initBoard(ThreeTrioCard[][] board, BoardSymmetry boardSymmetry,
+                         BoardTopology boardTopology) {
+    this.symmetry = boardSymmetry != null ? boardSymmetry : BoardSymmetry.of(board);
+    this.topology = boardTopology != null ? boardTopology : BoardTopology.of(board);
+    this.cardSymmetries = new int[0];
+    this.turnedHashes = new long[0];
+    this.numRows = board.length;
+    this.numCols = board[0].length;
+    this.numCells = numRows * numCols;
+    int words = (numCells + 63) / 64;
+    this.cells = new int[numCells];
+    this.redMask = new long[words];
+    this.blueMask = new long[words];
+    this.holeMask = new long[words];
+    this.emptyMask = new long[words];
+    this.flipQueue = new int[numCells];
+    this.numTiles = 0;
+    this.numEmpty = 0;
+    this.redOnBoard = 0;
+    this.blueOnBoard = 0;
+    this.stateHash = 0;
+    for (int row = 0; row < numRows; row++) {
+      for (int col = 0; col < numCols; col++) {
+        int cell = row * numCols + col;
+        if (board[row][col].isHole()) {
+          cells[cell] = HOLE;
+          setBit(holeMask, cell);
+        } else {
+          cells[cell] = EMPTY;
+          setBit(emptyMask, cell);
+          numTiles++;
+          numEmpty++;
+        }
+      }
+    }
+  }
+
+  static void setBit(long[] mask, int bit) {
+    mask[bit >>> 6] |= 1L << bit;
+  }
+
+  static void clearBit(long[] mask, int bit) {
+    mask[bit >>> 6] &= ~(1L << bit);
+  }
+
+  static boolean testBit(long[] mask, int bit) {
+    return (mask[bit >>> 6] & (1L << bit)) != 0;
+  }
+
+  /**
+   * Lists the set bits of a bitset in increasing order.
+   *
+   * @param mask  the bitset
+   * @param count the number of bits set in it
+   * @return the index of every set bit
+   */
+  static int[] setBits(long[] mask, int count) {
+    int[] bits = new int[count];
+    int size = 0;
+    for (int word = 0; word < mask.length; word++) {
+      for (long rest = mask[word]; rest != 0; rest &= rest - 1) {
+        bits[size++] = (word << 6) + Long.numberOfTrailingZeros(rest);
+      }
+    }
+    return bits;
+  }
+
+  private void placeCard(int cell, int cardId, boolean red) {
+    cells[cell] = cardId;
+    clearBit(emptyMask, cell);
+    numEmpty--;
+    setOwner(cell, red);
+    stateHash += Zobrist.cellKey(cell, cardCodes[cardId], red ? Color.RED : Color.BLUE);
+    turnCell(cell, cardId, red ? Color.RED : Color.BLUE, 1);
+  }
+
+  private void removeCard(int cell) {
+    Color owner = testBit(redMask, cell) ? Color.RED : Color.BLUE;
+    stateHash -= Zobrist.cellKey(cell, cardCodes[cells[cell]], owner);
+    turnCell(cell, cells[cell], owner, -1);
+    cells[cell] = EMPTY;
+    setBit(emptyMask, cell);
+    numEmpty++;
+    if (testBit(redMask, cell)) {
+      clearBit(redMask, cell);
+      redOnBoard--;
+    } else {
+      clearBit(blueMask, cell);
+      blueOnBoard--;
+    }
+  }
+
+  private void setOwner(int cell, boolean red) {
+    if (red) {
+      setBit(redMask, cell);
+      redOnBoard++;
+    } else {
+      setBit(blueMask, cell);
+      blueOnBoard++;
+    }
+  }
+
+  private void flipOwner(int cell) {
+    long redKey = Zobrist.cellKey(cell, cardCodes[cells[cell]], Color.RED);
+    long blueKey = Zobrist.cellKey(cell, cardCodes[cells[cell]], Color.BLUE);
+    if (testBit(redMask, cell)) {
+      clearBit(redMask, cell);
+      redOnBoard--;
+      setOwner(cell, false);
+      stateHash += blueKey - redKey;
+    } else {
+      clearBit(blueMask, cell);
+      blueOnBoard--;
+      setOwner(cell, true);
+      stateHash += redKey - blueKey;
+    }
+    if (cardSymmetries.length > 0) {
+      Color owner = testBit(redMask, cell) ? Color.RED : Color.BLUE;
+      turnCell(cell, cells[cell], owner == Color.RED ? Color.BLUE : Color.RED, -1);
+      turnCell(cell, cells[cell], owner, 1);
+    }
+  }
+
+  // finds the symmetries that leave every card of the game as it is, and hashes the state
+  // turned by each of them from scratch. Cards never leave the game, so these symmetries stay
+  // the same until the board is set again.
+  private void initTurnedHashes() {
+    int[] found = new int[symmetry.size()];
+    int numFound = 0;
+    for (int s = 1; s < symmetry.size(); s++) {
+      boolean preserved = true;
+      for (int cardId = 0; cardId < numCards && preserved; cardId++) {
+        preserved = symmetry.mapAttacks(s, attacks[cardId]) == attacks[cardId];
+      }
+      if (preserved) {
+        found[numFound++] = s;
+      }
+    }
+    cardSymmetries = Arrays.copyOf(found, numFound);
+    turnedHashes = new long[numFound];
+    long hands = handHash();
+    for (int i = 0; i < numFound; i++) {
+      turnedHashes[i] = hands;
+      for (int cell = 0; cell < numCells; cell++) {
+        if (cells[cell] >= 0) {
+          turnedHashes[i] += Zobrist.cellKey(symmetry.mapCell(cardSymmetries[i], cell),
+                  cardCodes[cells[cell]], testBit(redMask, cell) ? Color.RED : Color.BLUE);
+        }
+      }
+    }
+  }
+
+  // adds the key of a card on a cell to the hash of every turned state, the given number of
+  // times
+  private void turnCell(int cell, int cardId, Color owner, int times) {
+    for (int i = 0; i < cardSymmetries.length; i++) {
+      turnedHashes[i] += times * Zobrist.cellKey(symmetry.mapCell(cardSymmetries[i], cell),
+              cardCodes[cardId], owner);
+    }
+  }
+
+  // adds the key of a card in a hand to the hash of every turned state, the given number of
+  // times. The card is left as it is by every symmetry kept, so its key is the same in each.
+  private void turnHandCard(int cardId, boolean playerOne, int times) {
+    if (cardSymmetries.length > 0) {
+      long key = times * Zobrist.handKey(cardCodes[cardId], playerOne);
+      for (int i = 0; i < cardSymmetries.length; i++) {
+        turnedHashes[i] += key;
+      }
+    }
+  }
+
+  // the part of the state hash that comes from the cards in both hands
+  private long handHash() {
+    long hash = 0;
+    for (int i = 0; i < playerOneSize; i++) {
+      hash += Zobrist.handKey(cardCodes[playerOneHand[i]], true);
+    }
+    for (int i = 0; i < playerTwoSize; i++) {
+      hash += Zobrist.handKey(cardCodes[playerTwoHand[i]], false);
+    }
+    return hash;
+  }
+
+  /**
+   * Resolves the battle started by the card at the given cell, flipping every card it beats
+   * and then every card those beat, breadth first.
+   *
+   * @param cell        the cell the attack starts from
+   * @param firstAttack the packed attacks of the card attacking from that cell
+   * @param red         true if the attacking card belongs to red
+   * @param revert      true to undo the flips once they are counted
+   * @return the number of cards flipped
+   */
+  private int resolveFlips(int cell, int firstAttack, boolean red, boolean revert) {
+    long[] enemyMask = red ? blueMask : redMask;
+    int head = 0;
+    int tail = 0;
+    int attacker = cell;
+    int attack = firstAttack;
+    while (true) {
+      for (int dir = 0; dir < 4; dir++) {
+        int adj = topology.neighbor(attacker, dir);
+        if (adj >= 0 && cells[adj] >= 0 && testBit(enemyMask, adj)
+                && beats[CardDefinition.attackOf(attack, dir)]
+                [CardDefinition.attackOf(attacks[cells[adj]], dir ^ 1)]) {
+          flipOwner(adj);
+          flipQueue[tail++] = adj;
+        }
+      }
+      if (head == tail) {
+        break;
+      }
+      attacker = flipQueue[head++];
+      attack = attacks[cells[attacker]];
+    }
+    if (revert) {
+      for (int i = 0; i < tail; i++) {
+        flipOwner(flipQueue[i]);
+      }
+    }
+    return tail;
+  }
+
+  private void checkStarted() {
+    if (!this.gameStarted || this.gameOver) {
+      throw new IllegalStateException("The game is not started or is already over");
+    }
+  }
+
+  private void checkBoard() {
+    if (cells == null) {
+      throw new IllegalStateException("Board has not been initialized");
+    }
+  }
+
+  private ThreeTrioCard materialize(int cardId, Color color) {
+    ThreeTrioCard card = cards[cardId].deepCopy();
+    card.setColor(color);
+    return card;
+  }
+
+  private List<ThreeTrioCard> materializeHand(int[] hand, int size, Color color) {
+    List<ThreeTrioCard> result = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      result.add(materialize(hand[i], color));
+    }
+    return result;
+  }
+
+  @Override
+  public void startGame(List<ThreeTrioCard> deck, ThreeTrioCard[][] board) {
+    if (deck == null || board == null) {
+      throw new IllegalArgumentException("The deck and board must not be null");
+    }
+    for (ThreeTrioCard[] row : board) {
+      for (ThreeTrioCard card : row) {
+        if (card == null) {
+          throw new IllegalArgumentException("The board must not contain any null elements");
+        }
+      }
+    }
+    if (board.length % 2 == 0 || board[0].length % 2 == 0) {
+      throw new IllegalArgumentException("The board must have odd number of tiles");
+    }
+    if (this.gameStarted || this.gameOver) {
+      throw new IllegalStateException("The game is already started or is already over");
+    }
+    setBoard(board);
+    if (deck.size() < numTiles + 1) {
+      throw new IllegalArgumentException("There must be enough cards to start the game, deck size:"
+              + deck.size() + " numTiles: " + numTiles);
+    }
+    this.deck = new ArrayList<>(deck);
+    this.dealCards();
+    this.gameStarted = true;
+  }
+
+  @Override
+  public void dealCards() {
+    if (this.gameStarted) {
+      throw new IllegalStateException("The game has already started");
+    }
+    checkBoard();
+    if (playerOneHand != null) {
+      stateHash -= handHash();
+    }
+    int toDeal = Math.min(deck.size(), numTiles + 1);
+    this.playerOneHand = new int[(toDeal + 1) / 2];
+    this.playerTwoHand = new int[toDeal / 2];
+    this.playerOneSize = 0;
+    this.playerTwoSize = 0;
+    for (int i = 0; i < toDeal; i++) {
+      ThreeTrioCard card = deck.get(i);
+      if (i % 2 == 0) {
+        card.setColor(Color.RED);
+        playerOneHand[playerOneSize++] = registerCard(card);
+      } else {
+        card.setColor(Color.BLUE);
+        playerTwoHand[playerTwoSize++] = registerCard(card);
+      }
+    }
+    stateHash += handHash();
+    initTurnedHashes();
+  }
+
+  @Override
+  public void playToBoard(int row, int col, int handIdx) {
+    place(row, col, handIdx);
+  }
+
+  @Override
+  public void makeMove(int row, int col, int handIdx) {
+    checkStarted();
+    int numFlipped = place(row, col, handIdx);
+    if (3 * (undoDepth + 1) > undoMoves.length) {
+      undoMoves = Arrays.copyOf(undoMoves, undoMoves.length * 2);
+    }
+    if (undoFlipSize + numFlipped > undoFlips.length) {
+      undoFlips = Arrays.copyOf(undoFlips,
+              Math.max(undoFlips.length * 2, undoFlipSize + numFlipped));
+    }
+    System.arraycopy(flipQueue, 0, undoFlips, undoFlipSize, numFlipped);
+    undoFlipSize += numFlipped;
+    undoMoves[3 * undoDepth] = row * numCols + col;
+    undoMoves[3 * undoDepth + 1] = handIdx;
+    undoMoves[3 * undoDepth + 2] = numFlipped;
+    undoDepth++;
+  }
+
+  @Override
+  public void unmakeMove() {
+    if (undoDepth == 0) {
+      throw new IllegalStateException("There is no move to take back");
+    }
+    undoDepth--;
+    int cell = undoMoves[3 * undoDepth];
+    int handIdx = undoMoves[3 * undoDepth + 1];
+    int numFlipped = undoMoves[3 * undoDepth + 2];
+    for (int i = 0; i < numFlipped; i++) {
+      flipOwner(undoFlips[--undoFlipSize]);
+    }
+    int cardId = cells[cell];
+    removeCard(cell);
+    this.playerOneTurn = !this.playerOneTurn;
+    int[] hand = playerOneTurn ? playerOneHand : playerTwoHand;
+    int size = playerOneTurn ? playerOneSize++ : playerTwoSize++;
+    System.arraycopy(hand, handIdx, hand, handIdx + 1, size - handIdx);
+    hand[handIdx] = cardId;
+    stateHash += Zobrist.handKey(cardCodes[cardId], playerOneTurn);
+    turnHandCard(cardId, playerOneTurn, 1);
+    this.gameOver = false;
+  }
+
+  /**
+   * Moves a card from the current player's hand to the board, passes the turn and starts the
+   * battle. The cells flipped are left at the front of the flip queue.
+   *
+   * @return the number of cards flipped
+   */
+  private int place(int row, int col, int handIdx) {
+    checkStarted();
+    if (row < 0 || row >= numRows || col < 0 || col >= numCols) {
+      throw new IllegalArgumentException("Invalid row or column");
+    }
+    int cell = row * numCols + col;
+    if (cells[cell] == HOLE) {
+      throw new IllegalArgumentException("Must play to a tile");
+    }
+    if (cells[cell] != EMPTY) {
+      throw new IllegalArgumentException("Cannot play to a tile that already has a card");
+    }
+    int[] hand = playerOneTurn ? playerOneHand : playerTwoHand;
+    int size = playerOneTurn ? playerOneSize : playerTwoSize;
+    if (handIdx < 0 || handIdx >= size) {
+      throw new IllegalArgumentException("Invalid hand index for "
+              + (playerOneTurn ? "P1: " : "P2: ") + handIdx);
+    }
+    int cardId = hand[handIdx];
+    System.arraycopy(hand, handIdx + 1, hand, handIdx, size - handIdx - 1);
+    stateHash -= Zobrist.handKey(cardCodes[cardId], playerOneTurn);
+    turnHandCard(cardId, playerOneTurn, -1);
+    if (playerOneTurn) {
+      playerOneSize--;
+    } else {
+      playerTwoSize--;
+    }
+    placeCard(cell, cardId, playerOneTurn);
+    this.playerOneTurn = !this.playerOneTurn;
+    int numFlipped = resolveFlips(cell, attacks[cells[cell]], !playerOneTurn, false);
+    this.gameOver = numEmpty == 0;
+    return numFlipped;
+  }
+
+  @Override
+  public void startBattle(int row, int col) {
+    checkStarted();
+    int cell = row * numCols + col;
+    resolveFlips(cell, attacks[cells[cell]], testBit(redMask, cell), false);
+  }
+
+  @Override
+  public boolean compareAttacks(ThreeTrioCard adjacentCard, ThreeTrioCard lastCard,
+                                Direction dirFrom, Direction dirTo) {
+    return beats[CardDefinition.attackOf(lastCard.getPackedAttacks(), dirFrom.ordinal())]
+            [CardDefinition.attackOf(adjacentCard.getPackedAttacks(), dirTo.ordinal())];
+  }
+
+  @Override
+  public boolean isGameOver() {
+    if (!this.gameStarted) {
+      throw new IllegalStateException("The game has not started yet");
+    }
+    if (numEmpty == 0) {
+      this.gameOver = true;
+    }
+    return this.gameOver;
+  }
+
+  @Override
+  public Color getWinner() {
+    if (!this.gameStarted || !this.gameOver) {
+      throw new IllegalStateException("The game is not finished or started");
+    }
+    int redScore = getScore(Color.RED);
+    int blueScore = getScore(Color.BLUE);
+    if (redScore > blueScore) {
+      return Color.RED;
+    } else if (blueScore > redScore) {
+      return Color.BLUE;
+    } else {
+      return null;
+    }
+  }
+
+  @Override
+  public int getNumTiles() {
+    checkBoard();
+    return numTiles;
+  }
+
+  @Override
+  public List<ThreeTrioCard> getPlayerHand() {
+    return playerOneTurn ? getPlayerOneHand() : getPlayerTwoHand();
+  }
+
+  @Override
+  public List<ThreeTrioCard> getOtherPlayerHand() {
+    return playerOneTurn ? getPlayerTwoHand() : getPlayerOneHand();
+  }
+
+  @Override
+  public List<ThreeTrioCard> getPlayerOneHand() {
+    return materializeHand(playerOneHand, playerOneSize, Color.RED);
+  }
+
+  @Override
+  public List<ThreeTrioCard> getPlayerTwoHand() {
+    return materializeHand(playerTwoHand, playerTwoSize, Color.BLUE);
+  }
+
+  @Override
+  public ThreeTrioCard[][] getBoard() {
+    checkBoard();
+    ThreeTrioCard[][] board = new ThreeTrioCard[numRows][numCols];
+    for (int row = 0; row < numRows; row++) {
+      for (int col = 0; col < numCols; col++) {
+        board[row][col] = getCard(row, col);
+      }
+    }
+    return board;
+  }
+
+  @Override
+  public boolean getTurn() {
+    return playerOneTurn;
+  }
+
+  @Override
+  public ThreeTrioCard getCard(int row, int col) {
+    if (row < 0 || row >= numRows || col < 0 || col >= numCols) {
+      throw new IllegalArgumentException("Out of bounds error");
+    }
+    int cell = row * numCols + col;
+    if (cells[cell] == HOLE) {
+      return new PlayingCard(true);
+    } else if (cells[cell] == EMPTY) {
+      return new PlayingCard();
+    }
+    return materialize(cells[cell], testBit(redMask, cell) ? Color.RED : Color.BLUE);
+  }
+
+  @Override
+  public int getBoardW() {
+    checkBoard();
+    return numCols;
+  }
+
+  @Override
+  public int getBoardH() {
+    checkBoard();
+    return numRows;
+  }
+
+  @Override
+  public Color getCardColor(int row, int col) {
+    if (row < 0 || row >= numRows || col < 0 || col >= numCols) {
+      throw new IllegalArgumentException("Out of bounds error");
+    }
+    int cell = row * numCols + col;
+    if (cells[cell] == HOLE) {
+      throw new IllegalArgumentException("Cannot get color of a hole card");
+    }
+    if (cells[cell] == EMPTY) {
+      throw new IllegalArgumentException("There is not a card played at the given row and col");
+    }
+    return testBit(redMask, cell) ? Color.RED : Color.BLUE;
+  }
+
+  @Override
+  public int getScore(Color color) {
+    if (color == Color.RED) {
+      return redOnBoard + playerOneSize;
+    } else {
+      return blueOnBoard + playerTwoSize;
+    }
+  }
+
+  @Override
+  public int countPossibleFlips(int row, int col, ThreeTrioCard card) {
+    checkStarted();
+    int cell = row * numCols + col;
+    if (cells[cell] == HOLE) {
+      throw new IllegalArgumentException("Must play to a tile");
+    }
+    boolean red = card.getColor() == null ? playerOneTurn : card.getColor() == Color.RED;
+    return resolveFlips(cell, card.getPackedAttacks(), red, true);
+  }
+
+  @Override
+  public void scoreMoves(int[] scores) {
+    checkStarted();
+    int[] hand = playerOneTurn ? playerOneHand : playerTwoHand;
+    int size = playerOneTurn ? playerOneSize : playerTwoSize;
+    if (scores.length < size * numCells) {
+      throw new IllegalArgumentException("Not enough room for the scores: " + scores.length);
+    }
+    Arrays.fill(scores, 0, size * numCells, -1);
+    for (int handIdx = 0; handIdx < size; handIdx++) {
+      int attack = attacks[hand[handIdx]];
+      int offset = handIdx * numCells;
+      for (int word = 0; word < emptyMask.length; word++) {
+        for (long bits = emptyMask[word]; bits != 0; bits &= bits - 1) {
+          int cell = word << 6 | Long.numberOfTrailingZeros(bits);
+          scores[offset + cell] = resolveFlips(cell, attack, playerOneTurn, true);
+        }
+      }
+    }
+  }
+
+  @Override
+  public boolean isValidMove(int row, int col) {
+    if (row < 0 || row >= numRows || col < 0 || col >= numCols) {
+      return false;
+    }
+    return cells[row * numCols + col] == EMPTY;
+  }
+
+  @Override
+  public int[] openTiles() {
+    checkBoard();
+    return setBits(emptyMask, numEmpty);
+  }
+
+  @Override
+  public Color ownerAt(int row, int col) {
+    int cell = checkedCell(row, col);
+    if (cells[cell] < 0) {
+      return null;
+    }
+    return testBit(redMask, cell) ? Color.RED : Color.BLUE;
+  }
+
+  @Override
+  public int attackAt(int row, int col, Direction dir) {
+    int cell = checkedCell(row, col);
+    return cells[cell] < 0 ? 0 : CardDefinition.attackOf(attacks[cells[cell]], dir.ordinal());
+  }
+
+  @Override
+  public boolean isHoleAt(int row, int col) {
+    return cells[checkedCell(row, col)] == HOLE;
+  }
+
+  @Override
+  public int handSize() {
+    return playerOneTurn ? playerOneSize : playerTwoSize;
+  }
+
+  @Override
+  public int handAttack(int handIdx, Direction dir) {
+    return playerOneTurn ? attackInHand(playerOneHand, playerOneSize, handIdx, dir)
+            : attackInHand(playerTwoHand, playerTwoSize, handIdx, dir);
+  }
+
+  @Override
+  public int otherHandSize() {
+    return playerOneTurn ? playerTwoSize : playerOneSize;
+  }
+
+  @Override
+  public int otherHandAttack(int handIdx, Direction dir) {
+    return playerOneTurn ? attackInHand(playerTwoHand, playerTwoSize, handIdx, dir)
+            : attackInHand(playerOneHand, playerOneSize, handIdx, dir);
+  }
+
+  private int checkedCell(int row, int col) {
+    checkBoard();
+    if (row < 0 || row >= numRows || col < 0 || col >= numCols) {
+      throw new IllegalArgumentException("Out of bounds error");
+    }
+    return row * numCols + col;
+  }
+
+  private int attackInHand(int[] hand, int size, int handIdx, Direction dir) {
+    if (handIdx < 0 || handIdx >= size) {
+      throw new IllegalArgumentException("Invalid hand index: " + handIdx);
+    }
+    return CardDefinition.attackOf(attacks[hand[handIdx]], dir.ordinal());
+  }
+
+  @Override
+  public long stateHash() {
+    checkBoard();
+    return playerOneTurn ? stateHash + Zobrist.PLAYER_ONE_TO_MOVE : stateHash;
+  }
+
+  /**
+   * Returns the symmetries of the board, found once when the board was set.
+   *
+   * @return the symmetries of the board
+   * @throws IllegalStateException if the board has not been initialized
+   */
+  public BoardSymmetry getSymmetry() {
+    checkBoard();
+    return symmetry;
+  }
+
+  /**
+   * Returns the neighbors and exposed sides of the board's tiles, found once when the board was
+   * set.
+   *
+   * @return the topology of the board
+   * @throws IllegalStateException if the board has not been initialized
+   */
+  public BoardTopology getTopology() {
+    checkBoard();
+    return topology;
+  }
+
+  /**
+   * Returns which cards of the game flip which under its attack rules, numbered by the order
+   * the game took them in. Worked out the first time it is asked for, and again if cards have
+   * been dealt since.
+   *
+   * @return the beat matrix of the game's cards
+   * @throws IllegalStateException if the board has not been initialized
+   */
+  public BeatMatrix getBeatMatrix() {
+    checkBoard();
+    if (beatMatrix == null || beatMatrix.size() != numCards) {
+      beatMatrix = BeatMatrix.of(Arrays.asList(cards).subList(0, numCards), beats);
+    }
+    return beatMatrix;
+  }
+
+  /**
+   * Returns true if some symmetry of the board besides the identity leaves every card of the
+   * game as it is, so that states of this game can have turned versions that are also states of
+   * it. Only then can the canonical hash differ from stateHash.
+   *
+   * @return whether the game has symmetries to share results between
+   */
+  public boolean hasCardSymmetries() {
+    return cardSymmetries != null && cardSymmetries.length > 0;
+  }
+
+  /**
+   * Returns the canonical hash of the current state, the smallest stateHash over the state
+   * turned by every symmetry that leaves the cards as they are. Equal to
+   * BoardSymmetry.canonicalHash of this game, but kept up to date like stateHash.
+   *
+   * @return the canonical hash of the current state
+   * @throws IllegalStateException if the board has not been initialized
+   */
+  public long canonicalHash() {
+    long best = stateHash();
+    for (int i = 0; i < cardSymmetries.length; i++) {
+      best = Math.min(best, turnedHash(i));
+    }
+    return best;
+  }
+
+  /**
+   * Returns the symmetry that turns the current state into its canonical version, as an index
+   * into getSymmetry.
+   *
+   * @return the symmetry giving the smallest hash, 0 if that is the identity
+   * @throws IllegalStateException if the board has not been initialized
+   */
+  public int canonicalSymmetry() {
+    int best = 0;
+    long bestHash = stateHash();
+    for (int i = 0; i < cardSymmetries.length; i++) {
+      long hash = turnedHash(i);
+      if (hash < bestHash) {
+        best = cardSymmetries[i];
+        bestHash = hash;
+      }
+    }
+    return best;
+  }
+
+  private long turnedHash(int i) {
+    return playerOneTurn ? turnedHashes[i] + Zobrist.PLAYER_ONE_TO_MOVE : turnedHashes[i];
+  }
+
+  @Override
+  public boolean hasGameStarted() {
+    return gameStarted;
+  }
+
+  @Override
+  public Player getActivePlayer() {
+    return this.playerOneTurn ? player1 : player2;
+  }
+
+  @Override
+  public void setPlayers(Player p1, Player p2) {
+    this.player1 = p1;
+    this.player2 = p2;
+  }
+
+  @Override
+  public List<ThreeTrioCard> createDeck() throws FileNotFoundException {
+    if (configReader == null) {
+      throw new IllegalArgumentException("Deck config path not given");
+    }
+    return configReader.createDeck();
+  }
+
+  @Override
+  public ThreeTrioCard[][] createBoard() throws FileNotFoundException {
+    if (configReader == null) {
+      throw new IllegalArgumentException("Board config path not given");
+    }
+    return configReader.createBoard();
+  }
+
+  @Override
+  public void setDeck(List<ThreeTrioCard> deck) {
+    this.deck = deck;
+  }
+
+  @Override
+  public void setBoard(ThreeTrioCard[][] board) {
+    initBoard(board, null, null);
+    initCards(numCells + 1);
+    for (int row = 0; row < numRows; row++) {
+      for (int col = 0; col < numCols; col++) {
+        ThreeTrioCard card = board[row][col];
+        if (!card.isHole() && card.getName() != null) {
+          placeCard(row * numCols + col, registerCard(card), card.getColor() != Color.BLUE);
+        }
+      }
+    }
+  }
+
+  @Override
+  public String getDeckConfig() {
+    return deckConfig;
+  }
+
+  @Override
+  public String getBoardConfig() {
+    return boardConfig;
+  }
+}
@@ -0,0 +1,266 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The symmetries of a board: the rotations and mirrorings that map every hole onto a hole and
+ * every tile onto a tile. A rectangular board can have at most the four that keep its shape, a
+ * square one up to eight. Symmetry 0 is always the identity.
+ *
+ * <p>A position turned by a symmetry, with the sides of every card turned with it, plays out
+ * exactly like the original. When the symmetry leaves every card of the game as it is, the
+ * turned position is another position of the same game, and the two can share whatever is known
+ * about them. The canonical hash of a position is the smallest state hash over its turned
+ * versions under those symmetries, and is the same for every position in the same class. Cells
+ * and moves are turned into the frame of the canonical version with the symmetry that gave it,
+ * and back with its inverse.
+ */
+public final class BoardSymmetry {
+  // the linear part of every candidate symmetry, {rr, rc, cr, cc}, acting on coordinates taken
+  // from the center of the board. The last four swap rows and columns, so only fit squares.
+  private static final int[][] MATRICES = {
+      {1, 0, 0, 1}, {1, 0, 0, -1}, {-1, 0, 0, 1}, {-1, 0, 0, -1},
+      {0, 1, 1, 0}, {0, -1, 1, 0}, {0, 1, -1, 0}, {0, -1, -1, 0}
+  };
+  // the row and column step of each direction, in the order of Direction
+  private static final int[][] STEPS = {{-1, 0}, {1, 0}, {0, 1}, {0, -1}};
+
+  private final int numCells;
+  // cells[s][cell] is where symmetry s takes the cell, dirs[s][dir] where it turns a side
+  private final int[][] cells;
+  private final int[][] dirs;
+  private final int[] inverses;
+
+  private BoardSymmetry(int numCells, List<int[]> cells, List<int[]> dirs) {
+    this.numCells = numCells;
+    this.cells = cells.toArray(new int[0][]);
+    this.dirs = dirs.toArray(new int[0][]);
+    this.inverses = new int[this.cells.length];
+    for (int s = 0; s < this.cells.length; s++) {
+      for (int t = 0; t < this.cells.length; t++) {
+        if (composesToIdentity(s, t)) {
+          inverses[s] = t;
+        }
+      }
+    }
+  }
+
+  /**
+   * Finds the symmetries of the given board, by its holes alone.
+   *
+   * @param board the board, with holes and tiles and any cards on them
+   * @return the symmetries of the board's layout
+   * @throws IllegalArgumentException if the board is null or empty
+   */
+  public static BoardSymmetry of(ThreeTrioCard[][] board) {
+    if (board == null || board.length == 0 || board[0].length == 0) {
+      throw new IllegalArgumentException("The board must not be null or empty");
+    }
+    int height = board.length;
+    int width = board[0].length;
+    List<int[]> cells = new ArrayList<>();
+    List<int[]> dirs = new ArrayList<>();
+    for (int[] matrix : MATRICES) {
+      if (matrix[0] == 0 && height != width) {
+        continue;
+      }
+      int[] map = new int[height * width];
+      boolean fits = true;
+      for (int row = 0; row < height && fits; row++) {
+        for (int col = 0; col < width && fits; col++) {
+          // centered coordinates, doubled so they stay whole
+          int r = 2 * row - (height - 1);
+          int c = 2 * col - (width - 1);
+          int toRow = (matrix[0] * r + matrix[1] * c + height - 1) / 2;
+          int toCol = (matrix[2] * r + matrix[3] * c + width - 1) / 2;
+          map[row * width + col] = toRow * width + toCol;
+          fits = board[row][col].isHole() == board[toRow][toCol].isHole();
+        }
+      }
+      if (!fits) {
+        continue;
+      }
+      int[] dirMap = new int[4];
+      for (int dir = 0; dir < 4; dir++) {
+        int dr = matrix[0] * STEPS[dir][0] + matrix[1] * STEPS[dir][1];
+        int dc = matrix[2] * STEPS[dir][0] + matrix[3] * STEPS[dir][1];
+        for (int to = 0; to < 4; to++) {
+          if (STEPS[to][0] == dr && STEPS[to][1] == dc) {
+            dirMap[dir] = to;
+          }
+        }
+      }
+      cells.add(map);
+      dirs.add(dirMap);
+    }
+    return new BoardSymmetry(height * width, cells, dirs);
+  }
+
+  /**
+   * Returns the number of symmetries of the board, the identity included.
+   *
+   * @return the number of symmetries, from 1 to 8
+   */
+  public int size() {
+    return cells.length;
+  }
+
+  /**
+   * Returns the cell the given symmetry takes the given cell to.
+   *
+   * @param symmetry the symmetry
+   * @param cell     the cell, row * width + col
+   * @return the cell it is taken to
+   */
+  public int mapCell(int symmetry, int cell) {
+    return cells[symmetry][cell];
+  }
+
+  /**
+   * Returns the attack values of a card turned by the given symmetry, so that each value faces
+   * the way the side it was on now faces.
+   *
+   * @param symmetry      the symmetry
+   * @param packedAttacks the attack values of the card, see CardDefinition
+   * @return the turned attack values
+   */
+  public int mapAttacks(int symmetry, int packedAttacks) {
+    int turned = 0;
+    for (int dir = 0; dir < 4; dir++) {
+      turned |= CardDefinition.attackOf(packedAttacks, dir) << (dirs[symmetry][dir] * 4);
+    }
+    return turned;
+  }
+
+  /**
+   * Returns the coded move, handIdx * numCells + cell, with its cell taken by the given
+   * symmetry. The hand index stays the same, since cards keep their place in hand when turned.
+   *
+   * @param symmetry the symmetry
+   * @param move     the coded move, or -1 for no move
+   * @return the turned move, or -1
+   */
+  public int mapMove(int symmetry, int move) {
+    if (move < 0) {
+      return move;
+    }
+    return move - move % numCells + cells[symmetry][move % numCells];
+  }
+
+  /**
+   * Returns the symmetry that undoes the given one.
+   *
+   * @param symmetry the symmetry
+   * @return its inverse
+   */
+  public int inverse(int symmetry) {
+    return inverses[symmetry];
+  }
+
+  /**
+   * Returns true if the given symmetry leaves every card of the given game as it is, on the
+   * board and in both hands.
+   *
+   * @param model    the game
+   * @param symmetry the symmetry
+   * @return whether every card looks the same turned
+   */
+  public boolean preservesCards(ReadonlyThreeTrioModel<ThreeTrioCard> model, int symmetry) {
+    int width = model.getBoardW();
+    for (int cell = 0; cell < numCells; cell++) {
+      ThreeTrioCard card = model.getCard(cell / width, cell % width);
+      if (!card.isHole() && card.getName() != null && !preserves(card, symmetry)) {
+        return false;
+      }
+    }
+    for (ThreeTrioCard card : model.getPlayerOneHand()) {
+      if (!preserves(card, symmetry)) {
+        return false;
+      }
+    }
+    for (ThreeTrioCard card : model.getPlayerTwoHand()) {
+      if (!preserves(card, symmetry)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the state hash of the given position turned by the given symmetry, computed from
+   * scratch. Equal to the model's stateHash for the identity. The symmetry is expected to
+   * preserve the cards of the game, so each card keeps its code.
+   *
+   * @param model    the position
+   * @param symmetry the symmetry to turn it by
+   * @return the hash of the turned position
+   */
+  public long turnedHash(ReadonlyThreeTrioModel<ThreeTrioCard> model, int symmetry) {
+    int width = model.getBoardW();
+    long hash = model.getTurn() ? Zobrist.PLAYER_ONE_TO_MOVE : 0;
+    for (int cell = 0; cell < numCells; cell++) {
+      ThreeTrioCard card = model.getCard(cell / width, cell % width);
+      if (!card.isHole() && card.getName() != null) {
+        hash += Zobrist.cellKey(cells[symmetry][cell], Zobrist.cardCode(card),
+                card.getColor());
+      }
+    }
+    for (ThreeTrioCard card : model.getPlayerOneHand()) {
+      hash += Zobrist.handKey(Zobrist.cardCode(card), true);
+    }
+    for (ThreeTrioCard card : model.getPlayerTwoHand()) {
+      hash += Zobrist.handKey(Zobrist.cardCode(card), false);
+    }
+    return hash;
+  }
+
+  /**
+   * Returns the canonical hash of the given position, the smallest hash over its versions
+   * turned by the symmetries that preserve its cards, computed from scratch. Meant for caches
+   * looked up once a move, such as opening books and hints; the packed game keeps its canonical
+   * hash up to date as moves are made.
+   *
+   * @param model the position
+   * @return the canonical hash of the position
+   */
+  public long canonicalHash(ReadonlyThreeTrioModel<ThreeTrioCard> model) {
+    return turnedHash(model, canonicalSymmetry(model));
+  }
+
+  /**
+   * Returns the symmetry that turns the given position into its canonical version.
+   *
+   * @param model the position
+   * @return the symmetry giving the smallest hash
+   */
+  public int canonicalSymmetry(ReadonlyThreeTrioModel<ThreeTrioCard> model) {
+    int best = 0;
+    long bestHash = turnedHash(model, 0);
+    for (int s = 1; s < cells.length; s++) {
+      if (!preservesCards(model, s)) {
+        continue;
+      }
+      long hash = turnedHash(model, s);
+      if (hash < bestHash) {
+        best = s;
+        bestHash = hash;
+      }
+    }
+    return best;
+  }
+
+  private boolean preserves(ThreeTrioCard card, int symmetry) {
+    return mapAttacks(symmetry, card.getPackedAttacks()) == card.getPackedAttacks();
+  }
+
+  // true if symmetry t undoes symmetry s
+  private boolean composesToIdentity(int s, int t) {
+    for (int cell = 0; cell < numCells; cell++) {
+      if (cells[t][cells[s][cell]] != cell) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,215 @@
+package model;
+
+/**
+ * The layout of a board as tables over its cells, row * width + col: the tile next to each cell
+ * on each side, with holes and the edge left out, and how many sides of each tile face another
+ * tile. Holes never change during a game, so the tables are built once per board and looking up
+ * a neighbor is one array read with no bounds or hole checks.
+ *
+ * <p>A tile is an effective corner when at most two of its sides face tiles and those two are
+ * not opposite each other, so it can be attacked from no more sides than a corner of an open
+ * board, whether it sits in a corner or against holes. A tile is an effective edge when it can
+ * be attacked from three sides, or from two opposite ones.
+ */
+public final class BoardTopology {
+  private final int width;
+  private final int numCells;
+  // neighbors[4 * cell + dir] is the tile next to the cell on that side, in the order of
+  // Direction, or -1 for a hole or the edge
+  private final int[] neighbors;
+  // the number of sides of each tile that face another tile, 0 for a hole
+  private final int[] exposedSides;
+  private final boolean[] tiles;
+  private final boolean[] corners;
+  private final boolean[] edges;
+  private final int[] cornerCells;
+
+  private BoardTopology(boolean[] tiles, int width) {
+    this.width = width;
+    this.numCells = tiles.length;
+    this.tiles = tiles;
+    this.neighbors = new int[4 * numCells];
+    this.exposedSides = new int[numCells];
+    this.corners = new boolean[numCells];
+    this.edges = new boolean[numCells];
+    int numCorners = 0;
+    for (int cell = 0; cell < numCells; cell++) {
+      int mask = 0;
+      for (int dir = 0; dir < 4; dir++) {
+        int adj = tiles[cell] ? step(cell, dir) : -1;
+        if (adj != -1 && !tiles[adj]) {
+          adj = -1;
+        }
+        neighbors[4 * cell + dir] = adj;
+        if (adj != -1) {
+          exposedSides[cell]++;
+          mask |= 1 << dir;
+        }
+      }
+      if (!tiles[cell]) {
+        continue;
+      }
+      // north and south, or east and west
+      boolean opposite = mask == 0b0011 || mask == 0b1100;
+      corners[cell] = exposedSides[cell] <= 2 && !opposite;
+      edges[cell] = exposedSides[cell] == 3 || opposite;
+      if (corners[cell]) {
+        numCorners++;
+      }
+    }
+    this.cornerCells = new int[numCorners];
+    for (int cell = 0, i = 0; cell < numCells; cell++) {
+      if (corners[cell]) {
+        cornerCells[i++] = cell;
+      }
+    }
+  }
+
+  /**
+   * Builds the topology of the given board, by its holes alone.
+   *
+   * @param board the board, with holes and tiles and any cards on them
+   * @return the topology of the board's layout
+   * @throws IllegalArgumentException if the board is null or empty
+   */
+  public static BoardTopology of(ThreeTrioCard[][] board) {
+    if (board == null || board.length == 0 || board[0].length == 0) {
+      throw new IllegalArgumentException("The board must not be null or empty");
+    }
+    int width = board[0].length;
+    boolean[] tiles = new boolean[board.length * width];
+    for (int cell = 0; cell < tiles.length; cell++) {
+      tiles[cell] = !board[cell / width][cell % width].isHole();
+    }
+    return new BoardTopology(tiles, width);
+  }
+
+  /**
+   * Returns the topology of the given model's board. The one a ThreeTrioGame or a packed game
+   * keeps is returned as it is; for any other model it is built, asking the model which cells
+   * are holes.
+   *
+   * @param model the model whose board to look at
+   * @return the topology of the board's layout
+   * @throws IllegalArgumentException if the board is empty
+   */
+  public static BoardTopology of(ReadonlyThreeTrioModel<ThreeTrioCard> model) {
+    if (model instanceof ThreeTrioGame) {
+      return ((ThreeTrioGame) model).getTopology();
+    }
+    if (model instanceof BitboardGame) {
+      return ((BitboardGame) model).getTopology();
+    }
+    int width = model.getBoardW();
+    int numCells = width * model.getBoardH();
+    if (numCells == 0) {
+      throw new IllegalArgumentException("The board must not be empty");
+    }
+    boolean[] tiles = new boolean[numCells];
+    for (int cell = 0; cell < numCells; cell++) {
+      tiles[cell] = !model.isHoleAt(cell / width, cell % width);
+    }
+    return new BoardTopology(tiles, width);
+  }
+
+  /**
+   * Returns the width of the board.
+   *
+   * @return the number of columns
+   */
+  public int width() {
+    return width;
+  }
+
+  /**
+   * Returns the number of cells of the board, holes included.
+   *
+   * @return the number of cells
+   */
+  public int numCells() {
+    return numCells;
+  }
+
+  /**
+   * Returns true if the given cell is a tile, not a hole.
+   *
+   * @param cell the cell, row * width + col
+   * @return whether the cell is a tile
+   */
+  public boolean isTile(int cell) {
+    return tiles[cell];
+  }
+
+  /**
+   * Returns the tile next to the given cell on the given side.
+   *
+   * @param cell the cell, row * width + col
+   * @param dir  the side, as the ordinal of a Direction
+   * @return the tile on that side, or -1 if there is a hole or the edge there
+   */
+  public int neighbor(int cell, int dir) {
+    return neighbors[4 * cell + dir];
+  }
+
+  /**
+   * Returns the tile next to the given cell on the given side.
+   *
+   * @param cell the cell, row * width + col
+   * @param dir  the side
+   * @return the tile on that side, or -1 if there is a hole or the edge there
+   */
+  public int neighbor(int cell, Direction dir) {
+    return neighbors[4 * cell + dir.ordinal()];
+  }
+
+  /**
+   * Returns how many sides of the given cell face a tile, so could be attacked.
+   *
+   * @param cell the cell, row * width + col
+   * @return the number of sides facing a tile, from 0 to 4, 0 for a hole
+   */
+  public int exposedSides(int cell) {
+    return exposedSides[cell];
+  }
+
+  /**
+   * Returns true if the given cell is an effective corner: a tile that can be attacked from at
+   * most two sides, and not from two opposite ones.
+   *
+   * @param cell the cell, row * width + col
+   * @return whether the cell is an effective corner
+   */
+  public boolean isCorner(int cell) {
+    return corners[cell];
+  }
+
+  /**
+   * Returns true if the given cell is an effective edge: a tile that can be attacked from three
+   * sides, or from two opposite ones.
+   *
+   * @param cell the cell, row * width + col
+   * @return whether the cell is an effective edge
+   */
+  public boolean isEdge(int cell) {
+    return edges[cell];
+  }
+
+  /**
+   * Returns the effective corners of the board, in order of cell.
+   *
+   * @return a copy of the cells that are effective corners
+   */
+  public int[] corners() {
+    return cornerCells.clone();
+  }
+
+  // the cell next to the given one in the given direction, or -1 past the edge
+  private int step(int cell, int dir) {
+    int row = cell / width + (dir == 0 ? -1 : dir == 1 ? 1 : 0);
+    int col = cell % width + (dir == 2 ? 1 : dir == 3 ? -1 : 0);
+    if (row < 0 || row >= numCells / width || col < 0 || col >= width) {
+      return -1;
+    }
+    return row * width + col;
+  }
+}
@@ -0,0 +1,95 @@
+package model;
+
+/**
+ * Enum to represent the rules that let a card flip cards next to it it would not beat, when the
+ * cards around it match it in some way. Like an AttackRule, a rule holds no state, so the same
+ * rule can be shared by any number of games, and rules stack.
+ *
+ * <p>A rule looks at the four sides of the card placed, in the order of Direction: the attack
+ * value of the placed card on each side, the value of the card it touches facing back, and
+ * whether that card belongs to the player placing. When one or more rules are triggered, the
+ * placed card flips every enemy card next to it that a triggered rule boosts it past or that it
+ * beats, and those flips do not combo. Otherwise the battle goes as normal.
+ */
+public enum BoostRule {
+  /**
+   * The same rule, triggered when a card of the player's own touches the placed card with the
+   * same value. The placed card then flips every enemy card next to it that matches it too.
+   */
+  SAME {
+    @Override
+    int trigger(int[] attacks, int[] defenses, boolean[] own) {
+      for (int side = 0; side < attacks.length; side++) {
+        if (own[side] && attacks[side] == defenses[side]) {
+          return 0;
+        }
+      }
+      return NOT_TRIGGERED;
+    }
+
+    @Override
+    boolean boosts(int attack, int defense, int key) {
+      return attack == defense;
+    }
+  },
+  /**
+   * The plus rule, triggered when two cards of the player's own touch the placed card with
+   * values that add up to the same sum with the sides they touch. The placed card then flips
+   * every enemy card next to it with that sum.
+   */
+  PLUS {
+    @Override
+    int trigger(int[] attacks, int[] defenses, boolean[] own) {
+      for (int side = 0; side < attacks.length; side++) {
+        if (defenses[side] == NO_CARD) {
+          continue;
+        }
+        int sum = attacks[side] + defenses[side];
+        int matches = 0;
+        for (int other = 0; other < attacks.length; other++) {
+          if (own[other] && attacks[other] + defenses[other] == sum) {
+            matches++;
+          }
+        }
+        if (matches >= 2) {
+          return sum;
+        }
+      }
+      return NOT_TRIGGERED;
+    }
+
+    @Override
+    boolean boosts(int attack, int defense, int key) {
+      return attack + defense == key;
+    }
+  };
+
+  /**
+   * Returned by trigger when the rule does not apply.
+   */
+  static final int NOT_TRIGGERED = -1;
+  /**
+   * The defense of a side with no card on it: a hole, an open tile or the edge.
+   */
+  static final int NO_CARD = -1;
+
+  /**
+   * Works out whether this rule applies to a card placed with the given sides.
+   *
+   * @param attacks  the attack value of the placed card on each side
+   * @param defenses the value facing back of the card on each side, or NO_CARD
+   * @param own      whether the card on each side belongs to the player placing
+   * @return NOT_TRIGGERED if the rule does not apply, otherwise a key to pass to boosts
+   */
+  abstract int trigger(int[] attacks, int[] defenses, boolean[] own);
+
+  /**
+   * Returns true if this rule, once triggered, lets the attack flip the defense.
+   *
+   * @param attack  the attack value of the placed card on the side
+   * @param defense the value facing back of the enemy card on that side
+   * @param key     the key trigger returned
+   * @return whether the enemy card flips by this rule
+   */
+  abstract boolean boosts(int attack, int defense, int key);
+}
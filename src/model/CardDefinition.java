@@ -0,0 +1,88 @@
+package model;
+
+import java.util.Objects;
+
+/**
+ * The immutable definition of a playable card: its name and its four attack values. A definition
+ * is shared by every copy of a card (flyweight), so copying a card never copies its attacks.
+ * The attack values are packed into one int, four bits per direction in the order of
+ * {@link Direction#ordinal()}, so reading an attack is a shift and a mask.
+ * Who owns a card is not part of its definition.
+ */
+public final class CardDefinition {
+  private final String name;
+  private final int packedAttacks;
+
+  /**
+   * Constructs a card definition.
+   *
+   * @param name          the name of the card
+   * @param packedAttacks the attack values of the card, packed with {@link #pack}
+   * @throws NullPointerException if name is null
+   */
+  public CardDefinition(String name, int packedAttacks) {
+    this.name = Objects.requireNonNull(name);
+    this.packedAttacks = packedAttacks;
+  }
+
+  /**
+   * Packs four attack values into a single int.
+   *
+   * @param north the attack value facing north
+   * @param south the attack value facing south
+   * @param east  the attack value facing east
+   * @param west  the attack value facing west
+   * @return the packed attack values
+   */
+  public static int pack(Attack north, Attack south, Attack east, Attack west) {
+    return north.getValue() << (Direction.NORTH.ordinal() * 4)
+            | south.getValue() << (Direction.SOUTH.ordinal() * 4)
+            | east.getValue() << (Direction.EAST.ordinal() * 4)
+            | west.getValue() << (Direction.WEST.ordinal() * 4);
+  }
+
+  /**
+   * Reads one attack value out of packed attack values.
+   *
+   * @param packedAttacks the packed attack values
+   * @param dir           the ordinal of the direction to read
+   * @return the attack value in that direction
+   */
+  public static int attackOf(int packedAttacks, int dir) {
+    return (packedAttacks >>> (dir * 4)) & 0xF;
+  }
+
+  /**
+   * Returns the name of this card.
+   *
+   * @return the name of this card
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns all four attack values of this card, packed.
+   *
+   * @return the packed attack values
+   */
+  public int getPackedAttacks() {
+    return packedAttacks;
+  }
+
+  /**
+   * Returns the attack value of this card in the given direction.
+   *
+   * @param dir the direction to read
+   * @return the attack value in that direction
+   */
+  public int getAttack(Direction dir) {
+    return attackOf(packedAttacks, dir.ordinal());
+  }
+
+  @Override
+  public String toString() {
+    return name + " " + getAttack(Direction.NORTH) + " " + getAttack(Direction.SOUTH) + " "
+            + getAttack(Direction.EAST) + " " + getAttack(Direction.WEST);
+  }
+}
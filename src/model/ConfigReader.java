@@ -60,7 +60,8 @@ public class ConfigReader {
   }
 
   /**
-   * Creates a deck of cards from the configuration file.
+   * Creates a deck of cards from the configuration file. Every card in the deck gets its own
+   * immutable definition, shared by the copies made of it.
    *
    * @return a list of all the cards in the deck
    * @throws FileNotFoundException if the file is not found
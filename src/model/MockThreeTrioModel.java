@@ -129,11 +129,61 @@ public class MockThreeTrioModel implements ThreeTrioModel<ThreeTrioCard> {
     return 0;
   }
 
+  @Override
+  public void scoreMoves(int[] scores) {
+    // mock, there are no moves to score
+  }
+
   @Override
   public boolean isValidMove(int row, int col) {
     return false;
   }
 
+  @Override
+  public int[] openTiles() {
+    return new int[0];
+  }
+
+  @Override
+  public Color ownerAt(int row, int col) {
+    return null;
+  }
+
+  @Override
+  public int attackAt(int row, int col, Direction dir) {
+    return 0;
+  }
+
+  @Override
+  public boolean isHoleAt(int row, int col) {
+    return false;
+  }
+
+  @Override
+  public int handSize() {
+    return 0;
+  }
+
+  @Override
+  public int handAttack(int handIdx, Direction dir) {
+    return 0;
+  }
+
+  @Override
+  public int otherHandSize() {
+    return 0;
+  }
+
+  @Override
+  public int otherHandAttack(int handIdx, Direction dir) {
+    return 0;
+  }
+
+  @Override
+  public long stateHash() {
+    return 0;
+  }
+
   @Override
   public boolean hasGameStarted() {
     return false;
@@ -156,6 +206,24 @@ public class MockThreeTrioModel implements ThreeTrioModel<ThreeTrioCard> {
     }
   }
 
+  @Override
+  public void makeMove(int row, int col, int handIdx) {
+    try {
+      log.append("Making move! Row: " + row + " Col: " + col + " HandIdx: " + handIdx);
+    } catch (IOException ignore) {
+      //ignore  this exception because we are a mock
+    }
+  }
+
+  @Override
+  public void unmakeMove() {
+    try {
+      log.append("Unmaking move!");
+    } catch (IOException ignore) {
+      //ignore  this exception because we are a mock
+    }
+  }
+
   @Override
   public List<ThreeTrioCard> createDeck() throws FileNotFoundException {
     return null;
@@ -196,19 +264,6 @@ public class MockThreeTrioModel implements ThreeTrioModel<ThreeTrioCard> {
     return new Human("John");
   }
 
-  @Override
-  public void checkAndFlip(int adjRow, int adjCol, Direction dirFrom, Direction dirTo, int row,
-                           int col, ThreeTrioCard lastCard, List<ThreeTrioCard> flippedCards) {
-    //mock does nothing
-  }
-
-  @Override
-  public void checkAndFlip(ThreeTrioCard[][] board, int adjRow, int adjCol, Direction dirFrom,
-                           Direction dirTo, int row, int col, ThreeTrioCard lastCard,
-                           List<ThreeTrioCard> flippedCards) {
-    //mock does nothing
-  }
-
   @Override
   public boolean compareAttacks(ThreeTrioCard adjacentCard, ThreeTrioCard lastCard,
                                 Direction dirFrom, Direction dirTo) {
@@ -0,0 +1,294 @@
+package model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the flip count of every move of a game between calls, by hand card and cell, and
+ * recounts only the moves a change to the board can have touched. Gives the same scores as the
+ * game's scoreMoves, for callers that ask for them again and again as the game goes on.
+ *
+ * <p>Each time it is asked, the cache takes the cells changed since it last looked from the
+ * game's changedSince, and only compares those with the board it last saw. For any other model,
+ * or when the game no longer knows the changes, the whole board is compared. A move's flips,
+ * combos included, depend only on the cards connected to its cell through other cards, so for
+ * every changed cell the cards connected to it are walked and the open tiles next to them are
+ * recounted. Counts are kept per card, by its name, attack values and owner, so they outlive the
+ * turns in which the card's owner is not to move.
+ *
+ * <p>On a small board most cards are connected, so a move still recounts half of the moves or
+ * more and the bookkeeping makes the cache slower than scoring every move. On boards with fewer
+ * than MIN_CACHED_TILES tiles the cache therefore hands the call to the model's scoreMoves.
+ */
+public final class MoveScoreCache {
+  // what a cell holds, as last seen: a hole, an open tile, or a card of either player. A card
+  // only leaves a cell by it being emptied, so a changed card shows as a changed owner.
+  private static final int HOLE = -2;
+  private static final int OPEN = -1;
+  private static final int RED = 0;
+  private static final int BLUE = 1;
+  // a count that has to be worked out again
+  private static final int UNKNOWN = -2;
+  // the fewest tiles of a board on which keeping counts is faster than scoring every move
+  private static final int MIN_CACHED_TILES = 25;
+
+  private final ReadonlyThreeTrioModel<ThreeTrioCard> model;
+  // the model, if it logs the cells it changes, or null
+  private final ThreeTrioGame game;
+  // the game's change marker when the board was last looked at
+  private long marker;
+  // the changed cells read from the game
+  private int[] changed;
+  private int width;
+  private int numCells;
+  private int[] seen;
+  // the cells next to each cell, four to a cell in the order of Direction, -1 past the edge
+  private int[] neighbors;
+  // the open tiles, as last seen, in no order, and where each tile is in them or -1
+  private int[] open;
+  private int numOpen;
+  private int[] openIndex;
+  // the cells changed or next to the cards connected to a change, since the last call
+  private int[] dirty;
+  private int numDirty;
+  private boolean[] isDirty;
+  private int[] queue;
+  private int numQueued;
+  private boolean[] visited;
+
+  // one row of counts per card, by cell
+  private ThreeTrioCard[] cards = new ThreeTrioCard[0];
+  private String[] names = new String[0];
+  private int[] attacks = new int[0];
+  private boolean[] red = new boolean[0];
+  private int[][] counts = new int[0][];
+  private int numEntries;
+
+  /**
+   * Constructs a cache of the given model's move scores. The model may be started later.
+   *
+   * @param model the model whose moves to score
+   */
+  public MoveScoreCache(ReadonlyThreeTrioModel<ThreeTrioCard> model) {
+    this.model = model;
+    this.game = model instanceof ThreeTrioGame ? (ThreeTrioGame) model : null;
+  }
+
+  /**
+   * Writes the number of cards each move of the player to move would flip, like the model's
+   * scoreMoves: playing hand card handIdx to a cell is at handIdx * getBoardW() * getBoardH()
+   * plus the cell, and moves to cells that are not open tiles score -1.
+   *
+   * @param scores the array to fill, with room for a score for every move
+   * @throws IllegalArgumentException if the array is too small
+   */
+  public void scoreMoves(int[] scores) {
+    if (model.getNumTiles() < MIN_CACHED_TILES) {
+      model.scoreMoves(scores);
+      return;
+    }
+    refresh();
+    List<ThreeTrioCard> hand = model.getPlayerHand();
+    if (scores.length < hand.size() * numCells) {
+      throw new IllegalArgumentException("Not enough room for the scores: " + scores.length);
+    }
+    boolean redToMove = model.getTurn();
+    Arrays.fill(scores, 0, hand.size() * numCells, -1);
+    for (int handIdx = 0; handIdx < hand.size(); handIdx++) {
+      ThreeTrioCard card = hand.get(handIdx);
+      int entry = entryOf(card, redToMove);
+      int[] row = counts[entry];
+      int offset = handIdx * numCells;
+      for (int i = 0; i < numOpen; i++) {
+        int cell = open[i];
+        if (row[cell] == UNKNOWN) {
+          row[cell] = model.countPossibleFlips(cell / width, cell % width, card);
+        }
+        scores[offset + cell] = row[cell];
+      }
+    }
+  }
+
+  // finds the cells that changed since the last call and forgets the counts they can touch
+  private void refresh() {
+    int cells = model.getBoardW() * model.getBoardH();
+    if (seen == null || model.getBoardW() != width || cells != numCells) {
+      width = model.getBoardW();
+      numCells = cells;
+      seen = new int[numCells];
+      changed = new int[Math.max(64, 4 * numCells)];
+      dirty = new int[numCells];
+      isDirty = new boolean[numCells];
+      queue = new int[numCells];
+      visited = new boolean[numCells];
+      open = new int[numCells];
+      openIndex = new int[numCells];
+      neighbors = new int[4 * numCells];
+      numEntries = 0;
+      numOpen = 0;
+      for (int cell = 0; cell < numCells; cell++) {
+        seen[cell] = model.isHoleAt(cell / width, cell % width) ? HOLE : cellState(cell);
+        openIndex[cell] = -1;
+        if (seen[cell] == OPEN) {
+          openIndex[cell] = numOpen;
+          open[numOpen++] = cell;
+        }
+        for (int dir = 0; dir < 4; dir++) {
+          neighbors[4 * cell + dir] = neighbor(cell, dir);
+        }
+      }
+      if (game != null) {
+        marker = game.changeMarker();
+      }
+      return;
+    }
+    numDirty = 0;
+    int numChanged = game == null ? -1 : game.changedSince(marker, changed);
+    if (numChanged < 0) {
+      for (int cell = 0; cell < numCells; cell++) {
+        see(cell);
+      }
+    } else {
+      for (int i = 0; i < numChanged; i++) {
+        see(changed[i]);
+      }
+    }
+    if (game != null) {
+      marker = game.changeMarker();
+    }
+    for (int i = 0; i < numDirty; i++) {
+      int cell = dirty[i];
+      isDirty[cell] = false;
+      for (int entry = 0; entry < numEntries; entry++) {
+        counts[entry][cell] = UNKNOWN;
+      }
+    }
+    for (int i = 0; i < numQueued; i++) {
+      visited[queue[i]] = false;
+    }
+    numQueued = 0;
+  }
+
+  // looks at what a tile holds now, and if that changed, marks the moves it can touch and keeps
+  // the open tiles up to date
+  private void see(int cell) {
+    if (seen[cell] == HOLE) {
+      return;
+    }
+    int state = cellState(cell);
+    if (state == seen[cell]) {
+      return;
+    }
+    if (state == OPEN) {
+      openIndex[cell] = numOpen;
+      open[numOpen++] = cell;
+    } else if (seen[cell] == OPEN) {
+      int last = open[--numOpen];
+      open[openIndex[cell]] = last;
+      openIndex[last] = openIndex[cell];
+      openIndex[cell] = -1;
+    }
+    seen[cell] = state;
+    markDirty(cell);
+  }
+
+  // marks a changed cell, and every tile next to the cards connected to it or, if it was
+  // emptied, to the cards that were connected through it
+  private void markDirty(int cell) {
+    mark(cell);
+    if (seen[cell] >= 0) {
+      walkFrom(cell);
+    }
+    for (int dir = 0; dir < 4; dir++) {
+      int adj = neighbors[4 * cell + dir];
+      if (adj != -1) {
+        mark(adj);
+        if (seen[adj] >= 0) {
+          walkFrom(adj);
+        }
+      }
+    }
+  }
+
+  // walks the cards connected to the card at the given cell, marking the tiles next to them
+  private void walkFrom(int start) {
+    if (visited[start]) {
+      return;
+    }
+    // the queue keeps every cell walked since the last call, so they can be unvisited after
+    int head = numQueued;
+    queue[numQueued++] = start;
+    visited[start] = true;
+    while (head < numQueued) {
+      int cell = queue[head++];
+      for (int dir = 0; dir < 4; dir++) {
+        int adj = neighbors[4 * cell + dir];
+        if (adj == -1) {
+          continue;
+        }
+        if (seen[adj] >= 0) {
+          if (!visited[adj]) {
+            visited[adj] = true;
+            queue[numQueued++] = adj;
+          }
+        } else {
+          mark(adj);
+        }
+      }
+    }
+  }
+
+  private void mark(int cell) {
+    if (!isDirty[cell]) {
+      isDirty[cell] = true;
+      dirty[numDirty++] = cell;
+    }
+  }
+
+  // the row of counts of the given card played by the given player, added if there is none
+  private int entryOf(ThreeTrioCard card, boolean redToMove) {
+    for (int entry = 0; entry < numEntries; entry++) {
+      if (cards[entry] == card && red[entry] == redToMove) {
+        return entry;
+      }
+    }
+    int packed = card.getPackedAttacks();
+    for (int entry = 0; entry < numEntries; entry++) {
+      if (attacks[entry] == packed && red[entry] == redToMove
+              && names[entry].equals(card.getName())) {
+        return entry;
+      }
+    }
+    if (numEntries == counts.length) {
+      int newLength = Math.max(4, 2 * numEntries);
+      cards = Arrays.copyOf(cards, newLength);
+      names = Arrays.copyOf(names, newLength);
+      attacks = Arrays.copyOf(attacks, newLength);
+      red = Arrays.copyOf(red, newLength);
+      counts = Arrays.copyOf(counts, newLength);
+    }
+    cards[numEntries] = card;
+    names[numEntries] = card.getName();
+    attacks[numEntries] = packed;
+    red[numEntries] = redToMove;
+    counts[numEntries] = new int[numCells];
+    Arrays.fill(counts[numEntries], UNKNOWN);
+    return numEntries++;
+  }
+
+  // what a tile holds now
+  private int cellState(int cell) {
+    Color owner = model.ownerAt(cell / width, cell % width);
+    return owner == null ? OPEN : owner == Color.RED ? RED : BLUE;
+  }
+
+  // the cell next to the given one in the given direction, or -1 past the edge
+  private int neighbor(int cell, int dir) {
+    int row = cell / width + (dir == 0 ? -1 : dir == 1 ? 1 : 0);
+    int col = cell % width + (dir == 2 ? 1 : dir == 3 ? -1 : 0);
+    if (row < 0 || row >= numCells / width || col < 0 || col >= width) {
+      return -1;
+    }
+    return row * width + col;
+  }
+}
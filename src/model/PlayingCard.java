@@ -13,7 +13,8 @@ import java.util.Objects;
  */
 public class PlayingCard implements ThreeTrioCard {
   private String name;
-  private HashMap<Direction, Attack> attacks;
+  // shared by every copy of this card, null for holes and tiles
+  private CardDefinition definition;
   private Color color;
   private boolean isHole;
 
@@ -27,12 +28,17 @@ public class PlayingCard implements ThreeTrioCard {
    * @param west  the attack value of the card in the west direction
    */
   public PlayingCard(String name, Attack north, Attack south, Attack east, Attack west) {
-    this.attacks = new HashMap<>();
-    this.name = name;
-    this.attacks.put(Direction.NORTH, north);
-    this.attacks.put(Direction.SOUTH, south);
-    this.attacks.put(Direction.EAST, east);
-    this.attacks.put(Direction.WEST, west);
+    this(new CardDefinition(name, CardDefinition.pack(north, south, east, west)));
+  }
+
+  /**
+   * Constructor for a playing card with a shared definition.
+   *
+   * @param definition the name and attack values of the card
+   */
+  public PlayingCard(CardDefinition definition) {
+    this.definition = definition;
+    this.name = definition.getName();
     this.color = null;
     this.isHole = false;
   }
@@ -43,11 +49,8 @@ public class PlayingCard implements ThreeTrioCard {
    * @param other the card to copy
    */
   public PlayingCard(PlayingCard other) {
-    if (other.attacks == null) {
-      System.out.println("OTHER ATTACKS IS NULL!!!");
-    }
     this.name = other.name;
-    this.attacks = new HashMap<>(other.attacks);
+    this.definition = other.definition;
     this.color = other.color;
     this.isHole = other.isHole;
   }
@@ -80,13 +83,8 @@ public class PlayingCard implements ThreeTrioCard {
    * @param westValue  the attack value of the card in the west direction
    */
   public PlayingCard(String name, int northValue, int eastValue, int southValue, int westValue) {
-    this.name = name;
-    this.attacks = new HashMap<>();
-    this.attacks.put(Direction.NORTH, Attack.fromValue(northValue));
-    this.attacks.put(Direction.SOUTH, Attack.fromValue(southValue));
-    this.attacks.put(Direction.EAST, Attack.fromValue(eastValue));
-    this.attacks.put(Direction.WEST, Attack.fromValue(westValue));
-
+    this(name, Attack.fromValue(northValue), Attack.fromValue(southValue),
+            Attack.fromValue(eastValue), Attack.fromValue(westValue));
   }
 
   /**
@@ -110,13 +108,7 @@ public class PlayingCard implements ThreeTrioCard {
     } else if (name == null) {
       return "Tile";
     }
-    StringBuilder sb = new StringBuilder();
-    sb.append(this.name + " ");
-    sb.append(attacks.get(Direction.NORTH).getValue() + " ");
-    sb.append(attacks.get(Direction.SOUTH).getValue() + " ");
-    sb.append(attacks.get(Direction.EAST).getValue() + " ");
-    sb.append(attacks.get(Direction.WEST).getValue());
-    return sb.toString();
+    return definition.toString();
   }
 
   /**
@@ -148,19 +140,40 @@ public class PlayingCard implements ThreeTrioCard {
   }
 
   /**
-   * Returns the attacks of this card, in a map of direction to attack.
+   * Returns the attacks of this card, in a map of direction to attack. The map is built for each
+   * call from the card's definition and belongs to the caller, so copies of the card read on
+   * other threads never share it.
    *
-   * @return the attacks of this card, in a hashmap format
+   * @return the attacks of this card, in a hashmap format, or null for holes and tiles
    */
   public HashMap<Direction, Attack> getAttacks() {
-    if (isHole) {
-      System.out.println("GETTING ATTACKS OF HOLE CARD!!!");
+    if (this.definition == null) {
+      return null;
+    }
+    HashMap<Direction, Attack> attacks = new HashMap<>();
+    for (Direction dir : Direction.values()) {
+      attacks.put(dir, Attack.fromValue(definition.getAttack(dir)));
     }
-    return this.attacks;
+    return attacks;
+  }
+
+  @Override
+  public int getPackedAttacks() {
+    return definition == null ? 0 : definition.getPackedAttacks();
+  }
+
+  /**
+   * Returns the shared definition of this card.
+   *
+   * @return the definition of this card, or null for holes and tiles
+   */
+  public CardDefinition getDefinition() {
+    return this.definition;
   }
 
   /**
-   * Returns a deep copy of this card, copying over name and attacks.
+   * Returns a deep copy of this card. The copy shares this card's immutable definition, so only
+   * the color is copied.
    *
    * @return a deep copy of this card
    */
@@ -170,11 +183,7 @@ public class PlayingCard implements ThreeTrioCard {
     } else if (this.isHole) {
       return new PlayingCard(true);
     } else {
-      PlayingCard newCard = new PlayingCard(this.name,
-              this.attacks.get(Direction.NORTH),
-              this.attacks.get(Direction.SOUTH),
-              this.attacks.get(Direction.EAST),
-              this.attacks.get(Direction.WEST));
+      PlayingCard newCard = new PlayingCard(this.definition);
       newCard.setColor(this.color);
       return newCard;
     }
@@ -191,12 +200,12 @@ public class PlayingCard implements ThreeTrioCard {
     PlayingCard that = (PlayingCard) o;
     return Objects.equals(this.name, that.name) &&
             Objects.equals(this.color, that.color) &&
-            Objects.equals(this.attacks, that.attacks);
+            this.getPackedAttacks() == that.getPackedAttacks();
   }
 
 
   @Override
   public int hashCode() {
-    return Objects.hash(name, color, attacks);
+    return Objects.hash(name, color, getPackedAttacks());
   }
 }
@@ -2,6 +2,7 @@ package model;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -185,6 +186,20 @@ public class ReadonlyMockThreeTrioModel implements ReadonlyThreeTrioModel<ThreeT
     return flipCounts.getOrDefault(key, 0);
   }
 
+  @Override
+  public void scoreMoves(int[] scores) {
+    List<ThreeTrioCard> hand = getPlayerHand();
+    int numCells = getBoardW() * getBoardH();
+    Arrays.fill(scores, 0, hand.size() * numCells, -1);
+    int[] open = openTiles();
+    for (int handIdx = 0; handIdx < hand.size(); handIdx++) {
+      for (int cell : open) {
+        scores[handIdx * numCells + cell] = countPossibleFlips(cell / getBoardW(),
+                cell % getBoardW(), hand.get(handIdx));
+      }
+    }
+  }
+
   @Override
   public boolean isValidMove(int row, int col) {
     boolean isValidMove = (!this.board[row][col].isHole()
@@ -203,6 +218,59 @@ public class ReadonlyMockThreeTrioModel implements ReadonlyThreeTrioModel<ThreeT
             || (row == 4 && col == 0) || (row == 2 && col == 0)) && isValidMove;
   }
 
+  @Override
+  public int[] openTiles() {
+    List<Integer> open = new ArrayList<>();
+    for (int row = 0; row < getBoardH(); row++) {
+      for (int col = 0; col < getBoardW(); col++) {
+        if (isValidMove(row, col)) {
+          open.add(row * getBoardW() + col);
+        }
+      }
+    }
+    return open.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  @Override
+  public Color ownerAt(int row, int col) {
+    return this.board[row][col].getColor();
+  }
+
+  @Override
+  public int attackAt(int row, int col, Direction dir) {
+    return CardDefinition.attackOf(this.board[row][col].getPackedAttacks(), dir.ordinal());
+  }
+
+  @Override
+  public boolean isHoleAt(int row, int col) {
+    return this.board[row][col].isHole();
+  }
+
+  @Override
+  public int handSize() {
+    return getPlayerHand().size();
+  }
+
+  @Override
+  public int handAttack(int handIdx, Direction dir) {
+    return getPlayerHand().get(handIdx).getAttacks().get(dir).getValue();
+  }
+
+  @Override
+  public int otherHandSize() {
+    return getOtherPlayerHand().size();
+  }
+
+  @Override
+  public int otherHandAttack(int handIdx, Direction dir) {
+    return getOtherPlayerHand().get(handIdx).getAttacks().get(dir).getValue();
+  }
+
+  @Override
+  public long stateHash() {
+    return 0;
+  }
+
   @Override
   public boolean hasGameStarted() {
     return false;
@@ -129,6 +129,18 @@ public interface ReadonlyThreeTrioModel<C extends ThreeTrioCard> {
    */
   int countPossibleFlips(int row, int col, C card);
 
+  /**
+   * Scores every legal move of the current player in one call, under all the rules of the game.
+   * The number of cards that playing hand card handIdx to (row, col) would flip is written to
+   * scores[handIdx * getBoardW() * getBoardH() + row * getBoardW() + col], and -1 is written for
+   * every cell that is not open. Nothing is allocated per move, so the same array can be reused.
+   *
+   * @param scores the array to fill, with room for handSize() * getBoardW() * getBoardH() scores
+   * @throws IllegalStateException    if the game has not started or is already over
+   * @throws IllegalArgumentException if scores is too small
+   */
+  void scoreMoves(int[] scores);
+
   /**
    * Returns whether the given move is valid.
    *
@@ -138,6 +150,93 @@ public interface ReadonlyThreeTrioModel<C extends ThreeTrioCard> {
    */
   boolean isValidMove(int row, int col);
 
+  /**
+   * Returns every tile a card can still be played to, as row * getBoardW() + col, in row-major
+   * order. The model keeps its open tiles indexed as cards are played, so this does not scan
+   * the board.
+   *
+   * @return the cells of the open tiles
+   * @throws IllegalStateException if the board has not been initialized
+   */
+  int[] openTiles();
+
+  /**
+   * Returns the color of the player who owns the card at the given position, without copying
+   * the card.
+   *
+   * @param row the row of the position
+   * @param col the column of the position
+   * @return the owner of the card there, or null for an empty tile or a hole
+   * @throws IllegalArgumentException if the position is off the board
+   */
+  Color ownerAt(int row, int col);
+
+  /**
+   * Returns one attack value of the card at the given position, without copying the card.
+   *
+   * @param row the row of the position
+   * @param col the column of the position
+   * @param dir the side of the card to read
+   * @return the attack value on that side (10 for A), or 0 for an empty tile or a hole
+   * @throws IllegalArgumentException if the position is off the board
+   */
+  int attackAt(int row, int col, Direction dir);
+
+  /**
+   * Returns whether the given position is a hole.
+   *
+   * @param row the row of the position
+   * @param col the column of the position
+   * @return true if the position is a hole, false if it is a tile
+   * @throws IllegalArgumentException if the position is off the board
+   */
+  boolean isHoleAt(int row, int col);
+
+  /**
+   * Returns the number of cards in the current player's hand, without copying the hand.
+   *
+   * @return the size of the current player's hand
+   */
+  int handSize();
+
+  /**
+   * Returns one attack value of a card in the current player's hand, without copying the card.
+   *
+   * @param handIdx the index of the card in the hand
+   * @param dir     the side of the card to read
+   * @return the attack value on that side (10 for A)
+   * @throws IllegalArgumentException if there is no card at that index
+   */
+  int handAttack(int handIdx, Direction dir);
+
+  /**
+   * Returns the number of cards in the other player's hand, without copying the hand.
+   *
+   * @return the size of the other player's hand
+   */
+  int otherHandSize();
+
+  /**
+   * Returns one attack value of a card in the other player's hand, without copying the card.
+   *
+   * @param handIdx the index of the card in the hand
+   * @param dir     the side of the card to read
+   * @return the attack value on that side (10 for A)
+   * @throws IllegalArgumentException if there is no card at that index
+   */
+  int otherHandAttack(int handIdx, Direction dir);
+
+  /**
+   * Returns a 64-bit hash of the current state of the game: every card on the board and who
+   * owns it, the cards in both hands and whose turn it is. Equal states hash the same, whatever
+   * model holds them, so the hash can be used as a key for caching results about a state.
+   * The model keeps the hash up to date as cards are played and flipped.
+   *
+   * @return the hash of the current state
+   * @throws IllegalStateException if the board has not been initialized
+   */
+  long stateHash();
+
   /**
    * Gets the status of the game, started or not started.
    *
@@ -57,6 +57,22 @@ public interface ThreeTrioCard {
    */
   HashMap<Direction, Attack> getAttacks();
 
+  /**
+   * Returns all four attack values of this card packed into one int, four bits per direction in
+   * the order of {@link Direction#ordinal()}. Read single values with
+   * {@link CardDefinition#attackOf(int, int)}.
+   *
+   * @return the packed attack values, or 0 if this card has no attacks
+   */
+  default int getPackedAttacks() {
+    HashMap<Direction, Attack> attacks = getAttacks();
+    if (attacks == null) {
+      return 0;
+    }
+    return CardDefinition.pack(attacks.get(Direction.NORTH), attacks.get(Direction.SOUTH),
+            attacks.get(Direction.EAST), attacks.get(Direction.WEST));
+  }
+
   /**
    * Returns a deep copy of this card.
    *
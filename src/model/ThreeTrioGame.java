@@ -2,6 +2,7 @@ package model;
 
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
@@ -14,6 +15,9 @@ import player.Player;
  * @invariant: playerOneTurn cannot be true if playerOne played their last card.
  */
 public class ThreeTrioGame implements ThreeTrioModel<ThreeTrioCard> {
+  private static final Direction[] DIRECTIONS = Direction.values();
+  // how many changed cells are kept for changedSince, a power of two
+  private static final int CHANGE_LOG_SIZE = 256;
 
   /**
    * Index (0,0) is the top left corner of the board.
@@ -35,8 +39,60 @@ public class ThreeTrioGame implements ThreeTrioModel<ThreeTrioCard> {
   protected List<ThreeTrioControllerFeatures> controllerListeners;
   protected String boardConfig;
   protected String deckConfig;
+  // rules changing which attack values beat which, and the comparisons they result in, indexed
+  // [attack][defense]. The table is rebuilt when the game starts or the rules change.
+  private List<AttackRule> attackRules = new ArrayList<>();
+  private boolean[][] beats = AttackRule.beatTable(attackRules);
+  // rules letting a placed card flip the cards next to it that match it, checked before every
+  // battle, and the sides of the placed card they look at, indexed by Direction
+  private List<BoostRule> boostRules = new ArrayList<>();
+  private final int[] sideAttacks = new int[4];
+  private final int[] sideDefenses = new int[4];
+  private final boolean[] ownSides = new boolean[4];
+  private final boolean[] enemySides = new boolean[4];
+  private final int[] boostKeys = new int[BoostRule.values().length];
+  // cells (row * width + col) flipped by the last battle, in the order they flipped. Doubles as
+  // the worklist of the combo resolver and is reused between battles.
+  protected int[] battleFlips = new int[0];
+  protected int numBattleFlips;
+  // marks the cells already in battleFlips while a battle resolves
+  private boolean[] battleMarks = new boolean[0];
+  // running counts for the board, so scores and game over checks do not scan it. They are for
+  // countedBoard as it was after countedChange changes, and get recounted once whenever the board
+  // is replaced, cards are dealt or another game sharing the board changes it.
+  private ThreeTrioCard[][] countedBoard;
+  // how many times the board or hands have changed, shared with the games sharing them
+  private int[] boardChanges = new int[1];
+  private int countedChange;
+  private int numTiles;
+  private int numEmpty;
+  private int redOnBoard;
+  private int blueOnBoard;
+  // empty tiles as a bitset over row * width + col, kept with the counts above
+  private long[] openMask = new long[0];
+  // Zobrist hash of the board and both hands, without the side to move. See Zobrist.
+  private long stateHash;
+  // the symmetries of the board's layout, found once per board
+  private BoardSymmetry symmetry;
+  // the neighbors and exposed sides of every tile, built once per board
+  private BoardTopology topology;
+  // which dealt card flips which under the attack rules, worked out once per deal
+  private BeatMatrix beatMatrix;
   private Player player1;
   private Player player2;
+  // undo log for makeMove/unmakeMove, reused between moves so simulations do not allocate.
+  // Per move: the cell played to, the hand index played from and how many cards flipped.
+  private int[] undoMoves = new int[3 * 16];
+  private ThreeTrioCard[] undoTiles = new ThreeTrioCard[16];
+  private int[] undoFlips = new int[16];
+  private int undoDepth;
+  private int undoFlipSize;
+  // the cells changed by this game, the last CHANGE_LOG_SIZE of them, for callers that follow the
+  // board without scanning it. changeCount counts every change; a recount moves changeLogStart
+  // past it, since the changes that made it needed were not logged.
+  private int[] changeLog = new int[CHANGE_LOG_SIZE];
+  private long changeCount;
+  private long changeLogStart;
 
 
   /**
@@ -102,6 +158,94 @@ public class ThreeTrioGame implements ThreeTrioModel<ThreeTrioCard> {
     this.winnersNotified = false;
   }
 
+  /**
+   * Constructs a game that takes over the state of the given model and plays it with the given
+   * attack rules stacked on top of the model's own. Used by the rule models, which share the
+   * model's board, deck and hands rather than copying them, so the model should not be played
+   * on its own afterwards.
+   *
+   * @param model the model to take over
+   * @param rules the attack rules to add, from the bottom of the stack to the top
+   */
+  protected ThreeTrioGame(ThreeTrioModel<ThreeTrioCard> model, AttackRule... rules) {
+    if (model instanceof ThreeTrioGame && !(model instanceof AbstractTTModel)) {
+      ThreeTrioGame game = (ThreeTrioGame) model;
+      this.board = game.board;
+      this.deck = game.deck;
+      this.playerOneHand = game.playerOneHand;
+      this.playerTwoHand = game.playerTwoHand;
+      this.playerOneTurn = game.playerOneTurn;
+      this.configReader = game.configReader;
+      this.gameStarted = game.gameStarted;
+      this.gameOver = game.gameOver;
+      this.attackRules = new ArrayList<>(game.attackRules);
+      this.boostRules = new ArrayList<>(game.boostRules);
+      this.symmetry = game.symmetry;
+      this.topology = game.topology;
+      this.boardChanges = game.boardChanges;
+    } else {
+      this.board = model.getBoard();
+      this.deck = new ArrayList<>();
+      this.playerOneHand = model.getPlayerOneHand();
+      this.playerTwoHand = model.getPlayerTwoHand();
+      this.playerOneTurn = model.getTurn();
+      this.configReader = new ConfigReader(model.getBoardConfig(), model.getDeckConfig());
+    }
+    this.boardConfig = model.getBoardConfig();
+    this.deckConfig = model.getDeckConfig();
+    controllerListeners = new ArrayList<>();
+    this.winnersNotified = false;
+    this.attackRules.addAll(Arrays.asList(rules));
+    this.beats = AttackRule.beatTable(attackRules);
+  }
+
+  /**
+   * Constructs a game that takes over the state of the given model, as above, and plays it with
+   * the given boost rule added to the model's own, so rules like same and plus combine.
+   *
+   * @param model the model to take over
+   * @param rule  the boost rule to add
+   */
+  protected ThreeTrioGame(ThreeTrioModel<ThreeTrioCard> model, BoostRule rule) {
+    this(model);
+    if (!boostRules.contains(rule)) {
+      boostRules.add(rule);
+    }
+  }
+
+  /**
+   * Constructs a deep copy of the given game, with its own board and hands and the same rules,
+   * for playing moves out on without touching the game. Listeners and players are not copied.
+   *
+   * @param game the game to copy
+   */
+  protected ThreeTrioGame(ThreeTrioGame game) {
+    this.board = game.getBoard();
+    this.deck = new ArrayList<>(game.deck);
+    this.playerOneHand = new ArrayList<>();
+    for (ThreeTrioCard card : game.playerOneHand) {
+      this.playerOneHand.add(card.deepCopy());
+    }
+    this.playerTwoHand = new ArrayList<>();
+    for (ThreeTrioCard card : game.playerTwoHand) {
+      this.playerTwoHand.add(card.deepCopy());
+    }
+    this.playerOneTurn = game.playerOneTurn;
+    this.configReader = game.configReader;
+    this.gameStarted = game.gameStarted;
+    this.gameOver = game.gameOver;
+    this.boardConfig = game.boardConfig;
+    this.deckConfig = game.deckConfig;
+    controllerListeners = new ArrayList<>();
+    this.winnersNotified = game.winnersNotified;
+    this.attackRules = new ArrayList<>(game.attackRules);
+    this.beats = game.beats;
+    this.boostRules = new ArrayList<>(game.boostRules);
+    this.symmetry = game.symmetry;
+    this.topology = game.topology;
+    this.beatMatrix = game.beatMatrix;
+  }
+
   @Override
   public void setPlayers(Player p1, Player p2) {
     this.player1 = p1;
@@ -191,6 +335,8 @@ public class ThreeTrioGame implements ThreeTrioModel<ThreeTrioCard> {
       throw new IllegalArgumentException("The board must have odd number of tiles");
     }
     this.board = board;
+    this.symmetry = BoardSymmetry.of(board);
+    this.topology = BoardTopology.of(board);
     if (deck.size() < getNumTiles() + 1) {
       throw new IllegalArgumentException("There must be enough cards to start the game, deck size:"
               + deck.size() + " numTiles: " + getNumTiles());
@@ -203,8 +349,12 @@ public class ThreeTrioGame implements ThreeTrioModel<ThreeTrioCard> {
       deckCopy.add(card);
     }
     this.deck = deckCopy;
+    this.beats = AttackRule.beatTable(attackRules);
     // Collections.shuffle(this.deck);
     this.dealCards();
+    List<ThreeTrioCard> dealt = new ArrayList<>(playerOneHand);
+    dealt.addAll(playerTwoHand);
+    this.beatMatrix = BeatMatrix.of(dealt, beats);
     this.gameStarted = true;
     if (this.controllerListeners.size() > 0) {
       this.controllerListeners.get(0).notifyPlay();
@@ -228,13 +378,46 @@ public class ThreeTrioGame implements ThreeTrioModel<ThreeTrioCard> {
       count++;
       // make sure to not over deal cards.
       if (count == getNumTiles() + 1) {
-        return;
+        break;
       }
     }
+    // the hands changed, so the state hash has to be taken again
+    countedBoard = null;
+    boardChanges[0]++;
   }
 
   @Override
   public void playToBoard(int row, int col, int handIdx) {
+    placeFromHand(row, col, handIdx);
+    startBattle(row, col);
+
+    //System.out.println(this.controllerListeners.size());
+    for (ThreeTrioControllerFeatures listener : controllerListeners) {
+      if (listener.getUsername().equals(this.getActivePlayer().getName())) {
+        listener.notifyPlay();
+      }
+      listener.refresh();
+    }
+    if (this.isGameOver()) {
+      for (ThreeTrioControllerFeatures listener : controllerListeners) {
+        if (!this.winnersNotified) {
+          listener.notifyWinner();
+        }
+      }
+      this.winnersNotified = true;
+    }
+  }
+
+  /**
+   * Moves a card from the current player's hand to the board and passes the turn, without
+   * starting a battle.
+   *
+   * @param row     the row to play the card to
+   * @param col     the column to play the card to
+   * @param handIdx the index of the card in the player's hand
+   * @return the tile the card was placed on top of
+   */
+  private ThreeTrioCard placeFromHand(int row, int col, int handIdx) {
     if (row < 0 || row >= board.length || col < 0 || col >= board[0].length) {
       throw new IllegalArgumentException("Invalid row or column");
     }
@@ -244,6 +427,8 @@ public class ThreeTrioGame implements ThreeTrioModel<ThreeTrioCard> {
     if (board[row][col].getColor() != null) {
       throw new IllegalArgumentException("Cannot play to a tile that already has a card");
     }
+    checkCounts();
+    ThreeTrioCard tile = this.board[row][col];
     if (this.playerOneTurn) {
       if (handIdx < 0 || handIdx >= playerOneHand.size()) {
         throw new IllegalArgumentException("Invalid hand index for P1: " + handIdx);
@@ -257,23 +442,79 @@ public class ThreeTrioGame implements ThreeTrioModel<ThreeTrioCard> {
       this.board[row][col] = playerTwoHand.remove(handIdx);
       this.playerOneTurn = true;
     }
+    int cell = row * board[0].length + col;
+    ThreeTrioCard card = this.board[row][col];
+    long cardCode = Zobrist.cardCode(card);
+    numEmpty--;
+    BitboardGame.clearBit(openMask, cell);
+    countOwner(card.getColor(), 1);
+    stateHash += Zobrist.cellKey(cell, cardCode, card.getColor())
+            - Zobrist.handKey(cardCode, !this.playerOneTurn);
+    countChange(cell);
+    return tile;
+  }
+
+  @Override
+  public void makeMove(int row, int col, int handIdx) {
+    if (!this.gameStarted || this.gameOver) {
+      throw new IllegalStateException("The game is not started or is already over");
+    }
+    ThreeTrioCard tile = placeFromHand(row, col, handIdx);
     startBattle(row, col);
 
-    //System.out.println(this.controllerListeners.size());
-    for (ThreeTrioControllerFeatures listener : controllerListeners) {
-      if (listener.getUsername().equals(this.getActivePlayer().getName())) {
-        listener.notifyPlay();
-      }
-      listener.refresh();
+    if (3 * (undoDepth + 1) > undoMoves.length) {
+      undoMoves = Arrays.copyOf(undoMoves, undoMoves.length * 2);
+      undoTiles = Arrays.copyOf(undoTiles, undoTiles.length * 2);
     }
-    if (this.isGameOver()) {
-      for (ThreeTrioControllerFeatures listener : controllerListeners) {
-        if (!this.winnersNotified) {
-          listener.notifyWinner();
-        }
-      }
-      this.winnersNotified = true;
+    if (undoFlipSize + numBattleFlips > undoFlips.length) {
+      undoFlips = Arrays.copyOf(undoFlips,
+              Math.max(undoFlips.length * 2, undoFlipSize + numBattleFlips));
+    }
+    System.arraycopy(battleFlips, 0, undoFlips, undoFlipSize, numBattleFlips);
+    undoFlipSize += numBattleFlips;
+    undoTiles[undoDepth] = tile;
+    undoMoves[3 * undoDepth] = row * board[0].length + col;
+    undoMoves[3 * undoDepth + 1] = handIdx;
+    undoMoves[3 * undoDepth + 2] = numBattleFlips;
+    undoDepth++;
+  }
+
+  @Override
+  public void unmakeMove() {
+    if (undoDepth == 0) {
+      throw new IllegalStateException("There is no move to take back");
     }
+    undoDepth--;
+    int cell = undoMoves[3 * undoDepth];
+    int handIdx = undoMoves[3 * undoDepth + 1];
+    int numFlipped = undoMoves[3 * undoDepth + 2];
+    int row = cell / board[0].length;
+    int col = cell % board[0].length;
+    // the player who made the move is the one who is not up now
+    boolean moverIsPlayerOne = !this.playerOneTurn;
+    Color opponent = moverIsPlayerOne ? Color.BLUE : Color.RED;
+    checkCounts();
+    for (int i = 0; i < numFlipped; i++) {
+      int flipped = undoFlips[--undoFlipSize];
+      recolor(flipped, opponent);
+    }
+    ThreeTrioCard card = this.board[row][col];
+    long cardCode = Zobrist.cardCode(card);
+    numEmpty++;
+    BitboardGame.setBit(openMask, cell);
+    countOwner(card.getColor(), -1);
+    stateHash += Zobrist.handKey(cardCode, moverIsPlayerOne)
+            - Zobrist.cellKey(cell, cardCode, card.getColor());
+    this.board[row][col] = undoTiles[undoDepth];
+    undoTiles[undoDepth] = null;
+    if (moverIsPlayerOne) {
+      playerOneHand.add(handIdx, card);
+    } else {
+      playerTwoHand.add(handIdx, card);
+    }
+    this.playerOneTurn = moverIsPlayerOne;
+    this.gameOver = false;
+    countChange(cell);
   }
 
   @Override
@@ -282,166 +523,244 @@ public class ThreeTrioGame implements ThreeTrioModel<ThreeTrioCard> {
       throw new IllegalStateException("The game is not started or is already over");
     }
     ThreeTrioCard lastCard = board[row][col];
-    List<ThreeTrioCard> flippedCards = new ArrayList<>();
-    flipAdjacentCards(row, col, lastCard, flippedCards);
+    resolveFlips(board, row, col, lastCard);
+    flipBattleCells(lastCard.getColor());
   }
 
   /**
-   * Flips adjacent cards to the given card.
+   * Works out which cards a card placed at the given cell would flip, including every combo,
+   * without changing the board. Each card flipped attacks its own neighbors in turn, breadth
+   * first, using a worklist of cell indices instead of recursion, so no call is made per flip
+   * and nothing is allocated once the worklist has grown to the size of the board.
+   * The flipped cells are left in battleFlips[0, numBattleFlips) as row * width + col.
    *
-   * @param row          the row of the card
-   * @param col          the column of the card
-   * @param lastCard     the card to flip adjacent cards from
-   * @param flippedCards the list of flipped cards
+   * @param board    the board to battle on
+   * @param row      the row the card is placed at
+   * @param col      the column the card is placed at
+   * @param lastCard the card placed, which does not have to be on the board yet
+   * @return the number of cards that would flip
    */
-  protected void flipAdjacentCards(int row, int col, ThreeTrioCard lastCard,
-                                   List<ThreeTrioCard> flippedCards) {
-    // Check NORTH
-    checkAndFlip(row - 1, col, Direction.NORTH, Direction.SOUTH, row, col, lastCard, flippedCards);
-    // Check SOUTH
-    checkAndFlip(row + 1, col, Direction.SOUTH, Direction.NORTH, row, col, lastCard, flippedCards);
-    // Check WEST
-    checkAndFlip(row, col - 1, Direction.WEST, Direction.EAST, row, col, lastCard, flippedCards);
-    // Check EAST
-    checkAndFlip(row, col + 1, Direction.EAST, Direction.WEST, row, col, lastCard, flippedCards);
+  protected int resolveFlips(ThreeTrioCard[][] board, int row, int col, ThreeTrioCard lastCard) {
+    if (!boostRules.isEmpty() && resolveBoosted(board, row, col, lastCard)) {
+      return numBattleFlips;
+    }
+    int height = board.length;
+    int width = board[0].length;
+    clearBattleFlips(height * width);
+    BoardTopology layout = topologyOf(board);
+    Color color = lastCard.getColor();
+    int head = 0;
+    int cell = row * width + col;
+    ThreeTrioCard attacker = lastCard;
+    while (true) {
+      for (int dir = 0; dir < 4; dir++) {
+        int adj = layout.neighbor(cell, dir);
+        if (adj != -1) {
+          checkFlip(board, adj, DIRECTIONS[dir], DIRECTIONS[dir ^ 1], attacker, color);
+        }
+      }
+      if (head == numBattleFlips) {
+        break;
+      }
+      cell = battleFlips[head++];
+      attacker = board[cell / width][cell % width];
+    }
+    for (int i = 0; i < numBattleFlips; i++) {
+      battleMarks[battleFlips[i]] = false;
+    }
+    return numBattleFlips;
   }
 
-  // Updated flipAdjacentCards to take a board as a parameter
+  // the topology of the given board, which has the layout of this game's board when the board
+  // is not replaced, so the one kept is used unless it is for a board of another size
+  private BoardTopology topologyOf(ThreeTrioCard[][] board) {
+    if (topology == null || topology.numCells() != board.length * board[0].length
+            || topology.width() != board[0].length) {
+      topology = BoardTopology.of(board);
+    }
+    return topology;
+  }
 
-  /**
-   * Flips adjacent cards to the given card, given a board in progress.
-   *
-   * @param board        the board in progress
-   * @param row          the row of the card
-   * @param col          the column of the card
-   * @param lastCard     the card to flip adjacent cards from
-   * @param flippedCards the list of flipped cards
-   */
-  protected void flipAdjacentCards(ThreeTrioCard[][] board, int row, int col,
-                                   ThreeTrioCard lastCard, List<ThreeTrioCard> flippedCards) {
-    // Check NORTH
-    checkAndFlip(board, row - 1, col, Direction.NORTH,
-            Direction.SOUTH, row, col, lastCard, flippedCards);
-    // Check SOUTH
-    checkAndFlip(board, row + 1, col, Direction.SOUTH,
-            Direction.NORTH, row, col, lastCard, flippedCards);
-    // Check WEST
-    checkAndFlip(board, row, col - 1, Direction.WEST,
-            Direction.EAST, row, col, lastCard, flippedCards);
-    // Check EAST
-    checkAndFlip(board, row, col + 1, Direction.EAST,
-            Direction.WEST, row, col, lastCard, flippedCards);
-  }
-
-  /**
-   * Recursively flips cards in a given direction.
-   *
-   * @param row          row of the last card placed
-   * @param col          column of the last card placed
-   * @param lastCard     the last card placed
-   * @param flippedCards the list of flipped cards
-   * @param lastDir      the direction from which the last card was placed
-   */
-  protected void recursivelyFlip(int row, int col, ThreeTrioCard lastCard,
-                                 List<ThreeTrioCard> flippedCards, Direction lastDir) {
-    // Check NORTH
-    if (lastDir != Direction.NORTH) {
-      checkAndFlip(row - 1, col, Direction.NORTH,
-              Direction.SOUTH, row, col, lastCard, flippedCards);
+  // queues the card at adjCell if it is an enemy card the attacker beats
+  private void checkFlip(ThreeTrioCard[][] board, int adjCell, Direction dirFrom,
+                         Direction dirTo, ThreeTrioCard attacker, Color color) {
+    if (battleMarks[adjCell]) {
+      return;
+    }
+    ThreeTrioCard adjacentCard = board[adjCell / board[0].length][adjCell % board[0].length];
+    if (adjacentCard.getColor() != color
+            && !adjacentCard.isHole()
+            && adjacentCard.getName() != null
+            && beats[CardDefinition.attackOf(attacker.getPackedAttacks(), dirFrom.ordinal())]
+            [CardDefinition.attackOf(adjacentCard.getPackedAttacks(), dirTo.ordinal())]) {
+      battleMarks[adjCell] = true;
+      battleFlips[numBattleFlips++] = adjCell;
+    }
+  }
+
+  // when a boost rule is triggered by the card placed, leaves the cards next to it that it
+  // beats or that a triggered rule boosts it past in battleFlips, without any combo, and
+  // returns true. Returns false, leaving battleFlips alone, when no boost rule is triggered.
+  private boolean resolveBoosted(ThreeTrioCard[][] board, int row, int col,
+                                 ThreeTrioCard lastCard) {
+    int width = board[0].length;
+    int cell = row * width + col;
+    BoardTopology layout = topologyOf(board);
+    int attacks = lastCard.getPackedAttacks();
+    for (int dir = 0; dir < 4; dir++) {
+      int adj = layout.neighbor(cell, dir);
+      ThreeTrioCard card = adj == -1 ? null : board[adj / width][adj % width];
+      sideAttacks[dir] = CardDefinition.attackOf(attacks, dir);
+      if (card == null || card.isHole() || card.getName() == null) {
+        sideDefenses[dir] = BoostRule.NO_CARD;
+        ownSides[dir] = false;
+        enemySides[dir] = false;
+      } else {
+        sideDefenses[dir] = CardDefinition.attackOf(card.getPackedAttacks(), dir ^ 1);
+        ownSides[dir] = card.getColor() == lastCard.getColor();
+        enemySides[dir] = !ownSides[dir];
+      }
     }
-    // Check SOUTH
-    if (lastDir != Direction.SOUTH) {
-      checkAndFlip(row + 1, col, Direction.SOUTH,
-              Direction.NORTH, row, col, lastCard, flippedCards);
+    boolean triggered = false;
+    for (int i = 0; i < boostRules.size(); i++) {
+      boostKeys[i] = boostRules.get(i).trigger(sideAttacks, sideDefenses, ownSides);
+      triggered |= boostKeys[i] != BoostRule.NOT_TRIGGERED;
     }
-    // Check WEST
-    if (lastDir != Direction.WEST) {
-      checkAndFlip(row, col - 1, Direction.WEST,
-              Direction.EAST, row, col, lastCard, flippedCards);
+    if (!triggered) {
+      return false;
     }
-    // Check EAST
-    if (lastDir != Direction.EAST) {
-      checkAndFlip(row, col + 1, Direction.EAST,
-              Direction.WEST, row, col, lastCard, flippedCards);
+    clearBattleFlips(board.length * width);
+    for (int dir = 0; dir < 4; dir++) {
+      if (enemySides[dir] && boosted(sideAttacks[dir], sideDefenses[dir])) {
+        battleFlips[numBattleFlips++] = layout.neighbor(cell, dir);
+      }
     }
+    return true;
+  }
+
+  // whether the attack beats the defense, or a boost rule triggered for the last card placed
+  // lets it flip the defense
+  private boolean boosted(int attack, int defense) {
+    if (beats[attack][defense]) {
+      return true;
+    }
+    for (int i = 0; i < boostRules.size(); i++) {
+      if (boostKeys[i] != BoostRule.NOT_TRIGGERED
+              && boostRules.get(i).boosts(attack, defense, boostKeys[i])) {
+        return true;
+      }
+    }
+    return false;
   }
 
   /**
-   * Recursively flips cards in a given direction, given a board in progress.
+   * Empties battleFlips, making sure it can hold every cell of a board with the given number of
+   * cells.
    *
-   * @param board        the board in progress
-   * @param row          row of the last card placed
-   * @param col          column of the last card placed
-   * @param lastCard     the last card placed
-   * @param flippedCards the list of flipped cards
-   * @param lastDir      the direction from which the last card was placed
-   */
-  protected void recursivelyFlip(ThreeTrioCard[][] board, int row, int col, ThreeTrioCard lastCard,
-                                 List<ThreeTrioCard> flippedCards, Direction lastDir) {
-    // Check NORTH
-    if (lastDir != Direction.NORTH) {
-      checkAndFlip(board, row - 1, col, Direction.NORTH,
-              Direction.SOUTH, row, col, lastCard, flippedCards);
-    }
-    // Check SOUTH
-    if (lastDir != Direction.SOUTH) {
-      checkAndFlip(board, row + 1, col, Direction.SOUTH,
-              Direction.NORTH, row, col, lastCard, flippedCards);
-    }
-    // Check WEST
-    if (lastDir != Direction.WEST) {
-      checkAndFlip(board, row, col - 1, Direction.WEST,
-              Direction.EAST, row, col, lastCard, flippedCards);
-    }
-    // Check EAST
-    if (lastDir != Direction.EAST) {
-      checkAndFlip(board, row, col + 1, Direction.EAST,
-              Direction.WEST, row, col, lastCard, flippedCards);
-    }
-  }
-
-
-  @Override
-  public void checkAndFlip(int adjRow, int adjCol, Direction dirFrom, Direction dirTo, int row,
-                           int col, ThreeTrioCard lastCard, List<ThreeTrioCard> flippedCards) {
-    // Ensure the adjacent row and col are within bounds
-    if (adjRow >= 0 && adjRow < board.length && adjCol >= 0 && adjCol < board[0].length) {
-      ThreeTrioCard adjacentCard = board[adjRow][adjCol];
-
-      // Check conditions for flipping the card
-      if (adjacentCard.getColor() != lastCard.getColor()
-              && !adjacentCard.isHole()
-              && adjacentCard.getName() != null
-              && compareAttacks(adjacentCard, lastCard, dirFrom, dirTo)) {
-        flippedCards.add(adjacentCard);
-        adjacentCard.setColor(lastCard.getColor());
-        // recursively flip from this card we just flipped
-        // note we pass the dirTo because to the new card, that is the direction we are coming from
-        recursivelyFlip(adjRow, adjCol, adjacentCard, flippedCards, dirTo);
-      }
+   * @param numCells the number of cells on the board
+   */
+  protected void clearBattleFlips(int numCells) {
+    if (battleFlips.length < numCells) {
+      battleFlips = new int[numCells];
+      battleMarks = new boolean[numCells];
     }
+    numBattleFlips = 0;
   }
 
-  // Update checkAndFlip to take a board as a parameter
-  @Override
-  public void checkAndFlip(ThreeTrioCard[][] board, int adjRow, int adjCol,
-                           Direction dirFrom, Direction dirTo, int row, int col,
-                           ThreeTrioCard lastCard, List<ThreeTrioCard> flippedCards) {
-    // Ensure the adjacent row and col are within bounds
-    if (adjRow >= 0 && adjRow < board.length && adjCol >= 0 && adjCol < board[0].length) {
-      ThreeTrioCard adjacentCard = board[adjRow][adjCol];
+  /**
+   * Flips the card at the given cell to the given color and records it in battleFlips.
+   *
+   * @param row   the row of the card
+   * @param col   the column of the card
+   * @param color the color to flip the card to
+   */
+  protected void flipCell(int row, int col, Color color) {
+    checkCounts();
+    int cell = row * board[0].length + col;
+    recolor(cell, color);
+    battleFlips[numBattleFlips++] = cell;
+  }
+
+  /**
+   * Flips every card in battleFlips to the given color.
+   *
+   * @param color the color to flip the cards to
+   */
+  protected void flipBattleCells(Color color) {
+    checkCounts();
+    for (int i = 0; i < numBattleFlips; i++) {
+      recolor(battleFlips[i], color);
+    }
+  }
+
+  // changes the color of the card on a cell, keeping the owner counts and state hash up to date
+  private void recolor(int cell, Color color) {
+    ThreeTrioCard card = board[cell / board[0].length][cell % board[0].length];
+    long cardCode = Zobrist.cardCode(card);
+    countOwner(card.getColor(), -1);
+    stateHash += Zobrist.cellKey(cell, cardCode, color)
+            - Zobrist.cellKey(cell, cardCode, card.getColor());
+    card.setColor(color);
+    countOwner(color, 1);
+    countChange(cell);
+  }
+
+  // notes a change to the given cell this game has kept its counts up to date with, so other
+  // games sharing the board recount, and logs the cell
+  private void countChange(int cell) {
+    countedChange = ++boardChanges[0];
+    changeLog[(int) (changeCount++ & (CHANGE_LOG_SIZE - 1))] = cell;
+  }
+
+  private void countOwner(Color color, int change) {
+    if (color == Color.RED) {
+      redOnBoard += change;
+    } else if (color == Color.BLUE) {
+      blueOnBoard += change;
+    }
+  }
 
-      // Check conditions for flipping the card
-      if (adjacentCard.getColor() != lastCard.getColor()
-              && !adjacentCard.isHole()
-              && adjacentCard.getName() != null
-              && compareAttacks(adjacentCard, lastCard, dirFrom, dirTo)) {
-        flippedCards.add(adjacentCard);
-        adjacentCard.setColor(lastCard.getColor());
-        // recursively flip from this card we just flipped
-        recursivelyFlip(board, adjRow, adjCol, adjacentCard, flippedCards, dirTo);
+  /**
+   * Counts the tiles, empty tiles and cards of each color on the board, indexes the open tiles
+   * and hashes the state, if this board has not been counted yet. After that, placing and
+   * flipping cards keeps them up to date.
+   */
+  private void checkCounts() {
+    if (countedBoard == board && countedChange == boardChanges[0]) {
+      return;
+    }
+    numTiles = 0;
+    numEmpty = 0;
+    redOnBoard = 0;
+    blueOnBoard = 0;
+    stateHash = 0;
+    int width = board[0].length;
+    openMask = new long[(board.length * width + 63) / 64];
+    for (int row = 0; row < board.length; row++) {
+      for (int col = 0; col < width; col++) {
+        ThreeTrioCard card = board[row][col];
+        if (card.isHole()) {
+          continue;
+        }
+        numTiles++;
+        if (card.getName() == null) {
+          numEmpty++;
+          BitboardGame.setBit(openMask, row * width + col);
+        } else {
+          countOwner(card.getColor(), 1);
+          stateHash += Zobrist.cellKey(row * width + col, Zobrist.cardCode(card), card.getColor());
+        }
       }
     }
+    for (ThreeTrioCard card : playerOneHand) {
+      stateHash += Zobrist.handKey(Zobrist.cardCode(card), true);
+    }
+    for (ThreeTrioCard card : playerTwoHand) {
+      stateHash += Zobrist.handKey(Zobrist.cardCode(card), false);
+    }
+    countedBoard = board;
+    countedChange = boardChanges[0];
+    changeLogStart = ++changeCount;
   }
 
   /**
@@ -454,12 +773,9 @@ public class ThreeTrioGame implements ThreeTrioModel<ThreeTrioCard> {
     if (!this.gameStarted) {
       throw new IllegalStateException("The game has not started yet");
     }
-    for (ThreeTrioCard[] row : board) {
-      for (ThreeTrioCard card : row) {
-        if (!card.isHole() && card.getName() == null) {
-          return false;
-        }
-      }
+    checkCounts();
+    if (numEmpty > 0) {
+      return false;
     }
     this.gameOver = true;
     return true;
@@ -470,19 +786,8 @@ public class ThreeTrioGame implements ThreeTrioModel<ThreeTrioCard> {
     if (!this.gameStarted || !this.gameOver) {
       throw new IllegalStateException("The game is not finished or started");
     }
-    int redScore = 0;
-    int blueScore = 0;
-    for (ThreeTrioCard[] row : board) {
-      for (ThreeTrioCard card : row) {
-        if (card.getColor() == Color.RED) {
-          redScore++;
-        } else if (card.getColor() == Color.BLUE) {
-          blueScore++;
-        }
-      }
-    }
-    redScore += this.playerOneHand.size();
-    blueScore += this.playerTwoHand.size();
+    int redScore = getScore(Color.RED);
+    int blueScore = getScore(Color.BLUE);
     if (redScore > blueScore) {
       return Color.RED;
     } else if (blueScore > redScore) {
@@ -514,8 +819,18 @@ public class ThreeTrioGame implements ThreeTrioModel<ThreeTrioCard> {
   @Override
   public boolean compareAttacks(ThreeTrioCard adjacentCard, ThreeTrioCard lastCard,
                                 Direction dirFrom, Direction dirTo) {
-    return (lastCard.getAttacks().get(dirFrom).getValue()
-            > adjacentCard.getAttacks().get(dirTo).getValue());
+    return beats[CardDefinition.attackOf(lastCard.getPackedAttacks(), dirFrom.ordinal())]
+            [CardDefinition.attackOf(adjacentCard.getPackedAttacks(), dirTo.ordinal())];
+  }
+
+  /**
+   * Returns the comparisons under this game's attack rules, indexed [attack][defense]. The table
+   * must not be modified.
+   *
+   * @return whether each attack value beats each defense value
+   */
+  boolean[][] beatTable() {
+    return beats;
   }
 
   @Override
@@ -523,14 +838,7 @@ public class ThreeTrioGame implements ThreeTrioModel<ThreeTrioCard> {
     if (board == null) {
       throw new IllegalStateException("Board has not been initialized");
     }
-    int numTiles = 0;
-    for (int row = 0; row < board.length; row++) {
-      for (int col = 0; col < board[row].length; col++) {
-        if (!board[row][col].isHole()) {
-          numTiles++;
-        }
-      }
-    }
+    checkCounts();
     return numTiles;
   }
 
@@ -594,6 +902,8 @@ public class ThreeTrioGame implements ThreeTrioModel<ThreeTrioCard> {
    */
   public void setBoard(ThreeTrioCard[][] board) {
     this.board = board;
+    this.symmetry = null;
+    this.topology = null;
   }
 
   /**
@@ -628,20 +938,12 @@ public class ThreeTrioGame implements ThreeTrioModel<ThreeTrioCard> {
 
   @Override
   public int getScore(Color color) {
-    int score = 0;
-    for (ThreeTrioCard[] row : this.board) {
-      for (ThreeTrioCard card : row) {
-        if (card.getColor() == color) {
-          score++;
-        }
-      }
-    }
+    checkCounts();
     if (color == Color.RED) {
-      score += this.playerOneHand.size();
+      return redOnBoard + this.playerOneHand.size();
     } else {
-      score += this.playerTwoHand.size();
+      return blueOnBoard + this.playerTwoHand.size();
     }
-    return score;
   }
 
   @Override
@@ -653,15 +955,231 @@ public class ThreeTrioGame implements ThreeTrioModel<ThreeTrioCard> {
       throw new IllegalArgumentException("Must play to a tile");
     }
 
-    // Create a temporary deep copy of the board for simulation
-    ThreeTrioCard[][] tempBoard = this.getBoard();
+    return resolveFlips(board, row, col, card);
+  }
+
+  @Override
+  public void scoreMoves(int[] scores) {
+    if (!this.gameStarted || this.gameOver) {
+      throw new IllegalStateException("The game is not started or is already over");
+    }
+    checkCounts();
+    List<ThreeTrioCard> hand = this.playerOneTurn ? playerOneHand : playerTwoHand;
+    int width = board[0].length;
+    int numCells = board.length * width;
+    if (scores.length < hand.size() * numCells) {
+      throw new IllegalArgumentException("Not enough room for the scores: " + scores.length);
+    }
+    Arrays.fill(scores, 0, hand.size() * numCells, -1);
+    for (int handIdx = 0; handIdx < hand.size(); handIdx++) {
+      ThreeTrioCard card = hand.get(handIdx);
+      int offset = handIdx * numCells;
+      for (int word = 0; word < openMask.length; word++) {
+        for (long bits = openMask[word]; bits != 0; bits &= bits - 1) {
+          int cell = word << 6 | Long.numberOfTrailingZeros(bits);
+          scores[offset + cell] = resolveFlips(board, cell / width, cell % width, card);
+        }
+      }
+    }
+  }
 
-    List<ThreeTrioCard> flippedCards = new ArrayList<>();
-    flipAdjacentCards(tempBoard, row, col, card, flippedCards);
 
-    return flippedCards.size();
+  /**
+   * Returns a packed copy of the current state of this game, for strategies that need to play
+   * out moves without touching the real game. Unlike going through getBoard and the hand
+   * getters, no cards are copied to build it.
+   *
+   * @return a packed copy of this game
+   * @throws IllegalStateException if the board has not been initialized
+   */
+  public BitboardGame snapshot() {
+    if (board == null) {
+      throw new IllegalStateException("Board has not been initialized");
+    }
+    return new BitboardGame(this, board, playerOneHand, playerTwoHand, playerOneTurn);
+  }
+
+  /**
+   * Returns the symmetries of the board's layout, found when the game starts or, if the board
+   * was set some other way, the first time they are asked for.
+   *
+   * @return the symmetries of the board
+   * @throws IllegalStateException if the board has not been initialized
+   */
+  public BoardSymmetry getSymmetry() {
+    if (board == null) {
+      throw new IllegalStateException("Board has not been initialized");
+    }
+    if (symmetry == null) {
+      symmetry = BoardSymmetry.of(board);
+    }
+    return symmetry;
+  }
+
+  /**
+   * Returns the neighbors and exposed sides of the board's tiles, built when the game starts
+   * or, if the board was set some other way, the first time they are asked for.
+   *
+   * @return the topology of the board
+   * @throws IllegalStateException if the board has not been initialized
+   */
+  public BoardTopology getTopology() {
+    if (board == null) {
+      throw new IllegalStateException("Board has not been initialized");
+    }
+    if (topology == null) {
+      topology = BoardTopology.of(board);
+    }
+    return topology;
   }
 
+  /**
+   * Returns a marker of the changes made to the board so far, to find the cells changed after
+   * it with changedSince.
+   *
+   * @return the marker of the board as it is now
+   */
+  public long changeMarker() {
+    if (board != null) {
+      checkCounts();
+    }
+    return changeCount;
+  }
+
+  /**
+   * Writes the cells, row * width + col, this game has played to, flipped or emptied since the
+   * given marker, in the order it changed them and once per change, so a cell may be written
+   * more than once or be back as it was. Only the last few hundred changes are kept.
+   *
+   * @param marker a marker from changeMarker
+   * @param cells  the array to write the cells to
+   * @return how many cells were written, or -1 if they are not known: the board was replaced,
+   *         the cards were dealt, a game sharing the board changed it, or more cells changed
+   *         than are kept or fit in the array
+   */
+  public int changedSince(long marker, int[] cells) {
+    long numChanged = changeCount - marker;
+    if (countedBoard != board || countedChange != boardChanges[0] || marker < changeLogStart
+            || numChanged > CHANGE_LOG_SIZE || numChanged > cells.length) {
+      return -1;
+    }
+    for (int i = 0; i < numChanged; i++) {
+      cells[i] = changeLog[(int) ((marker + i) & (CHANGE_LOG_SIZE - 1))];
+    }
+    return (int) numChanged;
+  }
+
+  /**
+   * Returns which cards of the game flip which under its attack rules, worked out when the game
+   * starts from the cards dealt or, if the game was set up some other way, the first time it is
+   * asked for from the cards on the board and in hand.
+   *
+   * @return the beat matrix of the game's cards
+   * @throws IllegalStateException if the board has not been initialized
+   */
+  public BeatMatrix getBeatMatrix() {
+    if (board == null) {
+      throw new IllegalStateException("Board has not been initialized");
+    }
+    if (beatMatrix == null) {
+      List<ThreeTrioCard> cards = new ArrayList<>();
+      for (ThreeTrioCard[] row : board) {
+        for (ThreeTrioCard card : row) {
+          if (!card.isHole() && card.getName() != null) {
+            cards.add(card);
+          }
+        }
+      }
+      cards.addAll(playerOneHand);
+      cards.addAll(playerTwoHand);
+      beatMatrix = BeatMatrix.of(cards, beats);
+    }
+    return beatMatrix;
+  }
+
+  /**
+   * Returns a copy of this game for strategies to play moves out on with makeMove and
+   * unmakeMove. This is the packed snapshot, unless the rules of the game change how battles
+   * are resolved in a way the packed game does not follow, in which case it is a deep copy that
+   * plays by the same rules.
+   *
+   * @return a copy of this game to search
+   * @throws IllegalStateException if the board has not been initialized
+   */
+  public ThreeTrioModel<ThreeTrioCard> searchCopy() {
+    return boostRules.isEmpty() ? snapshot() : new ThreeTrioGame(this);
+  }
+
+  @Override
+  public int[] openTiles() {
+    if (board == null) {
+      throw new IllegalStateException("Board has not been initialized");
+    }
+    checkCounts();
+    return BitboardGame.setBits(openMask, numEmpty);
+  }
+
+  @Override
+  public Color ownerAt(int row, int col) {
+    return cardAt(row, col).getColor();
+  }
+
+  @Override
+  public int attackAt(int row, int col, Direction dir) {
+    return CardDefinition.attackOf(cardAt(row, col).getPackedAttacks(), dir.ordinal());
+  }
+
+  @Override
+  public boolean isHoleAt(int row, int col) {
+    return cardAt(row, col).isHole();
+  }
+
+  @Override
+  public int handSize() {
+    return (playerOneTurn ? playerOneHand : playerTwoHand).size();
+  }
+
+  @Override
+  public int handAttack(int handIdx, Direction dir) {
+    return attackInHand(playerOneTurn ? playerOneHand : playerTwoHand, handIdx, dir);
+  }
+
+  @Override
+  public int otherHandSize() {
+    return (playerOneTurn ? playerTwoHand : playerOneHand).size();
+  }
+
+  @Override
+  public int otherHandAttack(int handIdx, Direction dir) {
+    return attackInHand(playerOneTurn ? playerTwoHand : playerOneHand, handIdx, dir);
+  }
+
+  // the card at the given position itself, for read-only accessors that must not copy it
+  private ThreeTrioCard cardAt(int row, int col) {
+    if (board == null) {
+      throw new IllegalStateException("Board has not been initialized");
+    }
+    if (row < 0 || row >= this.board.length || col < 0 || col >= this.board[0].length) {
+      throw new IllegalArgumentException("Out of bounds error");
+    }
+    return this.board[row][col];
+  }
+
+  private static int attackInHand(List<ThreeTrioCard> hand, int handIdx, Direction dir) {
+    if (handIdx < 0 || handIdx >= hand.size()) {
+      throw new IllegalArgumentException("Invalid hand index: " + handIdx);
+    }
+    return CardDefinition.attackOf(hand.get(handIdx).getPackedAttacks(), dir.ordinal());
+  }
+
+  @Override
+  public long stateHash() {
+    if (board == null) {
+      throw new IllegalStateException("Board has not been initialized");
+    }
+    checkCounts();
+    return playerOneTurn ? stateHash + Zobrist.PLAYER_ONE_TO_MOVE : stateHash;
+  }
 
   /**
    * Checks if a move is valid (aka if it's a tile).
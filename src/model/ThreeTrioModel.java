@@ -39,6 +39,30 @@ public interface ThreeTrioModel<C extends ThreeTrioCard> extends ReadonlyThreeTr
    */
   void playToBoard(int row, int col, int handIdx);
 
+  /**
+   * Play a card to the board for a simulation. Works like playToBoard, but no listeners are
+   * notified and everything the move changed (the placement, the hand removal and every card
+   * flipped by the battle, combos and rule boosts included) is recorded so it can be taken
+   * back with unmakeMove. Moves are undone in the reverse order they were made.
+   *
+   * @param row     the row to play the card to
+   * @param col     the column to play the card to
+   * @param handIdx the index of the card in the current player's hand
+   * @throws IllegalArgumentException if the row or column are out of bounds
+   * @throws IllegalArgumentException if the card is not played to an empty tile
+   * @throws IllegalArgumentException if handIdx is out of bounds
+   * @throws IllegalStateException    if the game has not started or is over
+   */
+  void makeMove(int row, int col, int handIdx);
+
+  /**
+   * Take back the last move made with makeMove, restoring the board, both hands and the turn
+   * to exactly what they were before it.
+   *
+   * @throws IllegalStateException if there is no move to take back
+   */
+  void unmakeMove();
+
   /**
    * Create the deck of cards for the game.
    *
@@ -100,39 +124,6 @@ public interface ThreeTrioModel<C extends ThreeTrioCard> extends ReadonlyThreeTr
    */
   Player getActivePlayer();
 
-  /**
-   * Check if the move is valid. And flips the cards (necessary for decorators)
-   *
-   * @param adjRow       the row of the card to check
-   * @param adjCol       the column of the card to check
-   * @param dirFrom      the direction from which the card is being flipped
-   * @param dirTo        the direction to which the card is being flipped
-   * @param row          the row of the card
-   * @param col          the column of the card
-   * @param lastCard     the last card placed
-   * @param flippedCards the list of cards to flip
-   */
-  void checkAndFlip(int adjRow, int adjCol, Direction dirFrom, Direction dirTo, int row,
-                    int col, ThreeTrioCard lastCard, List<ThreeTrioCard> flippedCards);
-
-
-  /**
-   * Check if the move is valid. And flips the cards (necessary for decorators)
-   *
-   * @param board        the board of cards
-   * @param adjRow       the row of the card to check
-   * @param adjCol       the column of the card to check
-   * @param dirFrom      the direction from which the card is being flipped
-   * @param dirTo        the direction to which the card is being flipped
-   * @param row          the row of the card
-   * @param col          the column of the card
-   * @param lastCard     the last card placed
-   * @param flippedCards the list of cards to flip
-   */
-  void checkAndFlip(ThreeTrioCard[][] board, int adjRow, int adjCol,
-                    Direction dirFrom, Direction dirTo, int row, int col,
-                    ThreeTrioCard lastCard, List<ThreeTrioCard> flippedCards);
-
   /**
    * Return a boolean on whether flip the card or not.
    *
@@ -0,0 +1,65 @@
+package model;
+
+/**
+ * Zobrist style keys for hashing the state of a game into 64 bits. Each part of the state (a
+ * card on a cell with an owner, a card in a hand, the side to move) gets a pseudo-random key,
+ * and the hash of a state is the sum of the keys of its parts. Keys are added rather than
+ * xored so that two copies of the same card in a hand do not cancel out, which lets hands be
+ * hashed as multisets. Playing or flipping a card changes the hash by subtracting the keys of
+ * the parts that went away and adding the keys of the new ones.
+ *
+ * <p>Keys are derived from the contents of a card rather than from its identity, so equal
+ * states hash the same no matter which model or which copies of the cards they are held in.
+ */
+final class Zobrist {
+  /**
+   * Key added to the hash when it is player one's turn.
+   */
+  static final long PLAYER_ONE_TO_MOVE = mix(0x7F4A7C15L);
+
+  private Zobrist() {
+  }
+
+  /**
+   * Returns a code identifying the contents of a card, its name and attack values.
+   *
+   * @param card the card
+   * @return the code of the card
+   */
+  static long cardCode(ThreeTrioCard card) {
+    String name = card.getName();
+    long nameHash = name == null ? 0 : name.hashCode();
+    return mix(nameHash << 32 ^ (card.getPackedAttacks() & 0xFFFFFFFFL));
+  }
+
+  /**
+   * Returns the key of a card sitting on a cell of the board.
+   *
+   * @param cell     the cell of the card, row * width + col
+   * @param cardCode the code of the card
+   * @param owner    the color of the player who owns the card
+   * @return the key of the card on that cell
+   */
+  static long cellKey(int cell, long cardCode, Color owner) {
+    int side = owner == Color.RED ? 1 : owner == Color.BLUE ? 2 : 3;
+    return mix(cardCode + mix((long) cell << 2 | side));
+  }
+
+  /**
+   * Returns the key of one copy of a card in a hand.
+   *
+   * @param cardCode  the code of the card
+   * @param playerOne true for player one's hand, false for player two's
+   * @return the key of the card in that hand
+   */
+  static long handKey(long cardCode, boolean playerOne) {
+    return mix(cardCode ^ (playerOne ? 0x5DEECE66DL : 0xB5297A4DL));
+  }
+
+  // the splitmix64 finalizer, which spreads every input bit over the whole output
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
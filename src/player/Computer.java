@@ -2,13 +2,18 @@ package player;
 
 import playerstrategy.Move;
 import playerstrategy.PlayerStrategy;
+import playerstrategy.SearchLimits;
 
 /**
- * Represents a computer player for the ThreeTrio game that plays a strategy.
+ * Represents a computer player for the ThreeTrio game that plays a strategy. Between its moves
+ * it can ponder, running the strategy's ponder search on a background thread until its next
+ * move is asked for.
  */
 public class Computer implements Player {
   private String username;
   private PlayerStrategy strategy;
+  private Thread ponderThread;
+  private SearchLimits ponderLimits;
 
 
   /**
@@ -38,6 +43,46 @@ public class Computer implements Player {
    * @return the move from the strategy.
    */
   public Move getMove() {
+    stopPondering();
     return strategy.getMove();
   }
+
+  /**
+   * Gets the move from the strategy, searching no further than the given limits allow.
+   *
+   * @param limits the limits the strategy has to search within
+   * @return the best move the strategy found within the limits
+   */
+  public Move getMove(SearchLimits limits) {
+    stopPondering();
+    return strategy.getMove(limits);
+  }
+
+  /**
+   * Starts searching ahead on a background thread while the opponent is to move. The search
+   * runs until the next move is asked for, or stopPondering is called.
+   */
+  public void startPondering() {
+    stopPondering();
+    ponderLimits = SearchLimits.none();
+    ponderThread = new Thread(strategy.ponder(ponderLimits), username + " pondering");
+    ponderThread.setDaemon(true);
+    ponderThread.start();
+  }
+
+  /**
+   * Cancels the background search, if there is one, and waits for it to stop.
+   */
+  public void stopPondering() {
+    if (ponderThread == null) {
+      return;
+    }
+    ponderLimits.cancel();
+    try {
+      ponderThread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    ponderThread = null;
+  }
 }
@@ -0,0 +1,400 @@
+package playerstrategy;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import model.BitboardGame;
+import model.BoardSymmetry;
+import model.Color;
+import model.ReadonlyThreeTrioModel;
+import model.ThreeTrioCard;
+import model.ThreeTrioGame;
+import model.ThreeTrioModel;
+
+/**
+ * One negamax searcher with alpha-beta pruning, played out on its own copy of a game with
+ * make/unmake, normally a packed BitboardGame. Moves are coded as handIdx * numCells + cell. The
+ * best move stored in the transposition table is tried first, then captures by how much they
+ * flip, then the killer moves of the ply, then moves by their history of causing cutoffs.
+ * Leaves are scored by the score difference, or by a LinearEvaluation if the searcher is given
+ * one.
+ *
+ * <p>Only the first of several cards with the same attack values is tried, see CardPruning.
+ * Below the root, a search that stops short of the end of the game also skips cards another
+ * card in hand dominates; a search to the end skips none, so its result stays exact.
+ *
+ * <p>On a packed game whose board has symmetries that leave its cards as they are, positions are
+ * looked up in the transposition table by their canonical hash, so that mirrored and rotated
+ * positions share an entry. The move of an entry is stored turned into the frame of the
+ * canonical position and turned back when it is read.
+ *
+ * <p>A searcher is not thread-safe. Parallel searches give each thread its own searcher, and
+ * share the transposition table and the stop flag between them.
+ */
+final class AlphaBetaSearch {
+  /**
+   * Scores at or beyond WIN are games searched to the end, with the final difference added on.
+   */
+  static final int WIN = 10000;
+  /**
+   * A score beyond any real one.
+   */
+  static final int INFINITY = Integer.MAX_VALUE - 1;
+  // how many nodes are searched between looks at the limits, which start at the first node
+  private static final int CLOCK_INTERVAL = 1024;
+
+  private final ThreeTrioModel<ThreeTrioCard> sim;
+  private final TranspositionTable table;
+  private final SearchLimits limits;
+  private final AtomicBoolean stop;
+  private final int width;
+  private final int numCells;
+  private final int rootOpen;
+  private final int[][] scores;
+  private final int[][] moves;
+  private final int[][] keys;
+  private final int[][] killers;
+  private final int[] history;
+  // the packed game when its board has symmetries to share table entries between, or null
+  private final BitboardGame symmetricSim;
+  private final CardPruning pruning;
+  private final boolean[] skipped;
+  private LinearEvaluation evaluation;
+  private long nodes;
+  private boolean timedOut;
+
+  /**
+   * Constructs a searcher for the given game, and sizes its buffers for it.
+   *
+   * @param sim      the game to search, which the searcher takes over
+   * @param table    the transposition table to use
+   * @param limits   the limits to stop searching at
+   * @param stop     a flag that stops the search once set, and that is set at the limits
+   */
+  AlphaBetaSearch(ThreeTrioModel<ThreeTrioCard> sim, TranspositionTable table,
+                  SearchLimits limits, AtomicBoolean stop) {
+    this.sim = sim;
+    this.table = table;
+    this.limits = limits;
+    this.stop = stop;
+    this.width = sim.getBoardW();
+    this.numCells = width * sim.getBoardH();
+    this.rootOpen = sim.openTiles().length;
+    int maxPly = rootOpen + 1;
+    int maxMoves = Math.max(sim.handSize(), sim.otherHandSize()) * numCells;
+    this.scores = new int[maxPly][maxMoves];
+    this.moves = new int[maxPly][maxMoves];
+    this.keys = new int[maxPly][maxMoves];
+    this.killers = new int[maxPly][2];
+    for (int[] killer : killers) {
+      Arrays.fill(killer, -1);
+    }
+    this.history = new int[maxMoves];
+    this.symmetricSim = sim instanceof BitboardGame && ((BitboardGame) sim).hasCardSymmetries()
+            ? (BitboardGame) sim : null;
+    this.pruning = new CardPruning(sim);
+    this.skipped = new boolean[Math.max(sim.handSize(), sim.otherHandSize())];
+  }
+
+  /**
+   * Returns a copy of the given model to play moves out on, which follows every rule the model
+   * plays by. See ThreeTrioGame.searchCopy.
+   *
+   * @param model the model to copy
+   * @return a copy of the model's current state
+   */
+  static ThreeTrioModel<ThreeTrioCard> searchCopy(ReadonlyThreeTrioModel<ThreeTrioCard> model) {
+    return model instanceof ThreeTrioGame ? ((ThreeTrioGame) model).searchCopy()
+            : BitboardGame.copyOf(model);
+  }
+
+  /**
+   * Scores leaves by a weighted sum of features rather than by the score difference alone.
+   * Searches with different weights must not share a transposition table.
+   *
+   * @param weights the weight of each feature, or null to score by the score difference
+   */
+  void setEvaluation(Map<LinearEvaluation.Feature, Integer> weights) {
+    evaluation = weights == null ? null : new LinearEvaluation(sim, weights);
+  }
+
+  /**
+   * Returns how many tiles were open at the root, which is as deep as the game goes.
+   *
+   * @return the number of open tiles at the root
+   */
+  int rootOpen() {
+    return rootOpen;
+  }
+
+  /**
+   * Returns the number of cells of the board, which moves are coded with.
+   *
+   * @return the number of cells
+   */
+  int numCells() {
+    return numCells;
+  }
+
+  /**
+   * Returns true if the search stopped before finishing, and its results are not to be used.
+   *
+   * @return whether the search stopped early
+   */
+  boolean isTimedOut() {
+    return timedOut;
+  }
+
+  /**
+   * Returns how many positions this searcher has visited.
+   *
+   * @return the number of nodes searched
+   */
+  long nodes() {
+    return nodes;
+  }
+
+  /**
+   * Writes every root move to the given array, in the order they should be searched.
+   *
+   * @param firstMove the move to put first, or -1
+   * @param out       the array to write the moves to
+   * @return the number of root moves
+   */
+  int orderRootMoves(int firstMove, int[] out) {
+    int numMoves = generateMoves(0, firstMove, false);
+    for (int i = 0; i < numMoves; i++) {
+      out[i] = pickNext(0, i, numMoves);
+    }
+    return numMoves;
+  }
+
+  /**
+   * Searches every root move to the given depth, the given move first.
+   *
+   * @param depth     how many plies to search
+   * @param firstMove the move to search first, or -1
+   * @return the best root move, or if the search was stopped the best of the moves it finished,
+   *         or the first move in search order if it finished none
+   */
+  int searchRoot(int depth, int firstMove) {
+    int numMoves = generateMoves(0, firstMove, false);
+    int alpha = -INFINITY;
+    // picked before the loop so a search stopped on its first move still returns the move the
+    // ordering put first, which picking it again in the loop leaves in place
+    int bestMove = pickNext(0, 0, numMoves);
+    for (int i = 0; i < numMoves; i++) {
+      int move = pickNext(0, i, numMoves);
+      int score = searchMove(move, depth, alpha, INFINITY);
+      if (timedOut) {
+        return bestMove;
+      }
+      if (score > alpha) {
+        alpha = score;
+        bestMove = move;
+      }
+    }
+    return bestMove;
+  }
+
+  /**
+   * Scores one root move by searching the position after it.
+   *
+   * @param move  the root move
+   * @param depth how many plies to search, counting the move itself
+   * @param alpha the score the player at the root is already sure of
+   * @param beta  the score the other player is already sure of
+   * @return the score of the move for the player at the root
+   */
+  int searchMove(int move, int depth, int alpha, int beta) {
+    play(move);
+    int score = -negamax(depth - 1, 1, -beta, -alpha);
+    takeBack();
+    return score;
+  }
+
+  /**
+   * Scores the position from the side of the player to move, searching the given number of
+   * plies further.
+   *
+   * @param depth how many more plies to search
+   * @param ply   how many plies the position is below the root
+   * @param alpha the score the player to move is already sure of
+   * @param beta  the score the other player is already sure of
+   * @return the score of the position, or 0 if the search was stopped
+   */
+  private int negamax(int depth, int ply, int alpha, int beta) {
+    if (++nodes % CLOCK_INTERVAL == 1) {
+      if (limits.isReached(nodes)) {
+        stop.set(true);
+      }
+      timedOut = stop.get();
+    }
+    if (timedOut) {
+      return 0;
+    }
+    if (sim.isGameOver()) {
+      int difference = scoreDifference();
+      return difference > 0 ? WIN + difference : difference < 0 ? -WIN + difference : 0;
+    }
+    if (depth == 0) {
+      return evaluation == null ? scoreDifference()
+              : Math.max(-WIN / 2, Math.min(WIN / 2, evaluation.evaluate()));
+    }
+    if (depth == 1 && evaluation == null) {
+      return bestLastPly(ply);
+    }
+    int turn = symmetricSim == null ? 0 : symmetricSim.canonicalSymmetry();
+    long key = symmetricSim == null ? sim.stateHash() : symmetricSim.canonicalHash();
+    long entry = table.probe(key);
+    int tableMove = -1;
+    if (entry != 0) {
+      int score = TranspositionTable.score(entry);
+      int bound = TranspositionTable.bound(entry);
+      if (TranspositionTable.depth(entry) >= depth
+              && (bound == TranspositionTable.EXACT
+              || bound == TranspositionTable.LOWER && score >= beta
+              || bound == TranspositionTable.UPPER && score <= alpha)) {
+        return score;
+      }
+      tableMove = TranspositionTable.move(entry);
+      if (turn != 0) {
+        BoardSymmetry symmetry = symmetricSim.getSymmetry();
+        tableMove = symmetry.mapMove(symmetry.inverse(turn), tableMove);
+      }
+    }
+    int alphaBefore = alpha;
+    int numMoves = generateMoves(ply, tableMove, depth < rootOpen - ply);
+    int best = -INFINITY;
+    int bestMove = -1;
+    for (int i = 0; i < numMoves; i++) {
+      int move = pickNext(ply, i, numMoves);
+      play(move);
+      int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+      takeBack();
+      if (timedOut) {
+        return 0;
+      }
+      if (score > best) {
+        best = score;
+        bestMove = move;
+      }
+      if (score > alpha) {
+        alpha = score;
+      }
+      if (alpha >= beta) {
+        if (scores[ply][move] == 0) {
+          storeKiller(ply, move);
+          history[move] += depth * depth;
+        }
+        break;
+      }
+    }
+    int bound = best <= alphaBefore ? TranspositionTable.UPPER
+            : best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+    if (turn != 0) {
+      bestMove = symmetricSim.getSymmetry().mapMove(turn, bestMove);
+    }
+    table.store(key, depth, bound, best, bestMove);
+    return best;
+  }
+
+  // scores a position one ply above the leaves without playing its moves. Every card a move
+  // flips moves one point from the other player to the player to move.
+  private int bestLastPly(int ply) {
+    int[] plyScores = scores[ply];
+    sim.scoreMoves(plyScores);
+    int maxFlips = -1;
+    int total = sim.handSize() * numCells;
+    for (int move = 0; move < total; move++) {
+      maxFlips = Math.max(maxFlips, plyScores[move]);
+    }
+    int difference = scoreDifference() + 2 * maxFlips;
+    if (rootOpen - ply > 1) {
+      return difference;
+    }
+    // the last move fills the board, so the game is over
+    return difference > 0 ? WIN + difference : difference < 0 ? -WIN + difference : 0;
+  }
+
+  private void play(int move) {
+    int cell = move % numCells;
+    sim.makeMove(cell / width, cell % width, move / numCells);
+    if (evaluation != null) {
+      evaluation.moveMade(cell);
+    }
+  }
+
+  private void takeBack() {
+    sim.unmakeMove();
+    if (evaluation != null) {
+      evaluation.moveUnmade();
+    }
+  }
+
+  // how far ahead in score the player to move is
+  private int scoreDifference() {
+    int difference = sim.getScore(Color.RED) - sim.getScore(Color.BLUE);
+    return sim.getTurn() ? difference : -difference;
+  }
+
+  // fills moves[ply] with every legal move of the cards not pruned and keys[ply] with how early
+  // each should be tried: the given first move, then captures by how much they flip, then
+  // killers, then by history
+  private int generateMoves(int ply, int firstMove, boolean skipDominated) {
+    int[] plyScores = scores[ply];
+    sim.scoreMoves(plyScores);
+    pruning.prune(skipped, skipDominated);
+    int numMoves = 0;
+    int total = sim.handSize() * numCells;
+    for (int move = 0; move < total; move++) {
+      int flips = plyScores[move];
+      if (flips < 0 || skipped[move / numCells]) {
+        continue;
+      }
+      int key;
+      if (move == firstMove) {
+        key = Integer.MAX_VALUE;
+      } else if (flips > 0) {
+        key = 1_000_000 * flips;
+      } else if (move == killers[ply][0]) {
+        key = 900_000;
+      } else if (move == killers[ply][1]) {
+        key = 800_000;
+      } else {
+        key = Math.min(history[move], 700_000);
+      }
+      moves[ply][numMoves] = move;
+      keys[ply][numMoves] = key;
+      numMoves++;
+    }
+    return numMoves;
+  }
+
+  // moves the best remaining move of moves[ply] to index i and returns it
+  private int pickNext(int ply, int i, int numMoves) {
+    int[] plyMoves = moves[ply];
+    int[] plyKeys = keys[ply];
+    int best = i;
+    for (int j = i + 1; j < numMoves; j++) {
+      if (plyKeys[j] > plyKeys[best]) {
+        best = j;
+      }
+    }
+    int move = plyMoves[best];
+    plyMoves[best] = plyMoves[i];
+    plyMoves[i] = move;
+    int key = plyKeys[best];
+    plyKeys[best] = plyKeys[i];
+    plyKeys[i] = key;
+    return move;
+  }
+
+  private void storeKiller(int ply, int move) {
+    if (killers[ply][0] != move) {
+      killers[ply][1] = killers[ply][0];
+      killers[ply][0] = move;
+    }
+  }
+}
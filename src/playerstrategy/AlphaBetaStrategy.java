@@ -0,0 +1,274 @@
+package playerstrategy;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import model.ReadonlyThreeTrioModel;
+import model.ThreeTrioCard;
+import model.ThreeTrioModel;
+
+/**
+ * Represents a player strategy that searches the game tree for the move that leaves the player
+ * furthest ahead in score. The search is a negamax with alpha-beta pruning, played out on a
+ * copy of the game with make/unmake. It deepens one ply at a time until the deadline
+ * passes or the whole game has been searched, and plays the best move of the deepest search that
+ * finished. The best move stored for the position in the transposition table is tried first,
+ * then captures, then killer moves, then moves with a good history, so that most of the tree gets
+ * pruned. Positions reached again through a different order of moves are looked up in the table
+ * rather than searched again.
+ *
+ * <p>While the opponent is to move, the strategy can ponder: it searches the positions after the
+ * opponent's likeliest replies, and when one of them is played getMove carries on from the depth
+ * already reached instead of starting over.
+ */
+public class AlphaBetaStrategy implements PlayerStrategy {
+  /**
+   * Time limit used when none is given, in milliseconds.
+   */
+  public static final long DEFAULT_TIME_LIMIT = 1000;
+  /**
+   * Memory cap of the transposition table used when none is given, in megabytes.
+   */
+  public static final int DEFAULT_TABLE_SIZE = 16;
+  // how many of the opponent's replies pondering searches after, and how deep it looks to find
+  // the likeliest ones
+  private static final int PONDER_REPLIES = 4;
+  private static final int PREDICT_DEPTH = 3;
+
+  private final ReadonlyThreeTrioModel<ThreeTrioCard> game;
+  private final long timeLimit;
+  private final TranspositionTable table;
+  // best move and depth reached after each pondered reply, by the state hash after the reply
+  private final Map<Long, int[]> pondered = new ConcurrentHashMap<>();
+  private Map<LinearEvaluation.Feature, Integer> weights;
+  private int maxDepth;
+  private int completedDepth;
+
+  /**
+   * Constructs an AlphaBetaStrategy for the given model that searches for up to
+   * DEFAULT_TIME_LIMIT milliseconds per move.
+   *
+   * @param model the model to search
+   */
+  public AlphaBetaStrategy(ReadonlyThreeTrioModel<ThreeTrioCard> model) {
+    this(model, DEFAULT_TIME_LIMIT);
+  }
+
+  /**
+   * Constructs an AlphaBetaStrategy for the given model with the given time limit, and a
+   * transposition table of DEFAULT_TABLE_SIZE megabytes.
+   *
+   * @param model     the model to search
+   * @param timeLimit how long to search for each move, in milliseconds
+   * @throws IllegalArgumentException if the time limit is not positive
+   */
+  public AlphaBetaStrategy(ReadonlyThreeTrioModel<ThreeTrioCard> model, long timeLimit) {
+    this(model, timeLimit, new TranspositionTable(DEFAULT_TABLE_SIZE));
+  }
+
+  /**
+   * Constructs an AlphaBetaStrategy for the given model with the given time limit and
+   * transposition table. The table is kept between moves.
+   *
+   * @param model     the model to search
+   * @param timeLimit how long to search for each move, in milliseconds
+   * @param table     the transposition table to use
+   * @throws IllegalArgumentException if the time limit is not positive or the table is null
+   */
+  public AlphaBetaStrategy(ReadonlyThreeTrioModel<ThreeTrioCard> model, long timeLimit,
+                           TranspositionTable table) {
+    if (timeLimit <= 0) {
+      throw new IllegalArgumentException("The time limit must be positive");
+    }
+    if (table == null) {
+      throw new IllegalArgumentException("The table must not be null");
+    }
+    this.game = model;
+    this.timeLimit = timeLimit;
+    this.table = table;
+  }
+
+  @Override
+  public Move getMove() {
+    return getMove(SearchLimits.none());
+  }
+
+  /**
+   * Searches as deep as the time limit of this strategy and the given limits allow, and returns
+   * the best move of the deepest search that finished.
+   *
+   * @param limits the limits to search within
+   * @return the best move found
+   */
+  @Override
+  public Move getMove(SearchLimits limits) {
+    List<ThreeTrioCard> hand = game.getPlayerHand();
+    if (hand.isEmpty() || game.isGameOver()) {
+      return new NoBestMove(game).getNoBestMove();
+    }
+    ThreeTrioModel<ThreeTrioCard> sim = AlphaBetaSearch.searchCopy(game);
+    int[] ponderedMove = pondered.get(sim.stateHash());
+    AlphaBetaSearch search = newSearch(sim, limits.withMaxTime(timeLimit), new AtomicBoolean());
+    int lastDepth = maxDepth > 0 ? Math.min(maxDepth, search.rootOpen()) : search.rootOpen();
+    int bestMove = -1;
+    completedDepth = 0;
+    if (ponderedMove != null) {
+      bestMove = ponderedMove[0];
+      completedDepth = ponderedMove[1];
+    }
+    for (int depth = completedDepth + 1; depth <= lastDepth; depth++) {
+      int move = search.searchRoot(depth, bestMove);
+      if (search.isTimedOut()) {
+        break;
+      }
+      bestMove = move;
+      completedDepth = depth;
+    }
+    if (bestMove == -1) {
+      // not even one ply finished in time, so fall back on the first move in search order
+      int[] rootMoves = new int[hand.size() * search.numCells()];
+      search.orderRootMoves(-1, rootMoves);
+      bestMove = rootMoves[0];
+    }
+    return toMove(game, hand, bestMove);
+  }
+
+  @Override
+  public int getScore(Move move) {
+    List<ThreeTrioCard> hand = game.getPlayerHand();
+    int handIdx = hand.indexOf(move.getCard());
+    if (handIdx == -1 || !game.isValidMove(move.getRow(), move.getCol())) {
+      return -AlphaBetaSearch.INFINITY;
+    }
+    AlphaBetaSearch search = newSearch(AlphaBetaSearch.searchCopy(game), SearchLimits.none(),
+            new AtomicBoolean());
+    int cell = move.getRow() * game.getBoardW() + move.getCol();
+    return search.searchMove(handIdx * search.numCells() + cell, 2,
+            -AlphaBetaSearch.INFINITY, AlphaBetaSearch.INFINITY);
+  }
+
+  /**
+   * Returns a task that finds the opponent's likeliest replies with a shallow search, then
+   * deepens on the position after each of them in turn until the limits stop it. Its results go
+   * in the transposition table, whose size caps the memory pondering uses.
+   *
+   * @param limits the limits to search within, cancelled when the opponent has moved
+   * @return the search to run in the background
+   */
+  @Override
+  public Runnable ponder(SearchLimits limits) {
+    if (game.isGameOver() || game.getPlayerHand().isEmpty()) {
+      return () -> {
+      };
+    }
+    ThreeTrioModel<ThreeTrioCard> sim = AlphaBetaSearch.searchCopy(game);
+    return () -> ponder(sim, limits);
+  }
+
+  /**
+   * Limits how many plies getMove searches, whatever the time limit. Used to compare searches
+   * by the time they take to reach the same depth.
+   *
+   * @param maxDepth the deepest search to run, or 0 for no limit
+   * @throws IllegalArgumentException if the depth is negative
+   */
+  public void setMaxDepth(int maxDepth) {
+    if (maxDepth < 0) {
+      throw new IllegalArgumentException("The depth must not be negative");
+    }
+    this.maxDepth = maxDepth;
+  }
+
+  /**
+   * Scores the positions where the search stops short of the end of the game by a weighted sum
+   * of features rather than by the score difference. Set before the first search, since the
+   * transposition table keeps the scores of earlier searches.
+   *
+   * @param weights the weight of each feature, or null to score by the score difference
+   */
+  public void setWeights(Map<LinearEvaluation.Feature, Integer> weights) {
+    this.weights = weights;
+  }
+
+  /**
+   * Returns the depth of the deepest search that finished during the last call to getMove.
+   *
+   * @return the number of plies searched to
+   */
+  public int getCompletedDepth() {
+    return completedDepth;
+  }
+
+  /**
+   * Returns the transposition table of this strategy, whose counters report its hit rate.
+   *
+   * @return the transposition table
+   */
+  public TranspositionTable getTranspositionTable() {
+    return table;
+  }
+
+  private AlphaBetaSearch newSearch(ThreeTrioModel<ThreeTrioCard> sim, SearchLimits limits,
+                                    AtomicBoolean stop) {
+    AlphaBetaSearch search = new AlphaBetaSearch(sim, table, limits, stop);
+    search.setEvaluation(weights);
+    return search;
+  }
+
+  // searches the replies together one ply deeper at a time, so that each gets some time
+  private void ponder(ThreeTrioModel<ThreeTrioCard> sim, SearchLimits limits) {
+    pondered.clear();
+    AtomicBoolean stop = new AtomicBoolean();
+    AlphaBetaSearch replySearch = newSearch(sim, limits, stop);
+    int likeliest = replySearch.searchRoot(Math.min(PREDICT_DEPTH, replySearch.rootOpen()), -1);
+    if (replySearch.isTimedOut() || replySearch.rootOpen() < 2) {
+      return;
+    }
+    int[] replies = new int[sim.handSize() * replySearch.numCells()];
+    int numReplies = Math.min(PONDER_REPLIES, replySearch.orderRootMoves(likeliest, replies));
+    int width = sim.getBoardW();
+    int numCells = replySearch.numCells();
+    AlphaBetaSearch[] searches = new AlphaBetaSearch[numReplies];
+    long[] keys = new long[numReplies];
+    int[] bestMoves = new int[numReplies];
+    for (int i = 0; i < numReplies; i++) {
+      int cell = replies[i] % numCells;
+      sim.makeMove(cell / width, cell % width, replies[i] / numCells);
+      searches[i] = newSearch(sim, limits, stop);
+      keys[i] = sim.stateHash();
+      bestMoves[i] = -1;
+      sim.unmakeMove();
+    }
+    for (int depth = 1; depth < replySearch.rootOpen(); depth++) {
+      for (int i = 0; i < numReplies; i++) {
+        int cell = replies[i] % numCells;
+        sim.makeMove(cell / width, cell % width, replies[i] / numCells);
+        int move = searches[i].searchRoot(depth, bestMoves[i]);
+        sim.unmakeMove();
+        if (searches[i].isTimedOut()) {
+          return;
+        }
+        bestMoves[i] = move;
+        pondered.put(keys[i], new int[]{move, depth});
+      }
+    }
+  }
+
+  /**
+   * Turns a coded move, handIdx * numCells + cell, back into a move on the given model.
+   *
+   * @param game the model the move is for
+   * @param hand the hand of the player to move
+   * @param move the coded move
+   * @return the move
+   */
+  static Move toMove(ReadonlyThreeTrioModel<ThreeTrioCard> game, List<ThreeTrioCard> hand,
+                     int move) {
+    int width = game.getBoardW();
+    int numCells = width * game.getBoardH();
+    int cell = move % numCells;
+    return new StrategyMove(cell / width, cell % width, hand.get(move / numCells));
+  }
+}
@@ -0,0 +1,111 @@
+package playerstrategy;
+
+import model.BitboardGame;
+import model.Direction;
+import model.PlayingCard;
+import model.ThreeTrioCard;
+import model.ThreeTrioModel;
+
+/**
+ * Finds the cards in the hand of the player to move that need not be tried. Cards with the same
+ * attack values on every side play out the same, so only the first of them is kept. A card is
+ * dominated by another when, on every side, the other beats every value it beats and loses to
+ * no value it does not lose to, under the rules of the game: which values those are is asked of
+ * the game's compareAttacks, so the reverse and fallen angel rules are taken into account.
+ *
+ * <p>Skipping duplicates never changes the result of a search. Skipping dominated cards can,
+ * since the stronger card played now is not kept for later, so searches only skip them where
+ * the result is a guess anyway. Dominance is only worked out on a packed game, whose flips
+ * depend on nothing but the comparisons; under the same and plus rules equal and summed values
+ * flip cards too, and a stronger card can flip fewer.
+ */
+public final class CardPruning {
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  private final ThreeTrioModel<ThreeTrioCard> sim;
+  private final boolean hasDominance;
+  // for each value, the defense values it beats and the attack values it loses to, by bit
+  private final int[] beats;
+  private final int[] losesTo;
+  // the attack values of each card in hand, four bits a side in the order of Direction
+  private final int[] handAttacks;
+
+  /**
+   * Constructs the pruning of the given game, which it follows as moves are made on it.
+   *
+   * @param sim the game whose hands to prune
+   */
+  public CardPruning(ThreeTrioModel<ThreeTrioCard> sim) {
+    this.sim = sim;
+    this.hasDominance = sim instanceof BitboardGame;
+    int numValues = 11;
+    this.beats = new int[numValues];
+    this.losesTo = new int[numValues];
+    this.handAttacks = new int[Math.max(sim.handSize(), sim.otherHandSize())];
+    ThreeTrioCard[] probes = new ThreeTrioCard[numValues];
+    for (int value = 1; value < numValues; value++) {
+      probes[value] = new PlayingCard("probe", value, value, value, value);
+    }
+    for (int attack = 1; attack < numValues; attack++) {
+      for (int defend = 1; defend < numValues; defend++) {
+        if (sim.compareAttacks(probes[defend], probes[attack], Direction.NORTH,
+                Direction.SOUTH)) {
+          beats[attack] |= 1 << defend;
+          losesTo[defend] |= 1 << attack;
+        }
+      }
+    }
+  }
+
+  /**
+   * Marks every card of the hand of the player to move that need not be tried. At least one
+   * card is always kept.
+   *
+   * @param skip          the array to mark the cards in, by hand index
+   * @param skipDominated whether to skip dominated cards as well as duplicates
+   * @return the number of cards kept
+   */
+  public int prune(boolean[] skip, boolean skipDominated) {
+    int handSize = sim.handSize();
+    for (int handIdx = 0; handIdx < handSize; handIdx++) {
+      int packed = 0;
+      for (Direction dir : DIRECTIONS) {
+        packed |= sim.handAttack(handIdx, dir) << (dir.ordinal() * 4);
+      }
+      handAttacks[handIdx] = packed;
+    }
+    boolean dominance = skipDominated && hasDominance;
+    int kept = 0;
+    for (int card = 0; card < handSize; card++) {
+      skip[card] = false;
+      for (int other = 0; other < handSize && !skip[card]; other++) {
+        if (other == card) {
+          continue;
+        }
+        if (handAttacks[other] == handAttacks[card]) {
+          skip[card] = other < card;
+        } else if (dominance && covers(handAttacks[other], handAttacks[card])) {
+          // two cards can cover each other without being the same, then the first is kept
+          skip[card] = other < card || !covers(handAttacks[card], handAttacks[other]);
+        }
+      }
+      if (!skip[card]) {
+        kept++;
+      }
+    }
+    return kept;
+  }
+
+  // true if the first card is at least as strong as the second on every side
+  private boolean covers(int strong, int weak) {
+    for (int dir = 0; dir < 4; dir++) {
+      int strongValue = strong >> (dir * 4) & 0xF;
+      int weakValue = weak >> (dir * 4) & 0xF;
+      if ((beats[weakValue] & ~beats[strongValue]) != 0
+              || (losesTo[strongValue] & ~losesTo[weakValue]) != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
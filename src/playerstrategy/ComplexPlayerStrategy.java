@@ -35,12 +35,30 @@ public class ComplexPlayerStrategy implements PlayerStrategy {
     return curMove;
   }
 
+  /**
+   * Get the best move for the current strategy within the given limits and move on to the next.
+   *
+   * @param limits the limits to search within
+   * @return the best move for the current strategy
+   */
+  @Override
+  public Move getMove(SearchLimits limits) {
+    Move curMove = head.getMove(limits);
+    head = next;
+    return curMove;
+  }
+
 
   @Override
   public int getScore(Move move) {
     return head.getScore(move);
   }
 
+  @Override
+  public Runnable ponder(SearchLimits limits) {
+    return head.ponder(limits);
+  }
+
   /**
    * Adds a strategy to be played after this one, to form more complex strategies.
    *
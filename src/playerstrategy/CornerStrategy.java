@@ -3,6 +3,8 @@ package playerstrategy;
 import java.util.ArrayList;
 import java.util.List;
 
+import model.BoardTopology;
+import model.CardDefinition;
 import model.Direction;
 import model.ReadonlyThreeTrioModel;
 import model.ThreeTrioCard;
@@ -13,15 +15,23 @@ import model.ThreeTrioCard;
  * highest score. The defensive score is calculated by summing the attack values of the open sides
  * of the card. If an open side is next to a hole, or a card that has already been played, it is not
  * possible to flip that card from that position and therefore will be represented as a 10 be
- * default.
+ * default. Once the four corners are taken, the strategy plays to the tiles that holes make
+ * corners in effect, as found in the board's BoardTopology.
  */
 public class CornerStrategy implements PlayerStrategy {
-  private ReadonlyThreeTrioModel game;
+  private ReadonlyThreeTrioModel<ThreeTrioCard> game;
   private int bestRow;
   private int bestCol;
   private ThreeTrioCard bestCard;
   private List<Move> ties;
   private int bestScore;
+  private static final Direction[] DIRECTIONS = Direction.values();
+  // for the tile next to the card in each direction, in the order of Direction: the side of the
+  // card and the side of the adjacent card that are compared
+  private static final Direction[] CARD_SIDES = {Direction.WEST, Direction.EAST,
+      Direction.NORTH, Direction.SOUTH};
+  private static final Direction[] ADJACENT_SIDES = {Direction.EAST, Direction.WEST,
+      Direction.SOUTH, Direction.NORTH};
 
   /**
    * Constructor for the CornerStrategy.
@@ -29,7 +39,7 @@ public class CornerStrategy implements PlayerStrategy {
    *
    * @param game the game model
    */
-  public CornerStrategy(ReadonlyThreeTrioModel game) {
+  public CornerStrategy(ReadonlyThreeTrioModel<ThreeTrioCard> game) {
     this.game = game;
     this.bestRow = -1;
     this.bestCol = -1;
@@ -40,26 +50,22 @@ public class CornerStrategy implements PlayerStrategy {
 
   @Override
   public Move getMove() {
-    for (int i = 0; i < game.getPlayerHand().size(); i++) {
-      ThreeTrioCard card = (ThreeTrioCard) game.getPlayerHand().get(i);
-      // Top Left Corner
-      if (game.isValidMove(0, 0)) {
-        calculateDefensiveScore(0, 0, card, Direction.SOUTH, Direction.EAST);
-      }
-      // Top Right Corner
-      if (game.isValidMove(0, game.getBoardW() - 1)) {
-        calculateDefensiveScore(0, game.getBoardW() - 1, card,
-                Direction.SOUTH, Direction.WEST);
-      }
-      // Bottom Left Corner
-      if (game.isValidMove(game.getBoardH() - 1, 0)) {
-        calculateDefensiveScore(game.getBoardH() - 1, 0, card,
-                Direction.NORTH, Direction.EAST);
-      }
-      // Bottom Right Corner
-      if (game.isValidMove(game.getBoardH() - 1, game.getBoardW() - 1)) {
-        calculateDefensiveScore(game.getBoardH() - 1, game.getBoardW() - 1, card,
-                Direction.NORTH, Direction.WEST);
+    BoardTopology topology = BoardTopology.of(game);
+    int width = game.getBoardW();
+    int last = topology.numCells() - 1;
+    // the four corners of the board, or if none of them is open, the tiles that are corners in
+    // effect because holes keep them from being attacked on more than two sides
+    int[] corners = {0, width - 1, last - width + 1, last};
+    if (!anyOpen(corners)) {
+      corners = topology.corners();
+    }
+    List<ThreeTrioCard> hand = game.getPlayerHand();
+    for (int i = 0; i < hand.size(); i++) {
+      ThreeTrioCard card = hand.get(i);
+      for (int cell : corners) {
+        if (game.isValidMove(cell / width, cell % width)) {
+          calculateDefensiveScore(topology, cell, i, card);
+        }
       }
     }
     // If there are multiple best moves
@@ -81,10 +87,8 @@ public class CornerStrategy implements PlayerStrategy {
     int col = move.getCol();
     ThreeTrioCard card = move.getCard();
 
-    // Check if the move is in a corner
-    if ((row == 0 && col == 0) || (row == 0 && col == game.getBoardW() - 1) ||
-            (row == game.getBoardH() - 1 && col == 0) ||
-            (row == game.getBoardH() - 1 && col == game.getBoardW() - 1)) {
+    // Check if the move is in a corner, or a tile that holes make a corner
+    if (BoardTopology.of(game).isCorner(row * game.getBoardW() + col)) {
       score += 10; // Assign a high score for corner moves
     }
 
@@ -96,75 +100,43 @@ public class CornerStrategy implements PlayerStrategy {
 
   private int calculateFlipDifficulty(int row, int col, ThreeTrioCard card) {
     int difficulty = 0;
-    int[] dx = {0, 1, 0, -1};
-    int[] dy = {1, 0, -1, 0};
-
-    for (int i = 0; i < 4; i++) {
-      int r = row + dx[i];
-      int c = col + dy[i];
-      if (r >= 0 && r < game.getBoardH() && c >= 0 && c < game.getBoardW()) {
-        ThreeTrioCard adjacentCard = game.getBoard()[r][c];
-        if (adjacentCard != null && !adjacentCard.isHole() && adjacentCard.getAttacks() != null) {
-          if (i == 0 && adjacentCard.getAttacks().get(Direction.SOUTH).getValue() <
-                  card.getAttacks().get(Direction.NORTH).getValue()) {
-            difficulty++;
-          } else if (i == 1 && adjacentCard.getAttacks().get(Direction.WEST).getValue() <
-                  card.getAttacks().get(Direction.EAST).getValue()) {
-            difficulty++;
-          } else if (i == 2 && adjacentCard.getAttacks().get(Direction.NORTH).getValue() <
-                  card.getAttacks().get(Direction.SOUTH).getValue()) {
-            difficulty++;
-          } else if (i == 3 && adjacentCard.getAttacks().get(Direction.EAST).getValue() <
-                  card.getAttacks().get(Direction.WEST).getValue()) {
-            difficulty++;
-          }
-        }
+    BoardTopology topology = BoardTopology.of(game);
+    int width = game.getBoardW();
+    int cell = row * width + col;
+
+    for (int dir = 0; dir < 4; dir++) {
+      int adj = topology.neighbor(cell, dir);
+      if (adj != -1 && game.ownerAt(adj / width, adj % width) != null
+              && game.attackAt(adj / width, adj % width, ADJACENT_SIDES[dir])
+              < CardDefinition.attackOf(card.getPackedAttacks(), CARD_SIDES[dir].ordinal())) {
+        difficulty++;
       }
     }
 
     return difficulty;
   }
 
-
-  private void calculateDefensiveScore(int row, int col,
-                                       ThreeTrioCard card, Direction dir1, Direction dir2) {
-    int rows = game.getBoard().length;
-    int cols = game.getBoard()[0].length;
+  // sums, over every side of the corner, the attack value of the card on that side if the
+  // side faces an open tile, or 10 if it faces a hole, the edge or a card already played
+  private void calculateDefensiveScore(BoardTopology topology, int cell, int handIdx,
+                                       ThreeTrioCard card) {
+    int width = game.getBoardW();
     int score = 0;
-
-    // Check top left corner
-    if (row == 0 && col == 0) {
-      if (row + 1 < rows && col + 1 < cols) {
-        // Check tile to the right and below
-        score += calculateScore(row, col, row + 1, col, card, dir1);
-        score += calculateScore(row, col, row, col + 1, card, dir2);
-      }
-    }
-    // Check top right corner
-    else if (row == 0 && col == cols - 1) {
-      if (row + 1 < rows && col - 1 >= 0) {
-        // Check tile to the left and below
-        score += calculateScore(row, col, row + 1, col, card, dir1);
-        score += calculateScore(row, col, row, col - 1, card, dir2);
-      }
-    }
-    // Check bottom left corner
-    else if (row == rows - 1 && col == 0) {
-      if (row - 1 >= 0 && col + 1 < cols) {
-        // Check tile to the right and above
-        score += calculateScore(row, col, row - 1, col, card, dir1);
-        score += calculateScore(row, col, row, col + 1, card, dir2);
-      }
+    for (int dir = 0; dir < 4; dir++) {
+      score += calculateScore(topology.neighbor(cell, dir), handIdx, DIRECTIONS[dir]);
     }
-    // Check bottom right corner
-    else if (row == rows - 1 && col == cols - 1) {
-      if (row - 1 >= 0 && col - 1 >= 0) {
-        // Check tile to the left and above
-        score += calculateScore(row, col, row - 1, col, card, dir1);
-        score += calculateScore(row, col, row, col - 1, card, dir2);
+    updateBestScore(cell / width, cell % width, card, score);
+  }
+
+  // true if some of the given cells is open to play to
+  private boolean anyOpen(int[] cells) {
+    int width = game.getBoardW();
+    for (int cell : cells) {
+      if (game.isValidMove(cell / width, cell % width)) {
+        return true;
       }
     }
-    updateBestScore(row, col, card, score);
+    return false;
   }
 
   private void updateBestScore(int row, int col, ThreeTrioCard card, int score) {
@@ -180,18 +152,12 @@ public class CornerStrategy implements PlayerStrategy {
     }
   }
 
-  private int calculateScore(int row, int col, int adjacentRow,
-                             int adjacentCol, ThreeTrioCard card, Direction dir) {
-    if (game.isValidMove(row, col)) {
-      if (game.getBoard()[adjacentRow][adjacentCol].isHole()
-              || game.getBoard()[adjacentRow][adjacentCol].getName() != null) {
-        return 10; // return the value of A since it's virtually unflippable
-      } else {
-        return card.getAttacks().get(dir).getValue();
-      }
+  private int calculateScore(int adjacent, int handIdx, Direction dir) {
+    int width = game.getBoardW();
+    if (adjacent == -1 || game.ownerAt(adjacent / width, adjacent % width) != null) {
+      return 10; // return the value of A since it's virtually unflippable
     } else {
-      // if it's not a valid move then don't even consider it so give it a score of 0
-      return 0;
+      return game.handAttack(handIdx, dir);
     }
   }
 
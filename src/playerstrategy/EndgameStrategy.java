@@ -0,0 +1,137 @@
+package playerstrategy;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import model.ReadonlyThreeTrioModel;
+import model.ThreeTrioCard;
+
+/**
+ * Represents a player strategy that solves the game exactly once few enough tiles are open, and
+ * leaves every move before that to another strategy. Both hands are always visible, so the
+ * solver searches every move to the end of the game and plays the one with the best final score
+ * difference, counting the cards left in hand as getScore does. Positions already solved are
+ * kept in a transposition table between moves.
+ *
+ * <p>The solver plays out moves on the game's searchCopy, so it follows whatever rules the game
+ * is played with, including the same and plus rules.
+ */
+public class EndgameStrategy implements PlayerStrategy {
+  /**
+   * Number of open tiles at which the solver takes over when no threshold is given.
+   */
+  public static final int DEFAULT_THRESHOLD = 7;
+
+  private final ReadonlyThreeTrioModel<ThreeTrioCard> game;
+  private final PlayerStrategy fallback;
+  private final int threshold;
+  private final TranspositionTable table;
+
+  /**
+   * Constructs an EndgameStrategy for the given model that solves the game once
+   * DEFAULT_THRESHOLD or fewer tiles are open.
+   *
+   * @param model    the model to play on
+   * @param fallback the strategy to play with while more tiles are open
+   */
+  public EndgameStrategy(ReadonlyThreeTrioModel<ThreeTrioCard> model, PlayerStrategy fallback) {
+    this(model, fallback, DEFAULT_THRESHOLD);
+  }
+
+  /**
+   * Constructs an EndgameStrategy for the given model that solves the game once the given
+   * number of tiles or fewer are open.
+   *
+   * @param model     the model to play on
+   * @param fallback  the strategy to play with while more tiles are open
+   * @param threshold the most open tiles at which to solve the game
+   * @throws IllegalArgumentException if the fallback is null or the threshold is negative
+   */
+  public EndgameStrategy(ReadonlyThreeTrioModel<ThreeTrioCard> model, PlayerStrategy fallback,
+                         int threshold) {
+    if (fallback == null) {
+      throw new IllegalArgumentException("The fallback strategy must not be null");
+    }
+    if (threshold < 0) {
+      throw new IllegalArgumentException("The threshold must not be negative");
+    }
+    this.game = model;
+    this.fallback = fallback;
+    this.threshold = threshold;
+    this.table = new TranspositionTable(AlphaBetaStrategy.DEFAULT_TABLE_SIZE);
+  }
+
+  @Override
+  public Move getMove() {
+    return getMove(SearchLimits.none());
+  }
+
+  /**
+   * Solves the game within the given limits if few enough tiles are open, otherwise leaves the
+   * move to the fallback with the same limits. A solve cut short plays the best of the root
+   * moves it finished.
+   *
+   * @param limits the limits to search within
+   * @return the best move found
+   */
+  @Override
+  public Move getMove(SearchLimits limits) {
+    List<ThreeTrioCard> hand = game.getPlayerHand();
+    if (hand.isEmpty() || game.isGameOver() || !isSolving()) {
+      return fallback.getMove(limits);
+    }
+    AlphaBetaSearch search = newSearch(limits);
+    return AlphaBetaStrategy.toMove(game, hand, search.searchRoot(search.rootOpen(), -1));
+  }
+
+  /**
+   * Returns the final score difference the move leads to with best play from both sides, from
+   * the side of the player making it, once the game is being solved. Before that the fallback
+   * strategy scores the move.
+   *
+   * @param move the move to score
+   * @return the final score difference after the move, or the fallback's score
+   */
+  @Override
+  public int getScore(Move move) {
+    if (!isSolving()) {
+      return fallback.getScore(move);
+    }
+    int handIdx = game.getPlayerHand().indexOf(move.getCard());
+    if (handIdx == -1 || !game.isValidMove(move.getRow(), move.getCol())) {
+      return -AlphaBetaSearch.INFINITY;
+    }
+    AlphaBetaSearch search = newSearch(SearchLimits.none());
+    int cell = move.getRow() * game.getBoardW() + move.getCol();
+    int score = search.searchMove(handIdx * search.numCells() + cell, search.rootOpen(),
+            -AlphaBetaSearch.INFINITY, AlphaBetaSearch.INFINITY);
+    return score >= AlphaBetaSearch.WIN ? score - AlphaBetaSearch.WIN
+            : score <= -AlphaBetaSearch.WIN ? score + AlphaBetaSearch.WIN : score;
+  }
+
+  /**
+   * Leaves pondering to the fallback, since the solver is fast enough not to need it.
+   *
+   * @param limits the limits to search within, cancelled when the opponent has moved
+   * @return the fallback's search to run in the background
+   */
+  @Override
+  public Runnable ponder(SearchLimits limits) {
+    return fallback.ponder(limits);
+  }
+
+  /**
+   * Returns true if few enough tiles are open for the game to be solved.
+   *
+   * @return whether this strategy is solving the game rather than using its fallback
+   */
+  public boolean isSolving() {
+    return game.openTiles().length <= threshold;
+  }
+
+  // a searcher on a copy that plays by the game's rules
+  private AlphaBetaSearch newSearch(SearchLimits limits) {
+    return new AlphaBetaSearch(AlphaBetaSearch.searchCopy(game), table, limits,
+            new AtomicBoolean());
+  }
+}
@@ -0,0 +1,179 @@
+package playerstrategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import model.ReadonlyThreeTrioModel;
+import model.ThreeTrioCard;
+import model.ThreeTrioModel;
+
+/**
+ * Represents a player strategy that asks several strategies to score every legal move and plays
+ * the move with the best weighted sum of their scores. Each strategy's scores are scaled to run
+ * from 0 for its worst move to 1 for its best, so strategies that score on different scales can
+ * be weighed against each other. DEFENSE scores the chances of being flipped, so its scale is
+ * turned around.
+ *
+ * <p>Every strategy scores the moves as its own task on the pool shared by the parallel
+ * strategies, so adding strategies adds little time. Each task works on its own copy of the
+ * game, taken before any task starts, since the packed game reuses buffers even when it is only
+ * read.
+ */
+public class EnsembleStrategy implements PlayerStrategy {
+  private final ReadonlyThreeTrioModel<ThreeTrioCard> game;
+  private final Map<StrategyType, Integer> weights;
+  private final ForkJoinPool pool;
+
+  /**
+   * Constructs an EnsembleStrategy for the given model with the default weights, see
+   * defaultWeights.
+   *
+   * @param model the model to play on
+   */
+  public EnsembleStrategy(ReadonlyThreeTrioModel<ThreeTrioCard> model) {
+    this(model, defaultWeights());
+  }
+
+  /**
+   * Constructs an EnsembleStrategy for the given model that weighs the given strategies.
+   *
+   * @param model   the model to play on
+   * @param weights the weight of each strategy to ask
+   * @throws IllegalArgumentException if there are no weights or any weight is negative
+   */
+  public EnsembleStrategy(ReadonlyThreeTrioModel<ThreeTrioCard> model,
+                          Map<StrategyType, Integer> weights) {
+    if (weights == null || weights.isEmpty()) {
+      throw new IllegalArgumentException("There must be at least one strategy to weigh");
+    }
+    for (int weight : weights.values()) {
+      if (weight < 0) {
+        throw new IllegalArgumentException("Weights must not be negative");
+      }
+    }
+    this.game = model;
+    this.weights = new EnumMap<>(weights);
+    this.pool = SearchPool.get();
+  }
+
+  /**
+   * Returns the weights used when none are given: flipping the most cards counts most, then
+   * not being flipped back, then taking corners.
+   *
+   * @return the default weight of each strategy
+   */
+  public static Map<StrategyType, Integer> defaultWeights() {
+    Map<StrategyType, Integer> weights = new EnumMap<>(StrategyType.class);
+    weights.put(StrategyType.FLIPMAX, 3);
+    weights.put(StrategyType.DEFENSE, 2);
+    weights.put(StrategyType.CORNER, 1);
+    return weights;
+  }
+
+  @Override
+  public Move getMove() {
+    List<ThreeTrioCard> hand = game.getPlayerHand();
+    if (hand.isEmpty() || game.isGameOver()) {
+      return new NoBestMove(game).getNoBestMove();
+    }
+    double[] combined = combinedScores(hand.size());
+    List<Move> ties = new ArrayList<>();
+    double best = Double.NEGATIVE_INFINITY;
+    for (int move = 0; move < combined.length; move++) {
+      if (Double.isNaN(combined[move])) {
+        continue;
+      }
+      if (combined[move] > best) {
+        best = combined[move];
+        ties.clear();
+      }
+      if (combined[move] == best) {
+        ties.add(AlphaBetaStrategy.toMove(game, hand, move));
+      }
+    }
+    return new TieBreaker().breakTie(ties);
+  }
+
+  /**
+   * Returns the weighted sum of the scaled scores of the move, times 1000.
+   *
+   * @param move the move to score
+   * @return the combined score of the move, or -1 if the move is not legal
+   */
+  @Override
+  public int getScore(Move move) {
+    List<ThreeTrioCard> hand = game.getPlayerHand();
+    int handIdx = hand.indexOf(move.getCard());
+    if (handIdx == -1 || !game.isValidMove(move.getRow(), move.getCol())) {
+      return -1;
+    }
+    int numCells = game.getBoardW() * game.getBoardH();
+    double[] combined = combinedScores(hand.size());
+    int cell = move.getRow() * game.getBoardW() + move.getCol();
+    return (int) Math.round(1000 * combined[handIdx * numCells + cell]);
+  }
+
+  // the weighted sum of the scaled scores of every move, coded handIdx * numCells + cell, with
+  // NaN for cells that are not open
+  private double[] combinedScores(int handSize) {
+    int numCells = game.getBoardW() * game.getBoardH();
+    int[] open = game.openTiles();
+    List<ForkJoinTask<int[]>> tasks = new ArrayList<>();
+    for (StrategyType type : weights.keySet()) {
+      ThreeTrioModel<ThreeTrioCard> copy = AlphaBetaSearch.searchCopy(game);
+      tasks.add(pool.submit(() -> scoreAll(type, copy, open)));
+    }
+    double[] combined = new double[handSize * numCells];
+    Arrays.fill(combined, Double.NaN);
+    for (int handIdx = 0; handIdx < handSize; handIdx++) {
+      for (int cell : open) {
+        combined[handIdx * numCells + cell] = 0;
+      }
+    }
+    int idx = 0;
+    for (Map.Entry<StrategyType, Integer> entry : weights.entrySet()) {
+      int[] scores = tasks.get(idx++).join();
+      int min = Integer.MAX_VALUE;
+      int max = Integer.MIN_VALUE;
+      for (int move = 0; move < combined.length; move++) {
+        if (!Double.isNaN(combined[move])) {
+          min = Math.min(min, scores[move]);
+          max = Math.max(max, scores[move]);
+        }
+      }
+      if (max == min) {
+        continue;
+      }
+      boolean lowerIsBetter = entry.getKey() == StrategyType.DEFENSE;
+      for (int move = 0; move < combined.length; move++) {
+        if (!Double.isNaN(combined[move])) {
+          double scaled = (double) (scores[move] - min) / (max - min);
+          combined[move] += entry.getValue() * (lowerIsBetter ? 1 - scaled : scaled);
+        }
+      }
+    }
+    return combined;
+  }
+
+  // the score the given strategy gives every legal move of the copy
+  private static int[] scoreAll(StrategyType type, ThreeTrioModel<ThreeTrioCard> copy,
+                                int[] open) {
+    PlayerStrategy strategy = StrategyFactory.createStrategy(type, copy);
+    List<ThreeTrioCard> hand = copy.getPlayerHand();
+    int width = copy.getBoardW();
+    int numCells = width * copy.getBoardH();
+    int[] scores = new int[hand.size() * numCells];
+    for (int handIdx = 0; handIdx < hand.size(); handIdx++) {
+      for (int cell : open) {
+        Move move = new StrategyMove(cell / width, cell % width, hand.get(handIdx));
+        scores[handIdx * numCells + cell] = strategy.getScore(move);
+      }
+    }
+    return scores;
+  }
+}
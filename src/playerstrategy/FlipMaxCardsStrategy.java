@@ -3,16 +3,22 @@ package playerstrategy;
 import java.util.ArrayList;
 import java.util.List;
 
+import model.MoveScoreCache;
 import model.ReadonlyThreeTrioModel;
 import model.ThreeTrioCard;
 
 /**
  * Represents a player strategy that prioritizes flipping the most cards.
  * The strategy calculates the number of cards that can be flipped for each possible move and plays
- * the card that flips the most cards.
+ * the card that flips the most cards. The counts are kept between calls in a MoveScoreCache, so
+ * on a large board each call only recounts the moves the cards played since the last one can
+ * have changed.
  */
 public class FlipMaxCardsStrategy implements PlayerStrategy {
   private ReadonlyThreeTrioModel<ThreeTrioCard> game;
+  // flip counts of every move, filled from the cache and reused between calls to getMove
+  private int[] scores = new int[0];
+  private final MoveScoreCache cache;
 
   /**
    * Constructor for the FlipMaxCardsStrategy.
@@ -22,6 +28,7 @@ public class FlipMaxCardsStrategy implements PlayerStrategy {
    */
   public FlipMaxCardsStrategy(ReadonlyThreeTrioModel game) {
     this.game = game;
+    this.cache = new MoveScoreCache(this.game);
   }
 
   @Override
@@ -32,23 +39,27 @@ public class FlipMaxCardsStrategy implements PlayerStrategy {
     int bestCol = -1;
     List<Move> ties = new ArrayList<>();
 
-    for (int idx = 0; idx < game.getPlayerHand().size(); idx++) {
-      System.out.println(game.getPlayerHand().get(idx).toString());
-      ThreeTrioCard card = game.getPlayerHand().get(idx);
-      for (int row = 0; row < game.getBoardH(); row++) {
-        for (int col = 0; col < game.getBoardW(); col++) {
-          if (game.isValidMove(row, col)) {
-            if (game.countPossibleFlips(row, col, card) >= maxFlips) {
-              if (game.countPossibleFlips(row, col, card) > maxFlips) {
-                ties.clear();
-              }
-              maxFlips = game.countPossibleFlips(row, col, card);
-              bestCardInHandIdx = idx;
-              bestRow = row;
-              bestCol = col;
-              ties.add(new StrategyMove(row, col, card));
-            }
+    List<ThreeTrioCard> hand = game.getPlayerHand();
+    int width = game.getBoardW();
+    int numCells = width * game.getBoardH();
+    if (scores.length < hand.size() * numCells) {
+      scores = new int[hand.size() * numCells];
+    }
+    cache.scoreMoves(scores);
+    for (int idx = 0; idx < hand.size(); idx++) {
+      for (int cell = 0; cell < numCells; cell++) {
+        int flips = scores[idx * numCells + cell];
+        if (flips >= maxFlips) {
+          int row = cell / width;
+          int col = cell % width;
+          if (flips > maxFlips) {
+            ties.clear();
           }
+          maxFlips = flips;
+          bestCardInHandIdx = idx;
+          bestRow = row;
+          bestCol = col;
+          ties.add(new StrategyMove(row, col, hand.get(idx)));
         }
       }
     }
@@ -62,7 +73,7 @@ public class FlipMaxCardsStrategy implements PlayerStrategy {
       return new NoBestMove(game).getNoBestMove();
     }
     // There is a best move for this strategy
-    return new StrategyMove(bestRow, bestCol, game.getPlayerHand().get(bestCardInHandIdx));
+    return new StrategyMove(bestRow, bestCol, hand.get(bestCardInHandIdx));
   }
 
   @Override
@@ -3,18 +3,28 @@ package playerstrategy;
 import java.util.ArrayList;
 import java.util.List;
 
+import model.BeatMatrix;
+import model.BitboardGame;
+import model.BoardTopology;
 import model.Direction;
 import model.ReadonlyThreeTrioModel;
 import model.ThreeTrioCard;
+import model.ThreeTrioGame;
 
 /**
  * Strategy to find the card and location to play that has the lowest chance of being flipped.
+ * The opponent's cards that could flip each side are counted with the game's BeatMatrix, so the
+ * count follows the game's attack rules and costs a bit count per side.
  */
 public class LeastLikelyToFlipStrategy implements PlayerStrategy {
   private ReadonlyThreeTrioModel<ThreeTrioCard> game;
   private int bestRow;
   private int bestCol;
   private ThreeTrioCard bestCard;
+  // for the tile next to ours in each direction, in the order of Direction: the side of our
+  // card that is checked
+  private static final Direction[] SIDES = {Direction.WEST, Direction.EAST, Direction.NORTH,
+      Direction.SOUTH};
 
   /**
    * Constructor for the LeastLikelyToFlipStrategy.
@@ -32,81 +42,50 @@ public class LeastLikelyToFlipStrategy implements PlayerStrategy {
   @Override
   public Move getMove() {
     List<Move> ties;
-    // placeholder
     //check in each direction how many opponent cards can flip them
-    int[] dx = new int[]{0, 1, 0, -1};
-    int[] dy = new int[]{1, 0, -1, 0};
+    BoardTopology topology = BoardTopology.of(game);
+    List<ThreeTrioCard> hand = game.getPlayerHand();
 
     ties = new ArrayList<>();
+    List<ThreeTrioCard> attackers = game.getOtherPlayerHand();
+    BeatMatrix matrix = beatMatrix(hand, attackers);
+    long[] attackerSet = matrix.setOf(attackers);
+    int[] handCards = new int[hand.size()];
+    for (int handIdx = 0; handIdx < handCards.length; handIdx++) {
+      handCards[handIdx] = matrix.indexOf(hand.get(handIdx));
+    }
     //number of possible cards that can flip the best card
     int min = Integer.MAX_VALUE;
-    for (int row = 0; row < game.getBoardH(); row++) {
-      for (int col = 0; col < game.getBoardW(); col++) {
-        ThreeTrioCard minCard = null;
-        int minForSpot = Integer.MAX_VALUE;
-        if (!game.isValidMove(row, col)) {
-          continue;
-        }
+    int width = game.getBoardW();
+    for (int cell : game.openTiles()) {
+      int row = cell / width;
+      int col = cell % width;
+      ThreeTrioCard minCard = null;
+      int minForSpot = Integer.MAX_VALUE;
 
-        for (ThreeTrioCard currentCard : game.getPlayerHand()) {
-          int flips = 0;
-          for (int i = 0; i < 4; i++) {
-            int r = row + dx[i];
-            int c = col + dy[i];
-            if (r < 0 || r >= game.getBoardH() || c < 0 || c >= game.getBoardW()) {
-              continue;
-            }
-            //making sure its a tile enemy can play on
-            if (i == 0) {
-              //check north
-              for (ThreeTrioCard otherCard : game.getOtherPlayerHand()) {
-                if (otherCard.getAttacks().get(Direction.SOUTH).getValue() >
-                        currentCard.getAttacks().get(Direction.NORTH).getValue()) {
-                  flips++;
-                }
-              }
-            } else if (i == 1) {
-              //check east
-              for (ThreeTrioCard otherCard : game.getOtherPlayerHand()) {
-                if (otherCard.getAttacks().get(Direction.WEST).getValue() >
-                        currentCard.getAttacks().get(Direction.EAST).getValue()) {
-                  flips++;
-                }
-              }
-            } else if (i == 2) {
-              //check south
-              for (ThreeTrioCard otherCard : game.getOtherPlayerHand()) {
-                if (otherCard.getAttacks().get(Direction.NORTH).getValue() >
-                        currentCard.getAttacks().get(Direction.SOUTH).getValue()) {
-                  flips++;
-                }
-              }
-            } else {
-              //check west
-              for (ThreeTrioCard otherCard : game.getOtherPlayerHand()) {
-                if (otherCard.getAttacks().get(Direction.EAST).getValue() >
-                        currentCard.getAttacks().get(Direction.WEST).getValue()) {
-                  flips++;
-                }
-              }
-            }
-          }
-          if (flips < minForSpot) {
-            minForSpot = flips;
-            minCard = currentCard;
+      for (int handIdx = 0; handIdx < handCards.length; handIdx++) {
+        int flips = 0;
+        for (int dir = 0; dir < 4; dir++) {
+          //making sure its a tile enemy can play on
+          if (topology.neighbor(cell, dir) != -1) {
+            flips += matrix.countFlippers(handCards[handIdx], SIDES[dir], attackerSet);
           }
         }
-        if (minForSpot < min) {
-          min = minForSpot;
-          bestRow = row;
-          bestCol = col;
-          bestCard = minCard;
-          ties.clear();
-          ties.add(new StrategyMove(row, col, minCard));
-        } else if (minForSpot == min) {
-          ties.add(new StrategyMove(row, col, minCard));
+        if (flips < minForSpot) {
+          minForSpot = flips;
+          minCard = hand.get(handIdx);
         }
       }
+      if (minForSpot < min) {
+        min = minForSpot;
+        bestRow = row;
+        bestCol = col;
+        bestCard = minCard;
+        ties.clear();
+        ties.add(new StrategyMove(row, col, minCard));
+      } else if (minForSpot == min) {
+        ties.add(new StrategyMove(row, col, minCard));
+      }
     }
     return new StrategyMove(bestRow, bestCol, bestCard);
   }
@@ -116,31 +95,32 @@ public class LeastLikelyToFlipStrategy implements PlayerStrategy {
     int row = move.getRow();
     int col = move.getCol();
     ThreeTrioCard card = move.getCard();
+    List<ThreeTrioCard> attackers = game.getOtherPlayerHand();
+    BeatMatrix matrix = beatMatrix(List.of(card), attackers);
+    long[] attackerSet = matrix.setOf(attackers);
+    int cardIdx = matrix.indexOf(card);
     int flips = 0;
-    int[] dx = {0, 1, 0, -1};
-    int[] dy = {1, 0, -1, 0};
+    BoardTopology topology = BoardTopology.of(game);
+    int cell = row * game.getBoardW() + col;
 
-    for (int i = 0; i < 4; i++) {
-      int r = row + dx[i];
-      int c = col + dy[i];
-      if (r >= 0 && r < game.getBoardH() && c >= 0 && c < game.getBoardW()) {
-        for (ThreeTrioCard opponentCard : game.getOtherPlayerHand()) {
-          if (i == 0 && opponentCard.getAttacks().get(Direction.SOUTH).getValue()
-                  > card.getAttacks().get(Direction.NORTH).getValue()) {
-            flips++;
-          } else if (i == 1 && opponentCard.getAttacks().get(Direction.WEST).getValue()
-                  > card.getAttacks().get(Direction.EAST).getValue()) {
-            flips++;
-          } else if (i == 2 && opponentCard.getAttacks().get(Direction.NORTH).getValue()
-                  > card.getAttacks().get(Direction.SOUTH).getValue()) {
-            flips++;
-          } else if (i == 3 && opponentCard.getAttacks().get(Direction.EAST).getValue()
-                  > card.getAttacks().get(Direction.WEST).getValue()) {
-            flips++;
-          }
-        }
+    for (int dir = 0; dir < 4; dir++) {
+      if (topology.neighbor(cell, dir) != -1) {
+        flips += matrix.countFlippers(cardIdx, SIDES[dir], attackerSet);
       }
     }
     return flips;
   }
-}
\ No newline at end of file
+
+  // the game's beat matrix if it holds the given cards and attackers, otherwise one of them
+  private BeatMatrix beatMatrix(List<ThreeTrioCard> cards, List<ThreeTrioCard> attackers) {
+    List<ThreeTrioCard> all = new ArrayList<>(attackers);
+    all.addAll(cards);
+    BeatMatrix matrix = game instanceof ThreeTrioGame ? ((ThreeTrioGame) game).getBeatMatrix()
+            : game instanceof BitboardGame ? ((BitboardGame) game).getBeatMatrix() : null;
+    boolean holdsAll = matrix != null;
+    for (ThreeTrioCard card : all) {
+      holdsAll = holdsAll && matrix.indexOf(card) != -1;
+    }
+    return holdsAll ? matrix : BeatMatrix.of(all, game);
+  }
+}
@@ -0,0 +1,296 @@
+package playerstrategy;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Scanner;
+
+import model.BoardTopology;
+import model.Color;
+import model.Direction;
+import model.PlayingCard;
+import model.ThreeTrioCard;
+import model.ThreeTrioModel;
+
+/**
+ * Scores positions at the leaves of a search by a weighted sum of features. Every feature but
+ * HAND is kept up to date as moves are made and taken back, so scoring a position costs the same
+ * whatever the size of the board, and keeping it up to date costs as much as the move changed:
+ * the card placed, the cards it flipped and their neighbors.
+ *
+ * <p>The evaluation is tied to one copy of a game, and has to be told of every move made on it
+ * with moveMade and of every move taken back with moveUnmade, in the same order. A move flips
+ * only cards next to the card placed or to another card it flipped, so the flips are found by
+ * asking the game about those cards alone.
+ */
+public final class LinearEvaluation {
+  /**
+   * The features a position is scored by, each counted for red minus for blue and then turned
+   * to the side of the player to move.
+   */
+  public enum Feature {
+    /**
+     * Cards on the board.
+     */
+    MATERIAL,
+    /**
+     * Sides of cards on the board that face a hole or the edge, so can never be attacked.
+     */
+    CORNERS,
+    /**
+     * Sides of cards on the board that face an open tile, each counted by how many attack
+     * values would flip it.
+     */
+    EXPOSED,
+    /**
+     * Cards in hand.
+     */
+    HAND,
+    /**
+     * Cards on the board with no open tile next to them, which only a combo can flip.
+     */
+    SAFE
+  }
+
+  private static final Feature[] FEATURES = Feature.values();
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  private final ThreeTrioModel<ThreeTrioCard> sim;
+  private final int width;
+  private final int[] weights;
+  // the tile next to each cell in each direction, -1 for the edge or a hole
+  private final BoardTopology topology;
+  // how many of the attack values flip a side of each value under the game's rules
+  private final int[] vulnerability;
+  // 1 for red, -1 for blue and 0 for no card, as last seen
+  private final int[] owners;
+  private final int[] attacks;
+  private final int[] openSides;
+  private final int[] exposure;
+  // red minus blue, by feature
+  private final int[] totals;
+  // the cells each move placed to and flipped, the placement first, and where each move starts
+  private final int[] changes;
+  private int numChanges;
+  private final int[] moveStarts;
+  private int numMoves;
+
+  /**
+   * Constructs an evaluation of the given game's current position.
+   *
+   * @param sim     the game to follow
+   * @param weights the weight of each feature, 0 for those not given
+   */
+  LinearEvaluation(ThreeTrioModel<ThreeTrioCard> sim, Map<Feature, Integer> weights) {
+    this.sim = sim;
+    this.width = sim.getBoardW();
+    int numCells = width * sim.getBoardH();
+    this.weights = new int[FEATURES.length];
+    for (Map.Entry<Feature, Integer> entry : weights.entrySet()) {
+      this.weights[entry.getKey().ordinal()] = entry.getValue();
+    }
+    this.topology = BoardTopology.of(sim);
+    this.owners = new int[numCells];
+    this.attacks = new int[4 * numCells];
+    this.openSides = new int[numCells];
+    this.exposure = new int[numCells];
+    this.totals = new int[FEATURES.length];
+    this.changes = new int[numCells * (numCells + 1)];
+    this.moveStarts = new int[numCells + 1];
+    this.vulnerability = vulnerability(sim);
+    for (int cell = 0; cell < numCells; cell++) {
+      openSides[cell] = topology.exposedSides(cell);
+    }
+    for (int cell = 0; cell < numCells; cell++) {
+      Color owner = sim.isHoleAt(cell / width, cell % width) ? null
+              : sim.ownerAt(cell / width, cell % width);
+      if (owner != null) {
+        place(cell, owner == Color.RED ? 1 : -1);
+      }
+    }
+  }
+
+  /**
+   * Returns a starting set of weights: a card on the board or in hand is worth 20, a side that
+   * can never be attacked 3 and a card that can no longer be attacked 4 more, and each attack
+   * value that could flip an open side costs 1.
+   *
+   * @return the default weight of each feature
+   */
+  public static Map<Feature, Integer> defaultWeights() {
+    Map<Feature, Integer> weights = new EnumMap<>(Feature.class);
+    weights.put(Feature.MATERIAL, 20);
+    weights.put(Feature.CORNERS, 3);
+    weights.put(Feature.EXPOSED, -1);
+    weights.put(Feature.HAND, 20);
+    weights.put(Feature.SAFE, 4);
+    return weights;
+  }
+
+  /**
+   * Reads feature weights from a file with one feature name and its weight per line, such as
+   * "MATERIAL 20". Features the file does not name are weighed 0.
+   *
+   * @param path the path of the file
+   * @return the weight of each feature named in the file
+   * @throws FileNotFoundException    if the file is not found
+   * @throws IllegalArgumentException if a line does not name a feature and a whole number
+   */
+  public static Map<Feature, Integer> loadWeights(String path) throws FileNotFoundException {
+    Map<Feature, Integer> weights = new EnumMap<>(Feature.class);
+    Scanner sc = new Scanner(new File(path));
+    try {
+      while (sc.hasNextLine()) {
+        String line = sc.nextLine().trim();
+        if (line.isEmpty()) {
+          continue;
+        }
+        String[] parts = line.split("\\s+");
+        if (parts.length != 2) {
+          throw new IllegalArgumentException("Invalid weight line: " + line);
+        }
+        try {
+          weights.put(Feature.valueOf(parts[0].toUpperCase()), Integer.parseInt(parts[1]));
+        } catch (IllegalArgumentException e) {
+          throw new IllegalArgumentException("Invalid weight line: " + line);
+        }
+      }
+    } finally {
+      sc.close();
+    }
+    return weights;
+  }
+
+  /**
+   * Takes in a move just made on the game: the card placed at the given cell and every card it
+   * flipped.
+   *
+   * @param cell the cell the card was placed at
+   */
+  void moveMade(int cell) {
+    moveStarts[numMoves++] = numChanges;
+    place(cell, sim.ownerAt(cell / width, cell % width) == Color.RED ? 1 : -1);
+    changes[numChanges++] = cell;
+    for (int i = numChanges - 1; i < numChanges; i++) {
+      int changed = changes[i];
+      for (int dir = 0; dir < 4; dir++) {
+        int adj = topology.neighbor(changed, dir);
+        if (adj != -1 && owners[adj] != 0 && owners[adj]
+                != (sim.ownerAt(adj / width, adj % width) == Color.RED ? 1 : -1)) {
+          flip(adj);
+          changes[numChanges++] = adj;
+        }
+      }
+    }
+  }
+
+  /**
+   * Takes back the last move taken in, before or after it is taken back on the game.
+   */
+  void moveUnmade() {
+    int start = moveStarts[--numMoves];
+    while (numChanges > start + 1) {
+      flip(changes[--numChanges]);
+    }
+    remove(changes[--numChanges]);
+  }
+
+  /**
+   * Returns the weighted sum of the features from the side of the player to move.
+   *
+   * @return the score of the position
+   */
+  int evaluate() {
+    int red = 0;
+    for (Feature feature : FEATURES) {
+      red += weights[feature.ordinal()] * totals[feature.ordinal()];
+    }
+    int hand = weights[Feature.HAND.ordinal()] * (sim.handSize() - sim.otherHandSize());
+    return (sim.getTurn() ? red : -red) + hand;
+  }
+
+  // counts a card of the given owner, 1 for red and -1 for blue, at an empty cell
+  private void place(int cell, int owner) {
+    owners[cell] = owner;
+    int exposed = 0;
+    for (int dir = 0; dir < 4; dir++) {
+      int attack = sim.attackAt(cell / width, cell % width, DIRECTIONS[dir]);
+      attacks[4 * cell + dir] = attack;
+      int adj = topology.neighbor(cell, dir);
+      if (adj == -1) {
+        continue;
+      }
+      openSides[adj]--;
+      if (owners[adj] == 0) {
+        exposed += vulnerability[attack];
+      } else {
+        // the neighbor's side facing this cell is no longer open
+        int lost = vulnerability[attacks[4 * adj + (dir ^ 1)]];
+        exposure[adj] -= lost;
+        totals[Feature.EXPOSED.ordinal()] -= owners[adj] * lost;
+        if (openSides[adj] == 0) {
+          totals[Feature.SAFE.ordinal()] += owners[adj];
+        }
+      }
+    }
+    exposure[cell] = exposed;
+    addCard(cell, owner);
+  }
+
+  // uncounts the card at the given cell, leaving the cell empty
+  private void remove(int cell) {
+    addCard(cell, -owners[cell]);
+    owners[cell] = 0;
+    for (int dir = 0; dir < 4; dir++) {
+      int adj = topology.neighbor(cell, dir);
+      if (adj == -1) {
+        continue;
+      }
+      openSides[adj]++;
+      if (owners[adj] != 0) {
+        int regained = vulnerability[attacks[4 * adj + (dir ^ 1)]];
+        exposure[adj] += regained;
+        totals[Feature.EXPOSED.ordinal()] += owners[adj] * regained;
+        if (openSides[adj] == 1) {
+          totals[Feature.SAFE.ordinal()] -= owners[adj];
+        }
+      }
+    }
+  }
+
+  private void flip(int cell) {
+    int owner = owners[cell];
+    addCard(cell, -2 * owner);
+    owners[cell] = -owner;
+  }
+
+  // adds the features of the card at the given cell to the totals the given number of times
+  private void addCard(int cell, int times) {
+    totals[Feature.MATERIAL.ordinal()] += times;
+    totals[Feature.CORNERS.ordinal()] += times * (4 - topology.exposedSides(cell));
+    totals[Feature.EXPOSED.ordinal()] += times * exposure[cell];
+    if (openSides[cell] == 0) {
+      totals[Feature.SAFE.ordinal()] += times;
+    }
+  }
+
+  // asks the game how many attack values flip a side of each value
+  private static int[] vulnerability(ThreeTrioModel<ThreeTrioCard> sim) {
+    int numValues = 11;
+    ThreeTrioCard[] probes = new ThreeTrioCard[numValues];
+    for (int value = 1; value < numValues; value++) {
+      probes[value] = new PlayingCard("probe", value, value, value, value);
+    }
+    int[] counts = new int[numValues];
+    for (int defend = 1; defend < numValues; defend++) {
+      for (int attack = 1; attack < numValues; attack++) {
+        if (sim.compareAttacks(probes[defend], probes[attack], Direction.NORTH,
+                Direction.SOUTH)) {
+          counts[defend]++;
+        }
+      }
+    }
+    return counts;
+  }
+}
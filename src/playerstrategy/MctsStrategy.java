@@ -0,0 +1,432 @@
+package playerstrategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import model.Color;
+import model.ReadonlyThreeTrioModel;
+import model.ThreeTrioCard;
+import model.ThreeTrioModel;
+
+/**
+ * Represents a player strategy that picks a move by Monte Carlo tree search. The tree is grown
+ * one position per iteration, chosen by UCT, and each new position is scored by playing the game
+ * out to the end: every playout move is either random or, half of the time, one of the moves that
+ * flip the most cards. Playouts are made and taken back on one copy of the game, so no game
+ * is copied once the search has started. Positions added to the tree leave out cards with the
+ * same attack values as an earlier card in hand, and below the root cards another card
+ * dominates, see CardPruning.
+ *
+ * <p>The search is root parallel: one task per thread on the shared pool grows its own tree
+ * from the same position, and at the deadline the visits of each root move are added up over
+ * the trees. The move visited most is played.
+ */
+public class MctsStrategy implements PlayerStrategy {
+  /**
+   * Time limit used when none is given, in milliseconds.
+   */
+  public static final long DEFAULT_TIME_LIMIT = 1000;
+  // how much UCT favors moves that have been tried less
+  private static final double EXPLORATION = Math.sqrt(2);
+  // the chance that a playout move is one that flips the most cards, rather than any move
+  private static final double GREEDY = 0.5;
+  // how many playouts getScore runs after the move it scores
+  private static final int SCORE_PLAYOUTS = 200;
+  // how many iterations are run between looks at the limits
+  private static final int CLOCK_INTERVAL = 64;
+  // the fewest visits of the root before a tree can stop early because one move leads
+  private static final int MIN_DECIDED_VISITS = 1000;
+
+  private final ReadonlyThreeTrioModel<ThreeTrioCard> game;
+  private final int threads;
+  private final long timeLimit;
+  private final Random seeds;
+  private final ForkJoinPool pool;
+  private int maxIterations;
+  private double stopShare;
+  private long iterations;
+  private double bestShare;
+
+  /**
+   * Constructs an MctsStrategy for the given model that searches on every core for up to
+   * DEFAULT_TIME_LIMIT milliseconds per move.
+   *
+   * @param model the model to search
+   */
+  public MctsStrategy(ReadonlyThreeTrioModel<ThreeTrioCard> model) {
+    this(model, Runtime.getRuntime().availableProcessors(), DEFAULT_TIME_LIMIT);
+  }
+
+  /**
+   * Constructs an MctsStrategy for the given model with the given number of threads and time
+   * limit.
+   *
+   * @param model     the model to search
+   * @param threads   how many trees to grow at once
+   * @param timeLimit how long to search for each move, in milliseconds
+   * @throws IllegalArgumentException if the number of threads or the time limit is not positive
+   */
+  public MctsStrategy(ReadonlyThreeTrioModel<ThreeTrioCard> model, int threads, long timeLimit) {
+    this(model, threads, timeLimit, new Random());
+  }
+
+  /**
+   * Constructs an MctsStrategy for the given model with the given number of threads and time
+   * limit, whose playouts are drawn from the given random number generator. Used to make
+   * searches repeatable when they are limited by iterations rather than time.
+   *
+   * @param model     the model to search
+   * @param threads   how many trees to grow at once
+   * @param timeLimit how long to search for each move, in milliseconds
+   * @param random    the source of the seed of each tree
+   * @throws IllegalArgumentException if the number of threads or the time limit is not
+   *                                  positive, or the random number generator is null
+   */
+  public MctsStrategy(ReadonlyThreeTrioModel<ThreeTrioCard> model, int threads, long timeLimit,
+                      Random random) {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("There must be at least one thread");
+    }
+    if (timeLimit <= 0) {
+      throw new IllegalArgumentException("The time limit must be positive");
+    }
+    if (random == null) {
+      throw new IllegalArgumentException("The random number generator must not be null");
+    }
+    this.game = model;
+    this.threads = threads;
+    this.timeLimit = timeLimit;
+    this.seeds = random;
+    this.pool = SearchPool.get();
+  }
+
+  @Override
+  public Move getMove() {
+    return getMove(SearchLimits.none());
+  }
+
+  /**
+   * Grows the trees until the time limit of this strategy or the given limits are reached, and
+   * returns the move visited most. A position cap is the most iterations of each tree.
+   *
+   * @param limits the limits to search within
+   * @return the best move found
+   */
+  @Override
+  public Move getMove(SearchLimits limits) {
+    List<ThreeTrioCard> hand = game.getPlayerHand();
+    if (hand.isEmpty() || game.isGameOver()) {
+      return new NoBestMove(game).getNoBestMove();
+    }
+    SearchLimits moveLimits = limits.withMaxTime(timeLimit);
+    Tree[] trees = new Tree[threads];
+    List<ForkJoinTask<?>> tasks = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      Tree tree = new Tree(AlphaBetaSearch.searchCopy(game), seeds.nextLong());
+      trees[i] = tree;
+      tasks.add(pool.submit(() -> tree.grow(moveLimits, maxIterations, stopShare)));
+    }
+    for (ForkJoinTask<?> task : tasks) {
+      task.join();
+    }
+    int[] visits = new int[hand.size() * trees[0].numCells];
+    iterations = 0;
+    for (Tree tree : trees) {
+      tree.addRootVisits(visits);
+      iterations += tree.iterations;
+    }
+    int bestMove = trees[0].root.untried[0];
+    long totalVisits = 0;
+    for (int move = 0; move < visits.length; move++) {
+      totalVisits += visits[move];
+      if (visits[move] > visits[bestMove]) {
+        bestMove = move;
+      }
+    }
+    bestShare = totalVisits == 0 ? 0 : (double) visits[bestMove] / totalVisits;
+    return AlphaBetaStrategy.toMove(game, hand, bestMove);
+  }
+
+  /**
+   * Returns the percentage of playouts after the given move that the player to move wins, with
+   * draws counting as half a win.
+   *
+   * @param move the move to score
+   * @return the score of the move from 0 to 100, or -1 if the move is not legal
+   */
+  @Override
+  public int getScore(Move move) {
+    int handIdx = game.getPlayerHand().indexOf(move.getCard());
+    if (handIdx == -1 || !game.isValidMove(move.getRow(), move.getCol())) {
+      return -1;
+    }
+    Tree tree = new Tree(AlphaBetaSearch.searchCopy(game), seeds.nextLong());
+    int cell = move.getRow() * game.getBoardW() + move.getCol();
+    return (int) Math.round(100 * tree.meanReward(handIdx * tree.numCells + cell,
+            SCORE_PLAYOUTS));
+  }
+
+  /**
+   * Limits how many iterations each tree is grown by, whatever the time limit.
+   *
+   * @param maxIterations the most iterations per tree, or 0 for no limit
+   * @throws IllegalArgumentException if the limit is negative
+   */
+  public void setMaxIterations(int maxIterations) {
+    if (maxIterations < 0) {
+      throw new IllegalArgumentException("The limit must not be negative");
+    }
+    this.maxIterations = maxIterations;
+  }
+
+  /**
+   * Stops each tree early once one move of the root has the given share of its visits, after
+   * MIN_DECIDED_VISITS visits, rather than growing it until the limits are reached.
+   *
+   * @param stopShare the share of visits from 0 to 1 at which the move is taken, or 0 to always
+   *                  search until the limits
+   * @throws IllegalArgumentException if the share is not from 0 to 1
+   */
+  public void setStopShare(double stopShare) {
+    if (!(stopShare >= 0 && stopShare <= 1)) {
+      throw new IllegalArgumentException("The share must be from 0 to 1");
+    }
+    this.stopShare = stopShare;
+  }
+
+  /**
+   * Returns the share of the visits of all the trees that went to the move played during the
+   * last call to getMove, a measure of how sure the search was of it.
+   *
+   * @return the share of visits from 0 to 1, 0 if no move was visited
+   */
+  public double getBestShare() {
+    return bestShare;
+  }
+
+  /**
+   * Returns how many iterations all the trees ran together during the last call to getMove.
+   *
+   * @return the number of iterations
+   */
+  public long getIterations() {
+    return iterations;
+  }
+
+  /**
+   * A position in a search tree, reached by playing its move from its parent.
+   */
+  private static final class Node {
+    private final int move;
+    private final boolean redMoved;
+    private final int[] untried;
+    private int numUntried;
+    private final Node[] children;
+    private int numChildren;
+    private int visits;
+    // the rewards of the player who made the move, summed over the visits
+    private double wins;
+
+    private Node(int move, boolean redMoved, int[] legalMoves) {
+      this.move = move;
+      this.redMoved = redMoved;
+      this.untried = legalMoves;
+      this.numUntried = legalMoves.length;
+      this.children = new Node[legalMoves.length];
+    }
+
+    // the child with the best UCT value, from the side of the player to move here
+    private Node select() {
+      double logVisits = Math.log(visits);
+      Node best = children[0];
+      double bestValue = Double.NEGATIVE_INFINITY;
+      for (int i = 0; i < numChildren; i++) {
+        Node child = children[i];
+        double value = child.wins / child.visits
+                + EXPLORATION * Math.sqrt(logVisits / child.visits);
+        if (value > bestValue) {
+          bestValue = value;
+          best = child;
+        }
+      }
+      return best;
+    }
+  }
+
+  /**
+   * One search tree, grown on its own copy of the game by one thread.
+   */
+  private static final class Tree {
+    private final ThreeTrioModel<ThreeTrioCard> sim;
+    private final Random random;
+    private final int width;
+    private final int numCells;
+    private final int[] scores;
+    private final int[] candidates;
+    private final CardPruning pruning;
+    private final boolean[] skipped;
+    private final Node[] path;
+    private final Node root;
+    private long iterations;
+
+    private Tree(ThreeTrioModel<ThreeTrioCard> sim, long seed) {
+      this.sim = sim;
+      this.random = new Random(seed);
+      this.width = sim.getBoardW();
+      this.numCells = width * sim.getBoardH();
+      int maxMoves = Math.max(sim.handSize(), sim.otherHandSize()) * numCells;
+      this.scores = new int[maxMoves];
+      this.candidates = new int[maxMoves];
+      this.pruning = new CardPruning(sim);
+      this.skipped = new boolean[Math.max(sim.handSize(), sim.otherHandSize())];
+      this.path = new Node[sim.openTiles().length + 1];
+      this.root = new Node(-1, !sim.getTurn(), legalMoves(true));
+    }
+
+    // runs iterations until the limits are reached, the iteration cap if there is one, or one
+    // move of the root has the given share of its visits if that is not 0
+    private void grow(SearchLimits limits, int maxIterations, double stopShare) {
+      while (maxIterations == 0 || iterations < maxIterations) {
+        if (iterations % CLOCK_INTERVAL == 0
+                && (limits.isReached(iterations) || isDecided(stopShare))) {
+          return;
+        }
+        iterate();
+        iterations++;
+      }
+    }
+
+    // selects a path down the tree, adds one position to it, plays the game out from there and
+    // scores every position on the path by the result
+    private void iterate() {
+      Node node = root;
+      path[0] = root;
+      int depth = 0;
+      while (node.numUntried == 0 && node.numChildren > 0) {
+        node = node.select();
+        play(node.move);
+        path[++depth] = node;
+      }
+      if (node.numUntried > 0) {
+        int i = random.nextInt(node.numUntried);
+        int move = node.untried[i];
+        node.untried[i] = node.untried[--node.numUntried];
+        node.untried[node.numUntried] = move;
+        boolean redMoved = sim.getTurn();
+        play(move);
+        Node child = new Node(move, redMoved, legalMoves(false));
+        node.children[node.numChildren++] = child;
+        node = child;
+        path[++depth] = node;
+      }
+      int plies = playout();
+      double redReward = redReward();
+      for (int i = 0; i < plies + depth; i++) {
+        sim.unmakeMove();
+      }
+      for (int i = 0; i <= depth; i++) {
+        path[i].visits++;
+        path[i].wins += path[i].redMoved ? redReward : 1 - redReward;
+      }
+    }
+
+    // plays random moves to the end of the game and returns how many were played
+    private int playout() {
+      int plies = 0;
+      while (!sim.isGameOver()) {
+        play(playoutMove());
+        plies++;
+      }
+      return plies;
+    }
+
+    // a random legal move, and with chance GREEDY one of those that flip the most cards
+    private int playoutMove() {
+      sim.scoreMoves(scores);
+      boolean greedy = random.nextDouble() < GREEDY;
+      int numCandidates = 0;
+      int maxFlips = 0;
+      int total = sim.handSize() * numCells;
+      for (int move = 0; move < total; move++) {
+        int flips = scores[move];
+        if (flips < 0 || greedy && flips < maxFlips) {
+          continue;
+        }
+        if (greedy && flips > maxFlips) {
+          maxFlips = flips;
+          numCandidates = 0;
+        }
+        candidates[numCandidates++] = move;
+      }
+      return candidates[random.nextInt(numCandidates)];
+    }
+
+    // every legal move of the current position worth adding to the tree, none if the game is
+    // over. Duplicate cards are left out, and below the root so are dominated ones.
+    private int[] legalMoves(boolean atRoot) {
+      if (sim.isGameOver()) {
+        return new int[0];
+      }
+      sim.scoreMoves(scores);
+      pruning.prune(skipped, !atRoot);
+      int numMoves = 0;
+      int total = sim.handSize() * numCells;
+      for (int move = 0; move < total; move++) {
+        if (scores[move] >= 0 && !skipped[move / numCells]) {
+          candidates[numMoves++] = move;
+        }
+      }
+      return Arrays.copyOf(candidates, numMoves);
+    }
+
+    private void play(int move) {
+      int cell = move % numCells;
+      sim.makeMove(cell / width, cell % width, move / numCells);
+    }
+
+    // 1 if red has won the finished game, 0 if blue has and 0.5 for a draw
+    private double redReward() {
+      int difference = sim.getScore(Color.RED) - sim.getScore(Color.BLUE);
+      return difference > 0 ? 1 : difference < 0 ? 0 : 0.5;
+    }
+
+    // whether the root has been visited enough for one move to have the given share of visits
+    private boolean isDecided(double stopShare) {
+      if (stopShare == 0 || root.visits < MIN_DECIDED_VISITS) {
+        return false;
+      }
+      int most = 0;
+      for (int i = 0; i < root.numChildren; i++) {
+        most = Math.max(most, root.children[i].visits);
+      }
+      return most >= stopShare * root.visits;
+    }
+
+    private void addRootVisits(int[] visits) {
+      for (int i = 0; i < root.numChildren; i++) {
+        visits[root.children[i].move] += root.children[i].visits;
+      }
+    }
+
+    // the mean reward of the player at the root over playouts that start with the given move
+    private double meanReward(int move, int playouts) {
+      boolean red = sim.getTurn();
+      play(move);
+      double total = 0;
+      for (int i = 0; i < playouts; i++) {
+        int plies = playout();
+        double redReward = redReward();
+        total += red ? redReward : 1 - redReward;
+        for (int j = 0; j < plies; j++) {
+          sim.unmakeMove();
+        }
+      }
+      sim.unmakeMove();
+      return total / playouts;
+    }
+  }
+}
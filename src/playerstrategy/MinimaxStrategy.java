@@ -6,7 +6,7 @@ import java.util.Map;
 
 import model.ReadonlyThreeTrioModel;
 import model.ThreeTrioCard;
-import model.ThreeTrioGame;
+import model.ThreeTrioModel;
 
 /**
  * Represents a player strategy that tries to give the opposing player the worst move possible.
@@ -30,31 +30,46 @@ public class MinimaxStrategy implements PlayerStrategy {
 
   @Override
   public Move getMove() {
+    return getMove(SearchLimits.none());
+  }
+
+  /**
+   * Scores moves until every one is scored or the limits are reached, and returns the best of
+   * those scored. Each move scored counts as one position.
+   *
+   * @param limits the limits to search within
+   * @return the best move found
+   */
+  @Override
+  public Move getMove(SearchLimits limits) {
     List<Move> ties = new ArrayList<>();
     Move bestMove = null;
     int bestScore = Integer.MAX_VALUE;
+    // every candidate is played out on one copy with make/unmake, under the game's rules
+    ThreeTrioModel<ThreeTrioCard> sim = AlphaBetaSearch.searchCopy(game);
+    List<PlayerStrategy> strategies = createStrategies(sim);
+    List<ThreeTrioCard> hand = game.getPlayerHand();
 
     // Iterate over all possible moves
-    for (int row = 0; row < game.getBoardH(); row++) {
-      for (int col = 0; col < game.getBoardW(); col++) {
-        for (ThreeTrioCard card : game.getPlayerHand()) {
-          if (game.isValidMove(row, col)) {
-            Move move = new StrategyMove(row, col, card);
-            int score = getScore(move);
-            //System.out.println("Move: " + move + " Score: " + score); // Debugging statement
-            if (score < bestScore) {
-              bestScore = score;
-              bestMove = move;
-              ties.clear();
-              ties.add(move);
-            } else if (score == bestScore) {
-              ties.add(move);
-            }
-          } else {
-            //System.out.println("Invalid move at row: " + row + " col: " + col);
-            // Debugging statement
-          }
+    int width = game.getBoardW();
+    long scored = 0;
+    for (int cell : game.openTiles()) {
+      int row = cell / width;
+      int col = cell % width;
+      for (int handIdx = 0; handIdx < hand.size()
+              && (scored == 0 || !limits.isReached(scored)); handIdx++) {
+        Move move = new StrategyMove(row, col, hand.get(handIdx));
+        int score = score(sim, strategies, row, col, handIdx);
+        //System.out.println("Move: " + move + " Score: " + score); // Debugging statement
+        if (score < bestScore) {
+          bestScore = score;
+          bestMove = move;
+          ties.clear();
+          ties.add(move);
+        } else if (score == bestScore) {
+          ties.add(move);
         }
+        scored++;
       }
     }
 
@@ -69,38 +84,47 @@ public class MinimaxStrategy implements PlayerStrategy {
 
   @Override
   public int getScore(Move move) {
-    int maxOppScore = Integer.MIN_VALUE;
-    //tempBoard[move.getRow()][move.getCol()] = move.getCard();
-    ThreeTrioGame temp = new ThreeTrioGame(game.getPlayerHand(),
-            game.getOtherPlayerHand(), game.getBoard(), game.getTurn());
+    ThreeTrioModel<ThreeTrioCard> sim = AlphaBetaSearch.searchCopy(game);
+    return score(sim, createStrategies(sim), move.getRow(), move.getCol(),
+            game.getPlayerHand().indexOf(move.getCard()));
+  }
 
+  private List<PlayerStrategy> createStrategies(ThreeTrioModel<ThreeTrioCard> sim) {
+    List<PlayerStrategy> strategies = new ArrayList<>();
+    for (StrategyType strategyType : weights.keySet()) {
+      strategies.add(StrategyFactory.createStrategy(strategyType, sim));
+    }
+    return strategies;
+  }
 
-    temp.playToBoard(move.getRow(), move.getCol(), temp.getPlayerHand().indexOf(move.getCard()));
+  /**
+   * Scores a move by making it on the simulation, rating the replies with every weighted
+   * strategy and then taking the move back.
+   */
+  private int score(ThreeTrioModel<ThreeTrioCard> sim, List<PlayerStrategy> strategies,
+                    int row, int col, int handIdx) {
+    int maxOppScore = Integer.MIN_VALUE;
+    sim.makeMove(row, col, handIdx);
     // Evaluate the best move the opponent can make using each strategy
+    int idx = 0;
     for (StrategyType strategyType : weights.keySet()) {
-      PlayerStrategy strategy = StrategyFactory.createStrategy(strategyType, temp);
+      PlayerStrategy strategy = strategies.get(idx++);
       int stratScore = 0;
-      for (int row = 0; row < temp.getBoardH(); row++) {
-        for (int col = 0; col < temp.getBoardW(); col++) {
-          for (ThreeTrioCard card : temp.getOtherPlayerHand()) {
-            if (temp.isValidMove(row, col)) {
-              //System.out.println("Opponent Move: ");
-              Move opponentMove = new StrategyMove(row, col, card);
-              //System.out.println("Opponent Move: " + opponentMove); // Debugging statement
-              int opponentScore = strategy.getScore(opponentMove);
-              stratScore = Math.max(stratScore, opponentScore);
-            }
-          }
+      for (int cell : sim.openTiles()) {
+        int r = cell / sim.getBoardW();
+        int c = cell % sim.getBoardW();
+        for (ThreeTrioCard card : sim.getOtherPlayerHand()) {
+          Move opponentMove = new StrategyMove(r, c, card);
+          int opponentScore = strategy.getScore(opponentMove);
+          stratScore = Math.max(stratScore, opponentScore);
         }
       }
       maxOppScore = Math.max(maxOppScore, stratScore * weights.get(strategyType));
     }
+    sim.unmakeMove();
 
     // Return the inverse of the maximum opponent score to minimize it
     // hard coded in weighing for score, will need to fix in future
-
-    System.out.println("Move: " + move + " Score: " + (1000 - maxOppScore)); // Debugging statement
-
     return 1000 - maxOppScore;
   }
 
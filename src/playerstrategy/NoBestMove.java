@@ -26,13 +26,13 @@ public class NoBestMove {
    * @return the first available move found on the board.
    */
   public Move getNoBestMove() {
-    for (int row = 0; row < game.getBoardH(); row++) {
-      for (int col = 0; col < game.getBoardW(); col++) {
-        if (game.isValidMove(row, col)) {
-          return new StrategyMove(row, col, game.getPlayerHand().get(0));
-        }
-      }
+    int[] openTiles = game.openTiles();
+    if (openTiles.length == 0) {
+      throw new IllegalArgumentException("No valid moves, the board is full");
     }
-    throw new IllegalArgumentException("No valid moves, the board is full");
+    // open tiles are in row-major order, so the first one is the uppermost-leftmost
+    int width = game.getBoardW();
+    return new StrategyMove(openTiles[0] / width, openTiles[0] % width,
+            game.getPlayerHand().get(0));
   }
 }
\ No newline at end of file
@@ -0,0 +1,267 @@
+package playerstrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import model.ReadonlyThreeTrioModel;
+import model.ThreeTrioCard;
+
+/**
+ * Represents a player strategy that spreads one alpha-beta search over several threads of the
+ * pool shared by the parallel strategies, one task per thread. Every thread has its own searcher
+ * and copy of the game, and all of them share one transposition table and one stop flag. The
+ * work is split in one of two ways, see {@link Mode}.
+ */
+public class ParallelAlphaBetaStrategy implements PlayerStrategy {
+
+  /**
+   * The ways a search can be split between threads.
+   */
+  public enum Mode {
+    /**
+     * At each depth the first root move is searched alone to get a bound, then the other root
+     * moves are shared out between the threads, which raise the shared bound as they find better
+     * moves.
+     */
+    ROOT_SPLIT,
+    /**
+     * Every thread runs its own iterative deepening of the whole tree, half of them a ply ahead
+     * of the others, and each skips what the others have already stored in the shared table.
+     * The deepest search any thread finishes is played.
+     */
+    LAZY_SMP
+  }
+
+  private final ReadonlyThreeTrioModel<ThreeTrioCard> game;
+  private final int threads;
+  private final Mode mode;
+  private final long timeLimit;
+  private final TranspositionTable table;
+  private final ForkJoinPool pool;
+  private int maxDepth;
+  private int completedDepth;
+  private long nodes;
+
+  /**
+   * Constructs a ParallelAlphaBetaStrategy for the given model that searches for up to
+   * AlphaBetaStrategy.DEFAULT_TIME_LIMIT milliseconds per move, with a transposition table of
+   * AlphaBetaStrategy.DEFAULT_TABLE_SIZE megabytes.
+   *
+   * @param model   the model to search
+   * @param threads how many threads to search with
+   * @param mode    how to split the search between the threads
+   * @throws IllegalArgumentException if the number of threads is not positive
+   */
+  public ParallelAlphaBetaStrategy(ReadonlyThreeTrioModel<ThreeTrioCard> model, int threads,
+                                   Mode mode) {
+    this(model, threads, mode, AlphaBetaStrategy.DEFAULT_TIME_LIMIT,
+            new TranspositionTable(AlphaBetaStrategy.DEFAULT_TABLE_SIZE));
+  }
+
+  /**
+   * Constructs a ParallelAlphaBetaStrategy for the given model with the given time limit and
+   * transposition table. The table is kept between moves.
+   *
+   * @param model     the model to search
+   * @param threads   how many threads to search with
+   * @param mode      how to split the search between the threads
+   * @param timeLimit how long to search for each move, in milliseconds
+   * @param table     the transposition table to share between the threads
+   * @throws IllegalArgumentException if the number of threads or the time limit is not positive,
+   *                                  or the mode or table is null
+   */
+  public ParallelAlphaBetaStrategy(ReadonlyThreeTrioModel<ThreeTrioCard> model, int threads,
+                                   Mode mode, long timeLimit, TranspositionTable table) {
+    if (threads <= 0) {
+      throw new IllegalArgumentException("There must be at least one thread");
+    }
+    if (timeLimit <= 0) {
+      throw new IllegalArgumentException("The time limit must be positive");
+    }
+    if (mode == null || table == null) {
+      throw new IllegalArgumentException("The mode and table must not be null");
+    }
+    this.game = model;
+    this.threads = threads;
+    this.mode = mode;
+    this.timeLimit = timeLimit;
+    this.table = table;
+    this.pool = SearchPool.get();
+  }
+
+  @Override
+  public Move getMove() {
+    return getMove(SearchLimits.none());
+  }
+
+  /**
+   * Searches as deep as the time limit of this strategy and the given limits allow, and returns
+   * the best move of the deepest search that finished. A position cap applies to each thread.
+   *
+   * @param limits the limits to search within
+   * @return the best move found
+   */
+  @Override
+  public Move getMove(SearchLimits limits) {
+    List<ThreeTrioCard> hand = game.getPlayerHand();
+    if (hand.isEmpty() || game.isGameOver()) {
+      return new NoBestMove(game).getNoBestMove();
+    }
+    SearchLimits moveLimits = limits.withMaxTime(timeLimit);
+    AtomicBoolean stop = new AtomicBoolean();
+    AlphaBetaSearch[] searches = new AlphaBetaSearch[threads];
+    for (int i = 0; i < threads; i++) {
+      searches[i] = new AlphaBetaSearch(AlphaBetaSearch.searchCopy(game), table, moveLimits,
+              stop);
+    }
+    int rootOpen = searches[0].rootOpen();
+    int lastDepth = maxDepth > 0 ? Math.min(maxDepth, rootOpen) : rootOpen;
+    int[] rootMoves = new int[hand.size() * searches[0].numCells()];
+    completedDepth = 0;
+    int bestMove = mode == Mode.ROOT_SPLIT ? splitRoot(searches, rootMoves, lastDepth)
+            : lazySmp(searches, stop, lastDepth);
+    nodes = 0;
+    for (AlphaBetaSearch search : searches) {
+      nodes += search.nodes();
+    }
+    if (bestMove == -1) {
+      // not even one ply finished in time, so fall back on the first move in search order
+      searches[0].orderRootMoves(-1, rootMoves);
+      bestMove = rootMoves[0];
+    }
+    return AlphaBetaStrategy.toMove(game, hand, bestMove);
+  }
+
+  @Override
+  public int getScore(Move move) {
+    return new AlphaBetaStrategy(game, timeLimit, table).getScore(move);
+  }
+
+  /**
+   * Limits how many plies getMove searches, whatever the time limit. Used to compare searches
+   * by the time they take to reach the same depth.
+   *
+   * @param maxDepth the deepest search to run, or 0 for no limit
+   * @throws IllegalArgumentException if the depth is negative
+   */
+  public void setMaxDepth(int maxDepth) {
+    if (maxDepth < 0) {
+      throw new IllegalArgumentException("The depth must not be negative");
+    }
+    this.maxDepth = maxDepth;
+  }
+
+  /**
+   * Returns the depth of the deepest search that finished during the last call to getMove.
+   *
+   * @return the number of plies searched to
+   */
+  public int getCompletedDepth() {
+    return completedDepth;
+  }
+
+  /**
+   * Returns how many positions all the threads visited together during the last call to
+   * getMove.
+   *
+   * @return the number of nodes searched
+   */
+  public long getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Returns the transposition table shared by the threads of this strategy.
+   *
+   * @return the transposition table
+   */
+  public TranspositionTable getTranspositionTable() {
+    return table;
+  }
+
+  // deepens one ply at a time. At each depth the first move is searched on this thread, then the
+  // rest are dealt out to the pool in turn. The best score and the index of its move are packed
+  // into one long so that both change together.
+  private int splitRoot(AlphaBetaSearch[] searches, int[] rootMoves, int lastDepth) {
+    int bestMove = -1;
+    for (int depth = 1; depth <= lastDepth; depth++) {
+      int numMoves = searches[0].orderRootMoves(bestMove, rootMoves);
+      int firstScore = searches[0].searchMove(rootMoves[0], depth, -AlphaBetaSearch.INFINITY,
+              AlphaBetaSearch.INFINITY);
+      if (searches[0].isTimedOut()) {
+        break;
+      }
+      AtomicLong best = new AtomicLong((long) firstScore << 32);
+      int searchDepth = depth;
+      List<ForkJoinTask<?>> tasks = new ArrayList<>();
+      for (int i = 0; i < searches.length; i++) {
+        AlphaBetaSearch search = searches[i];
+        int first = 1 + i;
+        tasks.add(pool.submit(() -> {
+          for (int idx = first; idx < numMoves && !search.isTimedOut(); idx += searches.length) {
+            int alpha = (int) (best.get() >> 32);
+            int score = search.searchMove(rootMoves[idx], searchDepth, alpha,
+                    AlphaBetaSearch.INFINITY);
+            long packed = (long) score << 32 | idx;
+            long current = best.get();
+            while (!search.isTimedOut() && score > (int) (current >> 32)
+                    && !best.compareAndSet(current, packed)) {
+              current = best.get();
+            }
+          }
+        }));
+      }
+      boolean timedOut = false;
+      for (int i = 0; i < tasks.size(); i++) {
+        tasks.get(i).join();
+        timedOut |= searches[i].isTimedOut();
+      }
+      if (timedOut) {
+        break;
+      }
+      bestMove = rootMoves[(int) best.get()];
+      completedDepth = depth;
+    }
+    return bestMove;
+  }
+
+  // every thread deepens on its own, odd threads starting a ply ahead. The deepest finished
+  // search is packed as depth and move in one long. Finishing the last depth stops the rest.
+  private int lazySmp(AlphaBetaSearch[] searches, AtomicBoolean stop, int lastDepth) {
+    AtomicLong deepest = new AtomicLong(-1);
+    List<ForkJoinTask<?>> tasks = new ArrayList<>();
+    for (int i = 0; i < searches.length; i++) {
+      AlphaBetaSearch search = searches[i];
+      int firstDepth = Math.min(1 + i % 2, lastDepth);
+      tasks.add(pool.submit(() -> {
+        int bestMove = -1;
+        for (int depth = firstDepth; depth <= lastDepth; depth++) {
+          int move = search.searchRoot(depth, bestMove);
+          if (search.isTimedOut()) {
+            return;
+          }
+          bestMove = move;
+          long packed = (long) depth << 32 | move;
+          long current = deepest.get();
+          while (packed >> 32 > current >> 32 && !deepest.compareAndSet(current, packed)) {
+            current = deepest.get();
+          }
+        }
+        stop.set(true);
+      }));
+    }
+    for (ForkJoinTask<?> task : tasks) {
+      task.join();
+    }
+    long result = deepest.get();
+    if (result == -1) {
+      return -1;
+    }
+    completedDepth = (int) (result >> 32);
+    return (int) result;
+  }
+}
@@ -13,6 +13,32 @@ public interface PlayerStrategy {
    */
   Move getMove();
 
+  /**
+   * Returns the move that the player wants to make, searching no further than the given limits
+   * allow. Strategies that search override this to stop at the limits with the best move found
+   * so far; the others finish in well under a millisecond and ignore them.
+   *
+   * @param limits the limits to search within
+   * @return the move that the player wants to make.
+   */
+  default Move getMove(SearchLimits limits) {
+    return getMove();
+  }
+
+  /**
+   * Returns a task that searches ahead while the opponent is to move, so that the next call to
+   * getMove can reuse the work. The position is copied before this returns, so the task can run
+   * on another thread while the game goes on. The task stops once the limits are reached. By
+   * default there is nothing to search and the task does nothing.
+   *
+   * @param limits the limits to search within, cancelled when the opponent has moved
+   * @return the search to run in the background
+   */
+  default Runnable ponder(SearchLimits limits) {
+    return () -> {
+    };
+  }
+
   /**
    * Returns the score of the move. Higher number = better move
    *
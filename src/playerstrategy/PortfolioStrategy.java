@@ -0,0 +1,259 @@
+package playerstrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+
+import model.ReadonlyThreeTrioModel;
+import model.ThreeTrioCard;
+import model.ThreeTrioModel;
+
+/**
+ * Represents a player strategy that races several strategies against each other for every move
+ * and plays the result it trusts most. Which strategies race depends on the position: while
+ * most of the board is open it races Monte Carlo tree search against taking corners, in the
+ * middle game alpha-beta search against tree search and flipping the most cards, and once few
+ * tiles are open, or the board is small, alpha-beta search alone, which then searches to the end
+ * of the game. When there is too little time left to search, only the quick strategies race.
+ *
+ * <p>A result that is proven, an alpha-beta search that reached the end of the game, is played
+ * as soon as it comes in and the rest of the race is cancelled. So is a confident result, a tree
+ * search that gave CONFIDENT_SHARE of its visits to one move, once every strategy listed ahead
+ * of it has come in; the tree search stops by itself when it gets that sure. Otherwise every
+ * strategy runs until the deadline, and the result of the strategy listed first for the
+ * position is played, skipping searches that did not finish a single ply and moves that are not
+ * legal. Cancelling the race does not cancel the limits it was run within.
+ *
+ * <p>Every strategy runs as its own task on the pool shared by the parallel strategies, on its
+ * own copy of the game taken before any task starts. The alpha-beta searches share one
+ * transposition table between moves.
+ */
+public class PortfolioStrategy implements PlayerStrategy {
+  /**
+   * Time limit used when none is given, in milliseconds.
+   */
+  public static final long DEFAULT_TIME_LIMIT = 1000;
+  // the least time worth starting a search with, in milliseconds
+  private static final long MIN_SEARCH_TIME = 20;
+  // the most tiles of a board small enough to search to the end from the first move
+  private static final int SMALL_BOARD = 9;
+  // the share of its visits a tree search has to give one move for its result to be confident
+  private static final double CONFIDENT_SHARE = 0.5;
+
+  private final ReadonlyThreeTrioModel<ThreeTrioCard> game;
+  private final long timeLimit;
+  private final TranspositionTable table;
+  private final ForkJoinPool pool;
+  private StrategyType lastWinner;
+
+  /**
+   * Constructs a PortfolioStrategy for the given model that races for up to
+   * DEFAULT_TIME_LIMIT milliseconds per move.
+   *
+   * @param model the model to play on
+   */
+  public PortfolioStrategy(ReadonlyThreeTrioModel<ThreeTrioCard> model) {
+    this(model, DEFAULT_TIME_LIMIT);
+  }
+
+  /**
+   * Constructs a PortfolioStrategy for the given model with the given time limit.
+   *
+   * @param model     the model to play on
+   * @param timeLimit how long to race for each move, in milliseconds
+   * @throws IllegalArgumentException if the time limit is not positive
+   */
+  public PortfolioStrategy(ReadonlyThreeTrioModel<ThreeTrioCard> model, long timeLimit) {
+    if (timeLimit <= 0) {
+      throw new IllegalArgumentException("The time limit must be positive");
+    }
+    this.game = model;
+    this.timeLimit = timeLimit;
+    this.table = new TranspositionTable(AlphaBetaStrategy.DEFAULT_TABLE_SIZE);
+    this.pool = SearchPool.get();
+  }
+
+  @Override
+  public Move getMove() {
+    return getMove(SearchLimits.none());
+  }
+
+  /**
+   * Races the strategies chosen for the position until one of them proves its move, or until
+   * the time limit of this strategy or the given limits are reached, and plays the best result.
+   *
+   * @param limits the limits to race within
+   * @return the best move found
+   */
+  @Override
+  public Move getMove(SearchLimits limits) {
+    List<ThreeTrioCard> hand = game.getPlayerHand();
+    if (hand.isEmpty() || game.isGameOver()) {
+      return new NoBestMove(game).getNoBestMove();
+    }
+    SearchLimits raceLimits = limits.nested(timeLimit);
+    List<StrategyType> racers = chooseRacers(raceLimits);
+    ExecutorCompletionService<Result> race = new ExecutorCompletionService<>(pool);
+    for (int rank = 0; rank < racers.size(); rank++) {
+      StrategyType type = racers.get(rank);
+      ThreeTrioModel<ThreeTrioCard> copy = AlphaBetaSearch.searchCopy(game);
+      int racerRank = rank;
+      race.submit(() -> run(type, racerRank, copy, raceLimits));
+    }
+    boolean[] finished = new boolean[racers.size()];
+    Result best = null;
+    for (int i = 0; i < racers.size(); i++) {
+      Result result = take(race, raceLimits);
+      if (result == null) {
+        continue;
+      }
+      finished[result.rank] = true;
+      if (result.move == null
+              || !game.isValidMove(result.move.getRow(), result.move.getCol())
+              || !hand.contains(result.move.getCard())) {
+        continue;
+      }
+      if (result.proven || best == null || result.rank < best.rank) {
+        best = result;
+      }
+      if (best.proven || best.confident && allFinished(finished, best.rank)) {
+        // the rest are still waited for, so none of them is left running into the next move
+        raceLimits.cancel();
+        for (i++; i < racers.size(); i++) {
+          take(race, raceLimits);
+        }
+        break;
+      }
+    }
+    if (best == null) {
+      lastWinner = null;
+      return new NoBestMove(game).getNoBestMove();
+    }
+    lastWinner = racers.get(best.rank);
+    return best.move;
+  }
+
+  /**
+   * Returns the score the strategy listed first for the position gives the move.
+   *
+   * @param move the move to score
+   * @return the score of the move, on the scale of the strategy that scored it
+   */
+  @Override
+  public int getScore(Move move) {
+    StrategyType type = chooseRacers(SearchLimits.ofTime(timeLimit)).get(0);
+    ThreeTrioModel<ThreeTrioCard> copy = AlphaBetaSearch.searchCopy(game);
+    return create(type, copy, timeLimit).getScore(move);
+  }
+
+  /**
+   * Returns the strategy whose move was played during the last call to getMove.
+   *
+   * @return the type of the winning strategy, or null if none of them found a legal move
+   */
+  public StrategyType getLastWinner() {
+    return lastWinner;
+  }
+
+  // the strategies to race in the current position, the most trusted first
+  private List<StrategyType> chooseRacers(SearchLimits limits) {
+    int open = game.openTiles().length;
+    int tiles = game.getNumTiles();
+    long timeLeft = (limits.getDeadline() - System.nanoTime()) / 1_000_000;
+    List<StrategyType> racers = new ArrayList<>();
+    if (timeLeft < MIN_SEARCH_TIME) {
+      racers.add(StrategyType.FLIPMAX);
+      racers.add(StrategyType.CORNER);
+    } else if (open <= EndgameStrategy.DEFAULT_THRESHOLD || tiles <= SMALL_BOARD) {
+      racers.add(StrategyType.ALPHABETA);
+      racers.add(StrategyType.FLIPMAX);
+    } else if (open * 3 > tiles * 2) {
+      racers.add(StrategyType.MCTS);
+      racers.add(StrategyType.CORNER);
+      racers.add(StrategyType.FLIPMAX);
+    } else {
+      racers.add(StrategyType.ALPHABETA);
+      racers.add(StrategyType.MCTS);
+      racers.add(StrategyType.FLIPMAX);
+    }
+    return racers;
+  }
+
+  // runs one strategy of the race on its copy of the game
+  private Result run(StrategyType type, int rank, ThreeTrioModel<ThreeTrioCard> copy,
+                     SearchLimits limits) {
+    long timeLeft = Math.max(1, (limits.getDeadline() - System.nanoTime()) / 1_000_000);
+    PlayerStrategy strategy = create(type, copy, Math.min(timeLimit, timeLeft));
+    int open = copy.openTiles().length;
+    if (strategy instanceof MctsStrategy) {
+      ((MctsStrategy) strategy).setStopShare(CONFIDENT_SHARE);
+    }
+    Move move = strategy.getMove(limits);
+    if (strategy instanceof AlphaBetaStrategy) {
+      int depth = ((AlphaBetaStrategy) strategy).getCompletedDepth();
+      if (depth == 0) {
+        return new Result(rank, null, false, false);
+      }
+      return new Result(rank, move, depth == open, false);
+    }
+    if (strategy instanceof MctsStrategy) {
+      boolean confident = ((MctsStrategy) strategy).getBestShare() >= CONFIDENT_SHARE;
+      return new Result(rank, move, false, confident);
+    }
+    return new Result(rank, move, false, false);
+  }
+
+  // whether every strategy listed ahead of the given rank has come in
+  private static boolean allFinished(boolean[] finished, int rank) {
+    for (int i = 0; i < rank; i++) {
+      if (!finished[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private PlayerStrategy create(StrategyType type, ThreeTrioModel<ThreeTrioCard> copy,
+                                long time) {
+    switch (type) {
+      case ALPHABETA:
+        return new AlphaBetaStrategy(copy, time, table);
+      case MCTS:
+        return new MctsStrategy(copy, 1, time);
+      default:
+        return StrategyFactory.createStrategy(type, copy);
+    }
+  }
+
+  // the next result of the race, or null if that strategy threw
+  private static Result take(ExecutorCompletionService<Result> race, SearchLimits limits) {
+    try {
+      return race.take().get();
+    } catch (ExecutionException e) {
+      return null;
+    } catch (InterruptedException e) {
+      limits.cancel();
+      Thread.currentThread().interrupt();
+      return null;
+    }
+  }
+
+  /**
+   * The move one strategy of a race found, with its place in the order of trust.
+   */
+  private static final class Result {
+    private final int rank;
+    private final Move move;
+    private final boolean proven;
+    private final boolean confident;
+
+    private Result(int rank, Move move, boolean proven, boolean confident) {
+      this.rank = rank;
+      this.move = move;
+      this.proven = proven;
+      this.confident = confident;
+    }
+  }
+}
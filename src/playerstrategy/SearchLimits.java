@@ -0,0 +1,137 @@
+package playerstrategy;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Represents the limits a strategy has to search within for one move: a deadline, a cap on the
+ * positions searched and a flag that another thread can set to cancel the search. The clock
+ * starts when the limits are made. A strategy that is stopped by its limits still returns the
+ * best move it has found so far.
+ *
+ * <p>Searches check their limits every so many positions rather than at every one, so they may
+ * run slightly past them. Parallel searches count the positions of each thread separately.
+ */
+public final class SearchLimits {
+  private final long deadline;
+  private final long maxNodes;
+  private final AtomicBoolean cancelled;
+  // the limits these were nested in, whose cancelling cancels these too, or null
+  private final SearchLimits outer;
+
+  /**
+   * Constructs limits with the given time and position caps, starting the clock now.
+   *
+   * @param maxTime  the most time to search for, in milliseconds, or 0 for no limit
+   * @param maxNodes the most positions to search, or 0 for no limit
+   * @throws IllegalArgumentException if either cap is negative
+   */
+  public SearchLimits(long maxTime, long maxNodes) {
+    this(maxTime == 0 ? Long.MAX_VALUE : System.nanoTime() + maxTime * 1_000_000L,
+            maxNodes == 0 ? Long.MAX_VALUE : maxNodes, new AtomicBoolean(), null);
+    if (maxTime < 0 || maxNodes < 0) {
+      throw new IllegalArgumentException("The limits must not be negative");
+    }
+  }
+
+  private SearchLimits(long deadline, long maxNodes, AtomicBoolean cancelled,
+                       SearchLimits outer) {
+    this.deadline = deadline;
+    this.maxNodes = maxNodes;
+    this.cancelled = cancelled;
+    this.outer = outer;
+  }
+
+  /**
+   * Returns limits that never stop a search unless it is cancelled.
+   *
+   * @return limits with no time or position cap
+   */
+  public static SearchLimits none() {
+    return new SearchLimits(0, 0);
+  }
+
+  /**
+   * Returns limits that stop a search after the given time.
+   *
+   * @param maxTime the most time to search for, in milliseconds
+   * @return limits with only a time cap
+   * @throws IllegalArgumentException if the time is negative
+   */
+  public static SearchLimits ofTime(long maxTime) {
+    return new SearchLimits(maxTime, 0);
+  }
+
+  /**
+   * Returns these limits with the time cap lowered to the given time from now, if that comes
+   * first. The new limits share the cancel flag of these ones, so cancelling either cancels
+   * both. Used by strategies that have a time limit of their own.
+   *
+   * @param maxTime the most time to search for, in milliseconds
+   * @return limits with the earlier of the two deadlines
+   */
+  public SearchLimits withMaxTime(long maxTime) {
+    return new SearchLimits(Math.min(deadline, System.nanoTime() + maxTime * 1_000_000L),
+            maxNodes, cancelled, outer);
+  }
+
+  /**
+   * Returns limits for a search run as one part of a search within these limits, with the time
+   * cap lowered to the given time from now if that comes first. The new limits have a cancel
+   * flag of their own: cancelling these limits cancels them too, but cancelling them leaves
+   * these running. Used to stop the parts of a search early without stopping the caller.
+   *
+   * @param maxTime the most time to search for, in milliseconds
+   * @return limits with the earlier of the two deadlines and their own cancel flag
+   */
+  public SearchLimits nested(long maxTime) {
+    return new SearchLimits(Math.min(deadline, System.nanoTime() + maxTime * 1_000_000L),
+            maxNodes, new AtomicBoolean(), this);
+  }
+
+  /**
+   * Cancels every search running within these limits.
+   */
+  public void cancel() {
+    cancelled.set(true);
+  }
+
+  /**
+   * Returns true if these limits have been cancelled.
+   *
+   * @return whether the search has been cancelled
+   */
+  public boolean isCancelled() {
+    return cancelled.get() || outer != null && outer.isCancelled();
+  }
+
+  /**
+   * Returns true if a search that has visited the given number of positions has to stop,
+   * because it is cancelled, out of time or at its position cap.
+   *
+   * @param nodes the number of positions searched so far
+   * @return whether the search has to stop
+   */
+  public boolean isReached(long nodes) {
+    return isCancelled() || nodes >= maxNodes
+            || deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0;
+  }
+
+  /**
+   * Returns the System.nanoTime at which searches have to stop, or Long.MAX_VALUE if there is
+   * no time cap.
+   *
+   * @return the deadline
+   */
+  public long getDeadline() {
+    return deadline;
+  }
+
+  /**
+   * Returns the most positions a search may visit, or Long.MAX_VALUE if there is no cap.
+   *
+   * @return the position cap
+   */
+  public long getMaxNodes() {
+    return maxNodes;
+  }
+}
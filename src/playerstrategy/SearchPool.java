@@ -0,0 +1,34 @@
+package playerstrategy;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Holds the one ForkJoinPool every parallel strategy runs its tasks on, so that strategies made
+ * per move, such as those an ensemble or minimax asks, do not each start threads of their own.
+ * A search limits how much of the pool it takes by the number of tasks it submits, one per
+ * thread it was asked for, and waits for all of them before it returns. A search started from a
+ * task of another joins its own tasks from that worker, which runs them itself when no other
+ * worker is free.
+ *
+ * <p>The pool has a worker per core, and no fewer than MIN_PARALLELISM so that the strategies of
+ * a race still take turns on machines with few cores. Its workers are daemon threads, so the
+ * pool is never shut down.
+ */
+final class SearchPool {
+  // the fewest workers the pool has, whatever the number of cores
+  private static final int MIN_PARALLELISM = 4;
+  private static final ForkJoinPool POOL = new ForkJoinPool(
+          Math.max(MIN_PARALLELISM, Runtime.getRuntime().availableProcessors()));
+
+  private SearchPool() {
+  }
+
+  /**
+   * Returns the pool shared by every parallel strategy.
+   *
+   * @return the shared pool
+   */
+  static ForkJoinPool get() {
+    return POOL;
+  }
+}
@@ -32,6 +32,14 @@ public class StrategyFactory {
           return new LeastLikelyToFlipStrategy(model);
         case FLIPMAX:
           return new FlipMaxCardsStrategy(model);
+        case ALPHABETA:
+          return new AlphaBetaStrategy(model);
+        case MCTS:
+          return new MctsStrategy(model);
+        case ENSEMBLE:
+          return new EnsembleStrategy(model);
+        case PORTFOLIO:
+          return new PortfolioStrategy(model);
         default:
           return null;
       }
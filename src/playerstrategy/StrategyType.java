@@ -8,5 +8,9 @@ public enum StrategyType {
   CORNER,
   COMPLEX,
   FLIPMAX,
-  DEFENSE
+  DEFENSE,
+  ALPHABETA,
+  MCTS,
+  ENSEMBLE,
+  PORTFOLIO
 }
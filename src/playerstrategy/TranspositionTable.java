@@ -0,0 +1,186 @@
+package playerstrategy;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size table of search results, keyed by the state hash of a position, so that a search
+ * reaching a position it has already searched (the same cells filled in a different order) can
+ * reuse the result. Each entry is two longs in one flat array: the key xored with the data, and
+ * the data, which packs the score, the depth searched, the bound type and the best move. Xoring
+ * the key with the data means an entry half written by another thread reads as a miss instead of
+ * as a wrong result.
+ *
+ * <p>When two positions land on the same entry, the one searched deeper keeps it. The table takes
+ * no locks, so threads can share it; the probe and hit counters are then only approximate.
+ */
+public class TranspositionTable {
+  /**
+   * Bound type of a score that is exact.
+   */
+  public static final int EXACT = 1;
+  /**
+   * Bound type of a score that is a lower bound, the search failed high.
+   */
+  public static final int LOWER = 2;
+  /**
+   * Bound type of a score that is an upper bound, the search failed low.
+   */
+  public static final int UPPER = 3;
+
+  // layout of the data: bits 0-15 the best move + 1, bits 16-17 the bound type, bits 18-25 the
+  // depth and bits 32-63 the score. A stored entry always has a bound, so data is never 0.
+  private static final int BOUND_SHIFT = 16;
+  private static final int DEPTH_SHIFT = 18;
+  private static final int SCORE_SHIFT = 32;
+  private static final int MAX_MOVE = 0xFFFE;
+  private static final int MAX_DEPTH = 0xFF;
+
+  private final long[] entries;
+  private final int mask;
+  private long probes;
+  private long hits;
+
+  /**
+   * Constructs a table using at most the given number of megabytes. The number of entries is
+   * the largest power of two that fits.
+   *
+   * @param megabytes the memory cap of the table
+   * @throws IllegalArgumentException if the cap is not positive
+   */
+  public TranspositionTable(int megabytes) {
+    if (megabytes <= 0) {
+      throw new IllegalArgumentException("The table needs at least one megabyte");
+    }
+    long maxEntries = (long) megabytes * 1024 * 1024 / 16;
+    int numEntries = Integer.highestOneBit((int) Math.min(maxEntries, 1 << 28));
+    this.entries = new long[2 * numEntries];
+    this.mask = numEntries - 1;
+  }
+
+  /**
+   * Looks up the entry for the given key.
+   *
+   * @param key the state hash of the position
+   * @return the data stored for the position, or 0 if there is none
+   */
+  public long probe(long key) {
+    probes++;
+    int index = 2 * ((int) key & mask);
+    long data = entries[index + 1];
+    if (data != 0 && (entries[index] ^ data) == key) {
+      hits++;
+      return data;
+    }
+    return 0;
+  }
+
+  /**
+   * Stores a search result, unless the entry holds a different position searched deeper.
+   *
+   * @param key   the state hash of the position
+   * @param depth how many plies were searched below the position
+   * @param bound EXACT, LOWER or UPPER
+   * @param score the score found for the player to move
+   * @param move  the best move found, or -1 if there is none
+   * @throws IllegalArgumentException if the bound type or move cannot be stored
+   */
+  public void store(long key, int depth, int bound, int score, int move) {
+    if (bound < EXACT || bound > UPPER || move < -1 || move > MAX_MOVE) {
+      throw new IllegalArgumentException("Cannot store bound " + bound + " and move " + move);
+    }
+    int index = 2 * ((int) key & mask);
+    long old = entries[index + 1];
+    if (old != 0 && (entries[index] ^ old) != key && depth(old) > depth) {
+      return;
+    }
+    long data = (long) score << SCORE_SHIFT
+            | (long) Math.min(depth, MAX_DEPTH) << DEPTH_SHIFT
+            | (long) bound << BOUND_SHIFT
+            | (move + 1);
+    entries[index] = key ^ data;
+    entries[index + 1] = data;
+  }
+
+  /**
+   * Returns the score packed in an entry.
+   *
+   * @param data the data of an entry
+   * @return the score for the player to move
+   */
+  public static int score(long data) {
+    return (int) (data >> SCORE_SHIFT);
+  }
+
+  /**
+   * Returns the depth packed in an entry.
+   *
+   * @param data the data of an entry
+   * @return how many plies were searched below the position
+   */
+  public static int depth(long data) {
+    return (int) (data >>> DEPTH_SHIFT) & MAX_DEPTH;
+  }
+
+  /**
+   * Returns the bound type packed in an entry.
+   *
+   * @param data the data of an entry
+   * @return EXACT, LOWER or UPPER
+   */
+  public static int bound(long data) {
+    return (int) (data >>> BOUND_SHIFT) & 3;
+  }
+
+  /**
+   * Returns the best move packed in an entry.
+   *
+   * @param data the data of an entry
+   * @return the best move, or -1 if there is none
+   */
+  public static int move(long data) {
+    return (int) (data & 0xFFFF) - 1;
+  }
+
+  /**
+   * Returns how many entries the table has.
+   *
+   * @return the number of entries
+   */
+  public int size() {
+    return mask + 1;
+  }
+
+  /**
+   * Returns the fraction of probes that found their position, since the table was made or last
+   * cleared.
+   *
+   * @return the hit rate, 0 if there have been no probes
+   */
+  public double getHitRate() {
+    return probes == 0 ? 0 : (double) hits / probes;
+  }
+
+  /**
+   * Returns how many probes have been made since the table was made or last cleared.
+   *
+   * @return the number of probes
+   */
+  public long getProbes() {
+    return probes;
+  }
+
+  /**
+   * Empties the table and resets its counters.
+   */
+  public void clear() {
+    Arrays.fill(entries, 0);
+    probes = 0;
+    hits = 0;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d entries, %d probes, %.1f%% hits", size(), probes,
+            100 * getHitRate());
+  }
+}
@@ -4,27 +4,28 @@ import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Graphics2D;
 
+import model.MoveScoreCache;
 import model.ReadonlyThreeTrioModel;
 import model.ThreeTrioCard;
-import playerstrategy.FlipMaxCardsStrategy;
-import playerstrategy.PlayerStrategy;
-import playerstrategy.StrategyMove;
 
 /**
  * Panel for the easy level of the game.
  */
 public class EasyPanel extends ThreeTrioPanel {
 
-  private PlayerStrategy strat;
+  // flip counts of every move of the current player, filled on each repaint from the cache,
+  // which only recounts the moves changed since the last repaint
+  private int[] scores = new int[0];
+  private final MoveScoreCache hintCache;
 
   /**
    * Constructs a panel, taking in a model to render.
    *
    * @param model model to be rendered
    */
-  public EasyPanel(ReadonlyThreeTrioModel model) {
+  public EasyPanel(ReadonlyThreeTrioModel<ThreeTrioCard> model) {
     super(model);
-    strat = new FlipMaxCardsStrategy(model);
+    this.hintCache = new MoveScoreCache(model);
   }
 
   /**
@@ -39,38 +40,34 @@ public class EasyPanel extends ThreeTrioPanel {
   }
 
   @Override
-  protected void drawBoard(Graphics2D g2d, ThreeTrioCard[][] board) {
-    for (int row = 0; row < board.length; row++) {
-      for (int col = 0; col < board[row].length; col++) {
-        ThreeTrioCard card = board[row][col];
-        if (card != null) {
-          int x = (col + 1) * cardWidth + 5; // +1 to leave space for the left hand
-          int y = row * tileHeight;
-          g2d.setStroke(new BasicStroke(2));
-          if (card.isHole()) {
-            g2d.setColor(grayHole);
-          } else if (card.getColor() == null) {
-            g2d.setColor(yellowTile);
-          } else if (card.getColor().toString().equals("R")) {
-            g2d.setColor(redCard);
-          } else if (card.getColor().toString().equals("B")) {
-            g2d.setColor(blueCard);
-          }
-          g2d.fillRect(x, y, cardWidth, tileHeight);
-          g2d.setColor(Color.GRAY); // Set border color to gray
-          g2d.drawRect(x, y, cardWidth, tileHeight);
-          g2d.setColor(Color.BLACK); // Reset color for text
-          if (!card.isHole() && card.getColor() != null) {
-            drawCardText(g2d, card, x, y);
-          } else if (card.getColor() == null) {
-            //System.out.println("hint here");
-            if (selectedCardLocation != -1) {
-              int numFlips = strat.getScore(new StrategyMove(row, col,
-                      (ThreeTrioCard) model.getPlayerHand().get(selectedCardLocation)));
-              g2d.drawString(Integer.toString(numFlips), x + 5, y + tileHeight - 15);
-            }
+  protected void drawBoard(Graphics2D g2d) {
+    int numCells = model.getBoardW() * model.getBoardH();
+    boolean hints = selectedCardLocation != -1 && selectedCardLocation < model.handSize()
+            && !model.isGameOver();
+    if (hints) {
+      if (scores.length < model.handSize() * numCells) {
+        scores = new int[model.handSize() * numCells];
+      }
+      hintCache.scoreMoves(scores);
+    }
+    for (int row = 0; row < model.getBoardH(); row++) {
+      for (int col = 0; col < model.getBoardW(); col++) {
+        int x = (col + 1) * cardWidth + 5; // +1 to leave space for the left hand
+        int y = row * tileHeight;
+        model.Color owner = model.ownerAt(row, col);
+        g2d.setStroke(new BasicStroke(2));
+        g2d.setColor(tileColor(row, col));
+        g2d.fillRect(x, y, cardWidth, tileHeight);
+        g2d.setColor(Color.GRAY); // Set border color to gray
+        g2d.drawRect(x, y, cardWidth, tileHeight);
+        g2d.setColor(Color.BLACK); // Reset color for text
+        if (!model.isHoleAt(row, col) && owner != null) {
+          drawCardText(g2d, boardCardAttacks(row, col), x, y);
+        } else if (hints) {
+          int numFlips = scores[selectedCardLocation * numCells + row * model.getBoardW() + col];
+          if (numFlips >= 0) {
+            g2d.drawString(Integer.toString(numFlips), x + 5, y + tileHeight - 15);
           }
-
         }
       }
     }
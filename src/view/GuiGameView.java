@@ -7,6 +7,7 @@ import javax.swing.JOptionPane;
 
 import controller.ThreeTrioControllerFeatures;
 import model.ReadonlyThreeTrioModel;
+import model.ThreeTrioCard;
 import player.Player;
 
 
@@ -28,7 +29,8 @@ public class GuiGameView extends JFrame implements ThreeTrioGuiView {
    *
    * @param model model to be rendered
    */
-  public GuiGameView(ReadonlyThreeTrioModel model, Player player, boolean easyMode) {
+  public GuiGameView(ReadonlyThreeTrioModel<ThreeTrioCard> model, Player player,
+                     boolean easyMode) {
     if (model == null || player == null) {
       throw new IllegalArgumentException("Game and player cannot be null");
     }
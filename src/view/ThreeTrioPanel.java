@@ -17,7 +17,6 @@ import javax.swing.event.MouseInputAdapter;
 import controller.ThreeTrioControllerFeatures;
 import model.Direction;
 import model.ReadonlyThreeTrioModel;
-import model.ThreeTrioCard;
 
 
 /**
@@ -38,6 +37,8 @@ public class ThreeTrioPanel extends JPanel {
   private List<ThreeTrioControllerFeatures> controllerFeaturesListener;
   //private ThreeTrioCard selectedCard = null;
   private boolean mouseIsDown;
+  // attack values of the card being drawn, by Direction ordinal, reused between cards
+  private final int[] cardAttacks = new int[4];
 
   /**
    * Constructs a panel, taking in a model to render.
@@ -86,41 +87,35 @@ public class ThreeTrioPanel extends JPanel {
     g.setFont(font);
     super.paintComponent(g);
     Graphics2D g2d = (Graphics2D) g;
-    ThreeTrioCard[][] board = model.getBoard();
     g2d.setStroke(new BasicStroke(3));
 
     // Get the current width and height of the panel
     int panelWidth = getWidth();
     int panelHeight = getHeight();
 
-    // Get player hands
-    List<ThreeTrioCard> playerOneHand = model.getPlayerOneHand();
-    List<ThreeTrioCard> playerTwoHand = model.getPlayerTwoHand();
-
     // Calculate the maximum number of cards in any player's hand
-    int maxHandSize = Math.max(playerOneHand.size(), playerTwoHand.size());
+    int maxHandSize = Math.max(model.handSize(), model.otherHandSize());
 
     // Calculate the card width and height based on the panel's dimensions
     cardWidth = (panelWidth / (model.getBoardW() + 2)) - 1; // +2 for extra columns
     tileHeight = panelHeight / model.getBoardH();
-    cardHeight = panelHeight / Math.max(board.length, maxHandSize);
+    cardHeight = panelHeight / Math.max(model.getBoardH(), maxHandSize);
 
     // Draw player one's hand
-    drawPlayerHand(g2d, playerOneHand, 0, redCard, model.getTurn());
+    drawPlayerHand(g2d, 0, redCard, model.getTurn());
 
     // Draw the board
-    drawBoard(g2d, board);
+    drawBoard(g2d);
 
     // Draw player two's hand
-    drawPlayerHand(g2d, playerTwoHand, (model.getBoardW() + 1) *
+    drawPlayerHand(g2d, (model.getBoardW() + 1) *
             cardWidth + 10, blueCard, !model.getTurn());
   }
 
-  private void drawPlayerHand(Graphics2D g2d, List<ThreeTrioCard> hand, int x,
-                              Color color, boolean isTurn) {
+  private void drawPlayerHand(Graphics2D g2d, int x, Color color, boolean isTurn) {
     g2d.setColor(color);
-    for (int cardIdx = 0; cardIdx < hand.size(); cardIdx++) {
-      ThreeTrioCard card = hand.get(cardIdx);
+    int handSize = isTurn ? model.handSize() : model.otherHandSize();
+    for (int cardIdx = 0; cardIdx < handSize; cardIdx++) {
       int y = cardIdx * cardHeight;
       g2d.fillRect(x, y, cardWidth, cardHeight);
       if (isTurn && cardIdx == selectedCardLocation) {
@@ -131,56 +126,86 @@ public class ThreeTrioPanel extends JPanel {
       }
       g2d.drawRect(x, y, cardWidth, cardHeight);
       g2d.setColor(Color.BLACK); // Reset color for text
-      drawCardText(g2d, card, x, y);
+      drawCardText(g2d, handCardAttacks(isTurn, cardIdx), x, y);
       g2d.setColor(color); // Reset color for text
     }
   }
 
   /**
-   * Draws the board based on the given board.
+   * Draws the board of the model, reading each cell without copying it.
    *
-   * @param g2d   the graphics object to draw on
-   * @param board the board to draw
+   * @param g2d the graphics object to draw on
    */
-  protected void drawBoard(Graphics2D g2d, ThreeTrioCard[][] board) {
-    //System.out.println(board[0][0].getColor());
-    for (int row = 0; row < board.length; row++) {
-      for (int col = 0; col < board[row].length; col++) {
-        ThreeTrioCard card = board[row][col];
-        if (card != null) {
-          int x = (col + 1) * cardWidth + 5; // +1 to leave space for the left hand
-          int y = row * tileHeight;
-          g2d.setStroke(new BasicStroke(2));
-          if (card.isHole()) {
-            g2d.setColor(grayHole);
-          } else if (card.getColor() == null) {
-            g2d.setColor(yellowTile);
-          } else if (card.getColor().toString().equals("R")) {
-            g2d.setColor(redCard);
-          } else if (card.getColor().toString().equals("B")) {
-            g2d.setColor(blueCard);
-          }
-          g2d.fillRect(x, y, cardWidth, tileHeight);
-          g2d.setColor(Color.GRAY); // Set border color to gray
-          g2d.drawRect(x, y, cardWidth, tileHeight);
-          g2d.setColor(Color.BLACK); // Reset color for text
-          if (!card.isHole() && card.getColor() != null) {
-            drawCardText(g2d, card, x, y);
-          }
+  protected void drawBoard(Graphics2D g2d) {
+    for (int row = 0; row < model.getBoardH(); row++) {
+      for (int col = 0; col < model.getBoardW(); col++) {
+        int x = (col + 1) * cardWidth + 5; // +1 to leave space for the left hand
+        int y = row * tileHeight;
+        model.Color owner = model.ownerAt(row, col);
+        g2d.setStroke(new BasicStroke(2));
+        g2d.setColor(tileColor(row, col));
+        g2d.fillRect(x, y, cardWidth, tileHeight);
+        g2d.setColor(Color.GRAY); // Set border color to gray
+        g2d.drawRect(x, y, cardWidth, tileHeight);
+        g2d.setColor(Color.BLACK); // Reset color for text
+        if (!model.isHoleAt(row, col) && owner != null) {
+          drawCardText(g2d, boardCardAttacks(row, col), x, y);
         }
       }
     }
   }
 
+  /**
+   * Returns the color to fill the given position of the board with.
+   *
+   * @param row the row of the position
+   * @param col the column of the position
+   * @return gray for a hole, yellow for an empty tile, or the color of the card's owner
+   */
+  protected Color tileColor(int row, int col) {
+    model.Color owner = model.ownerAt(row, col);
+    if (model.isHoleAt(row, col)) {
+      return grayHole;
+    } else if (owner == null) {
+      return yellowTile;
+    } else if (owner.toString().equals("R")) {
+      return redCard;
+    } else {
+      return blueCard;
+    }
+  }
+
+  /**
+   * Reads the attack values of the card at the given position of the board.
+   *
+   * @param row the row of the card
+   * @param col the column of the card
+   * @return the attack values by Direction ordinal, in a buffer reused between calls
+   */
+  protected int[] boardCardAttacks(int row, int col) {
+    for (Direction dir : Direction.values()) {
+      cardAttacks[dir.ordinal()] = model.attackAt(row, col, dir);
+    }
+    return cardAttacks;
+  }
+
+  private int[] handCardAttacks(boolean currentPlayer, int handIdx) {
+    for (Direction dir : Direction.values()) {
+      cardAttacks[dir.ordinal()] = currentPlayer ? model.handAttack(handIdx, dir)
+              : model.otherHandAttack(handIdx, dir);
+    }
+    return cardAttacks;
+  }
+
   /**
    * Draws the text on the card.
    *
-   * @param g2d  the graphics object to draw on
-   * @param card the card to draw text on
-   * @param x    the x coordinate of the card
-   * @param y    the y coordinate of the card
+   * @param g2d     the graphics object to draw on
+   * @param attacks the attack values of the card, by Direction ordinal
+   * @param x       the x coordinate of the card
+   * @param y       the y coordinate of the card
    */
-  protected void drawCardText(Graphics2D g2d, ThreeTrioCard card, int x, int y) {
+  protected void drawCardText(Graphics2D g2d, int[] attacks, int x, int y) {
     int centerX = x + cardWidth / 3;
     int centerY = y + (cardHeight / 2) + 15;
     for (Direction dir : Direction.values()) {
@@ -198,10 +223,10 @@ public class ThreeTrioPanel extends JPanel {
       if (dir == Direction.WEST) {
         dx = -cardWidth / 4;
       }
-      if (card.getAttacks().get(dir).getValue() == 10) {
+      if (attacks[dir.ordinal()] == 10) {
         g2d.drawString("A", centerX + dx, centerY + dy);
       } else {
-        g2d.drawString(card.getAttacks().get(dir).getValue()
+        g2d.drawString(attacks[dir.ordinal()]
                 + "", centerX + dx, centerY + dy);
       }
     }
@@ -273,8 +298,8 @@ public class ThreeTrioPanel extends JPanel {
     int panelHeight = getHeight();
     int cardWidth = (panelWidth / (model.getBoardW() + 2)) - 1; // +2 for extra columns
     int tileHeight = panelHeight / model.getBoardH();
-    int cardHeight = panelHeight / Math.max(model.getBoard().length,
-            Math.max(model.getPlayerOneHand().size(), model.getPlayerTwoHand().size()));
+    int cardHeight = panelHeight / Math.max(model.getBoardH(),
+            Math.max(model.handSize(), model.otherHandSize()));
 
     int cardRow;
     int col;
@@ -6,24 +6,40 @@ import org.junit.Test;
 import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
+import playerstrategy.AlphaBetaStrategy;
+import playerstrategy.CardPruning;
 import playerstrategy.CornerStrategy;
+import playerstrategy.EndgameStrategy;
+import playerstrategy.EnsembleStrategy;
 import playerstrategy.FlipMaxCardsStrategy;
+import playerstrategy.MctsStrategy;
 import playerstrategy.Move;
+import playerstrategy.ParallelAlphaBetaStrategy;
 import playerstrategy.PlayerStrategy;
+import playerstrategy.PortfolioStrategy;
 import playerstrategy.LeastLikelyToFlipStrategy;
+import playerstrategy.LinearEvaluation;
 import playerstrategy.ComplexPlayerStrategy;
 import playerstrategy.MinimaxStrategy;
+import playerstrategy.SearchLimits;
 import playerstrategy.StrategyType;
+import playerstrategy.TranspositionTable;
 import model.Attack;
+import model.FallenModel;
 import model.ReadonlyMockThreeTrioModel;
 import playerstrategy.StrategyMove;
 import model.PlayingCard;
 import model.ThreeTrioCard;
 import model.ThreeTrioGame;
+import model.ReverseModel;
+import model.SameModel;
 import view.GameView;
 
 /**
@@ -332,4 +348,303 @@ public class StrategyTest {
     Assert.assertEquals(move2.toString(), "Row: 0 Col: 0 Card: Frank 7 8 9 1");
   }
 
+  /**
+   * Tests that alpha-beta searches a small board all the way to the end of the game.
+   */
+  @Test
+  public void testAlphaBetaSearchesWholeSmallBoard() throws FileNotFoundException {
+    ThreeTrioGame small = new ThreeTrioGame("board3.config", "deck1.config");
+    small.startGame(small.createDeck(), small.createBoard());
+    AlphaBetaStrategy strategy = new AlphaBetaStrategy(small, 10000);
+    Move move = strategy.getMove();
+    Assert.assertEquals(small.openTiles().length, strategy.getCompletedDepth());
+    Assert.assertTrue(small.isValidMove(move.getRow(), move.getCol()));
+    Assert.assertTrue(small.getPlayerHand().contains(move.getCard()));
+  }
+
+  /**
+   * Tests that both parallel modes search a small board to the end with several threads and
+   * return a legal move.
+   */
+  @Test
+  public void testParallelAlphaBetaSearchesWholeSmallBoard() throws FileNotFoundException {
+    ThreeTrioGame small = new ThreeTrioGame("board3.config", "deck1.config");
+    small.startGame(small.createDeck(), small.createBoard());
+    for (ParallelAlphaBetaStrategy.Mode mode : ParallelAlphaBetaStrategy.Mode.values()) {
+      ParallelAlphaBetaStrategy strategy = new ParallelAlphaBetaStrategy(small, 3, mode, 10000,
+              new TranspositionTable(1));
+      Move move = strategy.getMove();
+      Assert.assertEquals(small.openTiles().length, strategy.getCompletedDepth());
+      Assert.assertTrue(small.isValidMove(move.getRow(), move.getCol()));
+      Assert.assertTrue(small.getPlayerHand().contains(move.getCard()));
+    }
+  }
+
+  /**
+   * Tests that MCTS grows each tree by the set number of iterations and returns a legal move,
+   * and that it scores an illegal move as -1.
+   */
+  @Test
+  public void testMctsRunsIterationsOnEveryTree() throws FileNotFoundException {
+    ThreeTrioGame small = new ThreeTrioGame("board3.config", "deck1.config");
+    small.startGame(small.createDeck(), small.createBoard());
+    MctsStrategy strategy = new MctsStrategy(small, 2, 10000, new Random(7));
+    strategy.setMaxIterations(500);
+    Move move = strategy.getMove();
+    Assert.assertEquals(1000, strategy.getIterations());
+    Assert.assertTrue(small.isValidMove(move.getRow(), move.getCol()));
+    Assert.assertTrue(small.getPlayerHand().contains(move.getCard()));
+    Assert.assertEquals(-1, strategy.getScore(new StrategyMove(1, 0, move.getCard())));
+  }
+
+  /**
+   * Tests that MCTS told to stop once one move has enough of the visits returns long before its
+   * time limit, and reports the share of that move.
+   */
+  @Test
+  public void testMctsStopsOnceDecided() throws FileNotFoundException {
+    ThreeTrioGame small = new ThreeTrioGame("board3.config", "deck1.config");
+    small.startGame(small.createDeck(), small.createBoard());
+    MctsStrategy strategy = new MctsStrategy(small, 1, 60000, new Random(7));
+    strategy.setStopShare(0.01);
+    Move move = strategy.getMove();
+    Assert.assertTrue(strategy.getIterations() < 2000);
+    Assert.assertTrue(strategy.getBestShare() >= 0.01);
+    Assert.assertTrue(small.isValidMove(move.getRow(), move.getCol()));
+  }
+
+  /**
+   * Tests that the endgame solver leaves moves to its fallback above the threshold, and at the
+   * threshold plays a move no other legal move scores better than.
+   */
+  @Test
+  public void testEndgameSolverPlaysBestMove() throws FileNotFoundException {
+    ThreeTrioGame small = new ThreeTrioGame("board3.config", "deck1.config");
+    small.startGame(small.createDeck(), small.createBoard());
+    FlipMaxCardsStrategy flipMax = new FlipMaxCardsStrategy(small);
+    EndgameStrategy notYet = new EndgameStrategy(small, flipMax, 5);
+    Assert.assertFalse(notYet.isSolving());
+    Assert.assertEquals(flipMax.getMove().toString(), notYet.getMove().toString());
+
+    EndgameStrategy solver = new EndgameStrategy(small, flipMax, 6);
+    Assert.assertTrue(solver.isSolving());
+    Move best = solver.getMove();
+    int bestScore = solver.getScore(best);
+    for (int tile : small.openTiles()) {
+      for (ThreeTrioCard card : small.getPlayerHand()) {
+        Move other = new StrategyMove(tile / small.getBoardW(), tile % small.getBoardW(), card);
+        Assert.assertTrue(solver.getScore(other) <= bestScore);
+      }
+    }
+  }
+
+  /**
+   * Tests that a cancelled search still returns a legal move, and that a position cap stops the
+   * search before it reaches the end of the game.
+   */
+  @Test
+  public void testSearchLimitsStopSearch() throws FileNotFoundException {
+    ThreeTrioGame game = new ThreeTrioGame("board2.config", "deck2.config");
+    game.startGame(game.createDeck(), game.createBoard());
+    AlphaBetaStrategy strategy = new AlphaBetaStrategy(game, 10000);
+    SearchLimits cancelled = SearchLimits.none();
+    cancelled.cancel();
+    Move move = strategy.getMove(cancelled);
+    Assert.assertEquals(0, strategy.getCompletedDepth());
+    Assert.assertTrue(game.isValidMove(move.getRow(), move.getCol()));
+
+    strategy.getMove(new SearchLimits(0, 5000));
+    Assert.assertTrue(strategy.getCompletedDepth() > 0);
+    Assert.assertTrue(strategy.getCompletedDepth() < game.openTiles().length);
+  }
+
+  /**
+   * Tests that a solve stopped before it finishes any move plays the move searched first, the
+   * same one alpha-beta falls back on when it does not finish a ply.
+   */
+  @Test
+  public void testStoppedSolvePlaysFirstMoveInOrder() throws FileNotFoundException {
+    ThreeTrioGame small = new ThreeTrioGame("board2.config", "deck2.config");
+    small.startGame(small.createDeck(), small.createBoard());
+    // a few cards down, so the moves are no longer ordered the way they are generated
+    small.playToBoard(0, 0, 0);
+    small.playToBoard(0, 1, 0);
+    small.playToBoard(0, 2, 0);
+    EndgameStrategy solver = new EndgameStrategy(small, new FlipMaxCardsStrategy(small), 6);
+    Assert.assertTrue(solver.isSolving());
+    SearchLimits cancelled = SearchLimits.none();
+    cancelled.cancel();
+    Move stopped = solver.getMove(cancelled);
+    Move fallback = new AlphaBetaStrategy(small, 10000).getMove(cancelled);
+    Assert.assertEquals(fallback.toString(), stopped.toString());
+  }
+
+  /**
+   * Tests that cancelling nested limits leaves the limits they were nested in running, and that
+   * cancelling those cancels the nested ones.
+   */
+  @Test
+  public void testNestedLimitsCancelOneWay() {
+    SearchLimits outer = SearchLimits.none();
+    SearchLimits inner = outer.nested(10000);
+    inner.cancel();
+    Assert.assertTrue(inner.isReached(0));
+    Assert.assertFalse(outer.isCancelled());
+
+    SearchLimits other = outer.nested(10000).withMaxTime(5000);
+    outer.cancel();
+    Assert.assertTrue(other.isCancelled());
+    Assert.assertTrue(other.isReached(0));
+  }
+
+  /**
+   * Tests that after pondering on the opponent's turn, some reply is answered at full depth
+   * without searching any further.
+   */
+  @Test
+  public void testPonderingReusesSearch() throws FileNotFoundException {
+    ThreeTrioGame small = new ThreeTrioGame("board3.config", "deck1.config");
+    small.startGame(small.createDeck(), small.createBoard());
+    small.playToBoard(0, 0, 0);
+    AlphaBetaStrategy strategy = new AlphaBetaStrategy(small, 10000);
+    strategy.ponder(SearchLimits.none()).run();
+    SearchLimits cancelled = SearchLimits.none();
+    cancelled.cancel();
+    int answered = 0;
+    for (int tile : small.openTiles()) {
+      for (int handIdx = 0; handIdx < small.getPlayerHand().size(); handIdx++) {
+        small.makeMove(tile / small.getBoardW(), tile % small.getBoardW(), handIdx);
+        Move move = strategy.getMove(cancelled);
+        if (strategy.getCompletedDepth() == small.openTiles().length) {
+          Assert.assertTrue(small.isValidMove(move.getRow(), move.getCol()));
+          answered++;
+        }
+        small.unmakeMove();
+      }
+    }
+    Assert.assertTrue(answered > 0);
+  }
+
+  /**
+   * Tests that an ensemble of FLIPMAX alone plays a move that flips as many cards as any move.
+   */
+  @Test
+  public void testEnsembleOfFlipMaxFlipsMost() throws FileNotFoundException {
+    ThreeTrioGame game = new ThreeTrioGame("board.config", "deck.config");
+    game.startGame(game.createDeck(), game.createBoard());
+    game.playToBoard(0, 0, 0);
+    game.playToBoard(1, 0, 0);
+    Map<StrategyType, Integer> weights = new HashMap<>();
+    weights.put(StrategyType.FLIPMAX, 1);
+    Move move = new EnsembleStrategy(game, weights).getMove();
+    FlipMaxCardsStrategy flipMax = new FlipMaxCardsStrategy(game);
+    Assert.assertEquals(flipMax.getScore(flipMax.getMove()), flipMax.getScore(move));
+    Assert.assertTrue(flipMax.getScore(move) > 0);
+  }
+
+  /**
+   * Tests that the portfolio plays the alpha-beta move at once when the search proves it, and
+   * races tree search on a board that is mostly open.
+   */
+  @Test
+  public void testPortfolioTakesProvenMove() throws FileNotFoundException {
+    ThreeTrioGame small = new ThreeTrioGame("board3.config", "deck1.config");
+    small.startGame(small.createDeck(), small.createBoard());
+    PortfolioStrategy portfolio = new PortfolioStrategy(small, 10000);
+    Move move = portfolio.getMove();
+    Assert.assertEquals(StrategyType.ALPHABETA, portfolio.getLastWinner());
+    EndgameStrategy solver = new EndgameStrategy(small, new FlipMaxCardsStrategy(small), 6);
+    Assert.assertEquals(solver.getScore(solver.getMove()), solver.getScore(move));
+
+    ThreeTrioGame large = new ThreeTrioGame("board.config", "deck.config");
+    large.startGame(large.createDeck(), large.createBoard());
+    PortfolioStrategy quick = new PortfolioStrategy(large, 100);
+    move = quick.getMove();
+    Assert.assertEquals(StrategyType.MCTS, quick.getLastWinner());
+    Assert.assertTrue(large.isValidMove(move.getRow(), move.getCol()));
+  }
+
+  /**
+   * Tests that duplicate cards are always collapsed, and that which cards dominate which
+   * follows the rules of the game.
+   */
+  @Test
+  public void testCardPruningFollowsRules() throws FileNotFoundException {
+    Assert.assertEquals(Arrays.asList(4), prunedHand(dealtGame(), true));
+    Assert.assertEquals(Arrays.asList(0, 2, 3, 4), prunedHand(dealtGame(), false));
+    Assert.assertEquals(Arrays.asList(0), prunedHand(new ReverseModel(dealtGame()), true));
+    // the one beats the ace, so the ace no longer defends as well as the nine
+    Assert.assertEquals(Arrays.asList(3, 4), prunedHand(new FallenModel(dealtGame()), true));
+    // equal values flip under the same rule, so only the duplicate goes
+    Assert.assertEquals(Arrays.asList(0, 2, 3, 4), prunedHand(new SameModel(dealtGame()), true));
+  }
+
+  // a started game in which red holds 5, 5, 6, 9 and A on every side
+  private ThreeTrioGame dealtGame() throws FileNotFoundException {
+    ThreeTrioGame game = new ThreeTrioGame("board2.config", "deck2.config");
+    int[] redValues = {5, 5, 6, 9, 10};
+    List<ThreeTrioCard> deck = new ArrayList<>();
+    for (int i = 0; i < redValues.length; i++) {
+      int v = redValues[i];
+      deck.add(new PlayingCard("red" + i, v, v, v, v));
+      deck.add(new PlayingCard("blue" + i, 3, 3, 3, 3));
+    }
+    game.startGame(deck, game.createBoard());
+    return game;
+  }
+
+  // which cards of red's hand are kept
+  private List<Integer> prunedHand(ThreeTrioGame game, boolean skipDominated) {
+    boolean[] skip = new boolean[game.handSize()];
+    new CardPruning(game.searchCopy()).prune(skip, skipDominated);
+    List<Integer> kept = new ArrayList<>();
+    for (int handIdx = 0; handIdx < skip.length; handIdx++) {
+      if (!skip[handIdx]) {
+        kept.add(handIdx);
+      }
+    }
+    return kept;
+  }
+
+  /**
+   * Tests that weights load from a file, and that a search scoring its leaves by them still
+   * plays perfectly once it can see to the end of the game.
+   */
+  @Test
+  public void testLinearEvaluationWeightsFromFile() throws FileNotFoundException {
+    Map<LinearEvaluation.Feature, Integer> weights = LinearEvaluation.loadWeights(
+            "weights.config");
+    Assert.assertEquals(LinearEvaluation.defaultWeights(), weights);
+
+    ThreeTrioGame small = new ThreeTrioGame("board3.config", "deck1.config");
+    small.startGame(small.createDeck(), small.createBoard());
+    AlphaBetaStrategy weighed = new AlphaBetaStrategy(small, 10000);
+    weighed.setWeights(weights);
+    Move move = weighed.getMove();
+    Assert.assertEquals(small.openTiles().length, weighed.getCompletedDepth());
+    EndgameStrategy solver = new EndgameStrategy(small, new FlipMaxCardsStrategy(small), 6);
+    Assert.assertEquals(solver.getScore(solver.getMove()), solver.getScore(move));
+  }
+
+  /**
+   * Tests that the transposition table packs entries losslessly and keeps the deeper search
+   * when two positions share an entry.
+   */
+  @Test
+  public void testTranspositionTable() {
+    TranspositionTable table = new TranspositionTable(1);
+    table.store(42L, 5, TranspositionTable.LOWER, -10037, 123);
+    long entry = table.probe(42L);
+    Assert.assertEquals(-10037, TranspositionTable.score(entry));
+    Assert.assertEquals(5, TranspositionTable.depth(entry));
+    Assert.assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(entry));
+    Assert.assertEquals(123, TranspositionTable.move(entry));
+    Assert.assertEquals(0, table.probe(43L));
+
+    // same entry, shallower search of a different position
+    table.store(42L + table.size(), 2, TranspositionTable.EXACT, 7, -1);
+    Assert.assertEquals(0, table.probe(42L + table.size()));
+    Assert.assertEquals(1.0 / 3, table.getHitRate(), 0.001);
+  }
+
 }
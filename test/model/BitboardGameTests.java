@@ -0,0 +1,248 @@
+package model;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class to test the packed game against the regular game model.
+ */
+public class BitboardGameTests {
+  private ThreeTrioGame game;
+
+  @Before
+  public void setup() throws FileNotFoundException {
+    this.game = new ThreeTrioGame("board.config", "deck.config");
+    this.game.startGame(game.createDeck(), game.createBoard());
+  }
+
+  /**
+   * Tests that a snapshot starts out in the same state as the game it was taken from.
+   */
+  @Test
+  public void testSnapshotMatchesGame() {
+    game.playToBoard(0, 0, 0);
+    game.playToBoard(0, 1, 0);
+    BitboardGame packed = game.snapshot();
+    Assert.assertEquals(game.getTurn(), packed.getTurn());
+    Assert.assertEquals(game.getNumTiles(), packed.getNumTiles());
+    Assert.assertEquals(game.getPlayerOneHand(), packed.getPlayerOneHand());
+    Assert.assertEquals(game.getPlayerTwoHand(), packed.getPlayerTwoHand());
+    Assert.assertEquals(game.getCardColor(0, 0), packed.getCardColor(0, 0));
+    Assert.assertEquals(game.getScore(Color.RED), packed.getScore(Color.RED));
+    Assert.assertEquals(game.getScore(Color.BLUE), packed.getScore(Color.BLUE));
+  }
+
+  /**
+   * Tests that playing to a snapshot does not change the game it was taken from.
+   */
+  @Test
+  public void testSnapshotIsIndependent() {
+    BitboardGame packed = game.snapshot();
+    packed.playToBoard(0, 0, 0);
+    Assert.assertTrue(game.isValidMove(0, 0));
+    Assert.assertFalse(packed.isValidMove(0, 0));
+    Assert.assertTrue(game.getTurn());
+    Assert.assertFalse(packed.getTurn());
+  }
+
+  /**
+   * Tests that flips and combos play out the same as in the regular game.
+   */
+  @Test
+  public void testFlipsMatchGame() {
+    BitboardGame packed = game.snapshot();
+    int[][] moves = {{0, 0, 0}, {0, 1, 0}, {1, 0, 2}, {2, 0, 1}, {4, 6, 0}, {3, 6, 0}};
+    for (int[] move : moves) {
+      Assert.assertEquals(game.countPossibleFlips(move[0], move[1],
+                      game.getPlayerHand().get(move[2])),
+              packed.countPossibleFlips(move[0], move[1], packed.getPlayerHand().get(move[2])));
+      game.playToBoard(move[0], move[1], move[2]);
+      packed.playToBoard(move[0], move[1], move[2]);
+      Assert.assertEquals(game.getScore(Color.RED), packed.getScore(Color.RED));
+      Assert.assertEquals(game.getScore(Color.BLUE), packed.getScore(Color.BLUE));
+    }
+    for (int row = 0; row < game.getBoardH(); row++) {
+      for (int col = 0; col < game.getBoardW(); col++) {
+        Assert.assertEquals(game.getBoard()[row][col].getColor(),
+                packed.getBoard()[row][col].getColor());
+      }
+    }
+  }
+
+  /**
+   * Tests that a snapshot of a reverse game flips using the reverse rule.
+   */
+  @Test
+  public void testSnapshotUsesModelRules() throws FileNotFoundException {
+    ThreeTrioGame reverse = new ReverseModel(new ThreeTrioGame("board.config", "deck.config"));
+    reverse.startGame(reverse.createDeck(), reverse.createBoard());
+    BitboardGame packed = reverse.snapshot();
+    reverse.playToBoard(0, 0, 0);
+    packed.playToBoard(0, 0, 0);
+    reverse.playToBoard(0, 1, 0);
+    packed.playToBoard(0, 1, 0);
+    Assert.assertEquals(reverse.getCardColor(0, 0), packed.getCardColor(0, 0));
+  }
+
+  /**
+   * Tests that a packed game can be started and played on its own.
+   */
+  @Test
+  public void testStandaloneGame() throws FileNotFoundException {
+    BitboardGame packed = new BitboardGame("board1.config", "deck.config");
+    packed.startGame(packed.createDeck(), packed.createBoard());
+    Assert.assertEquals(7, packed.getNumTiles());
+    Assert.assertEquals(4, packed.getPlayerOneHand().size());
+    Assert.assertEquals(4, packed.getPlayerTwoHand().size());
+    packed.playToBoard(0, 0, 0);
+    Assert.assertEquals(Color.RED, packed.getCardColor(0, 0));
+    Assert.assertFalse(packed.isGameOver());
+  }
+
+  /**
+   * Tests that playing to a game that has not started is refused before anything changes.
+   */
+  @Test
+  public void testPlayBeforeStartLeavesGame() throws FileNotFoundException {
+    BitboardGame packed = new BitboardGame("board1.config", "deck.config");
+    packed.setBoard(packed.createBoard());
+    packed.setDeck(packed.createDeck());
+    packed.dealCards();
+    List<ThreeTrioCard> hand = packed.getPlayerOneHand();
+    long hash = packed.stateHash();
+    try {
+      packed.playToBoard(0, 0, 0);
+      Assert.fail("Playing before the game starts should be refused");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    Assert.assertEquals(hand, packed.getPlayerOneHand());
+    Assert.assertEquals(hash, packed.stateHash());
+    Assert.assertTrue(packed.getTurn());
+    Assert.assertTrue(packed.isValidMove(0, 0));
+  }
+
+  /**
+   * Tests that both games index the same open tiles, in row-major order.
+   */
+  @Test
+  public void testOpenTilesMatchGame() {
+    game.playToBoard(0, 1, 0);
+    BitboardGame packed = game.snapshot();
+    int[] open = game.openTiles();
+    Assert.assertArrayEquals(open, packed.openTiles());
+    Assert.assertEquals(game.getNumTiles() - 1, open.length);
+    Assert.assertEquals(0, open[0]);
+    Assert.assertEquals(game.getBoardW() - 1, open[1]);
+    packed.makeMove(0, 0, 0);
+    packed.unmakeMove();
+    Assert.assertArrayEquals(open, packed.openTiles());
+  }
+
+  /**
+   * Tests that both games read the same owners, attacks and hands through the accessors.
+   */
+  @Test
+  public void testAccessorsMatchGame() {
+    game.playToBoard(0, 0, 0);
+    game.playToBoard(0, 1, 0);
+    BitboardGame packed = game.snapshot();
+    Assert.assertEquals(game.getCardColor(0, 0), game.ownerAt(0, 0));
+    Assert.assertNull(game.ownerAt(1, 0));
+    Assert.assertTrue(game.isHoleAt(0, 2));
+    for (Direction dir : Direction.values()) {
+      Assert.assertEquals(game.getBoard()[0][1].getAttacks().get(dir).getValue(),
+              game.attackAt(0, 1, dir));
+      Assert.assertEquals(game.attackAt(0, 1, dir), packed.attackAt(0, 1, dir));
+      Assert.assertEquals(game.handAttack(0, dir), packed.handAttack(0, dir));
+      Assert.assertEquals(game.otherHandAttack(1, dir), packed.otherHandAttack(1, dir));
+    }
+    Assert.assertEquals(game.getPlayerHand().size(), packed.handSize());
+    Assert.assertEquals(game.getOtherPlayerHand().size(), packed.otherHandSize());
+  }
+
+  /**
+   * Tests that playing to a hole is not allowed.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testPlayToHole() {
+    game.snapshot().playToBoard(0, 2, 0);
+  }
+
+  /**
+   * Tests that making and unmaking every move of a game returns to the starting state.
+   */
+  @Test
+  public void testMakeUnmakeWholeGame() {
+    BitboardGame packed = game.snapshot();
+    String start = packed.getPlayerOneHand().toString() + packed.getPlayerTwoHand();
+    int moves = 0;
+    while (!packed.isGameOver()) {
+      boolean played = false;
+      for (int row = 0; row < packed.getBoardH() && !played; row++) {
+        for (int col = 0; col < packed.getBoardW() && !played; col++) {
+          if (packed.isValidMove(row, col)) {
+            packed.makeMove(row, col, packed.getPlayerHand().size() - 1);
+            played = true;
+          }
+        }
+      }
+      moves++;
+    }
+    Assert.assertEquals(packed.getNumTiles(), moves);
+    for (int i = 0; i < moves; i++) {
+      packed.unmakeMove();
+    }
+    Assert.assertEquals(start, packed.getPlayerOneHand().toString() + packed.getPlayerTwoHand());
+    Assert.assertTrue(packed.getTurn());
+    Assert.assertEquals(packed.getNumTiles(), countValidMoves(packed));
+  }
+
+  /**
+   * Tests that the symmetries of each board are found, and that mirrored positions share a
+   * canonical hash once every card looks the same mirrored.
+   */
+  @Test
+  public void testCanonicalHashSharedByMirroredPositions() throws FileNotFoundException {
+    Assert.assertEquals(2, game.getSymmetry().size());
+    Assert.assertFalse(game.snapshot().hasCardSymmetries());
+
+    ThreeTrioGame square = new ThreeTrioGame("board2.config", "deck2.config");
+    List<ThreeTrioCard> sameOnAllSides = new ArrayList<>();
+    for (ThreeTrioCard card : square.createDeck()) {
+      int north = card.getPackedAttacks() & 0xF;
+      if (card.getPackedAttacks() == north * 0x1111) {
+        sameOnAllSides.add(card);
+      }
+    }
+    square.startGame(sameOnAllSides, square.createBoard());
+    Assert.assertEquals(8, square.getSymmetry().size());
+    BitboardGame left = square.snapshot();
+    left.makeMove(0, 0, 0);
+    left.makeMove(1, 1, 0);
+    BitboardGame right = square.snapshot();
+    right.makeMove(0, 2, 0);
+    right.makeMove(1, 1, 0);
+    Assert.assertTrue(left.hasCardSymmetries());
+    Assert.assertNotEquals(left.stateHash(), right.stateHash());
+    Assert.assertEquals(left.canonicalHash(), right.canonicalHash());
+    Assert.assertEquals(left.canonicalHash(), square.getSymmetry().canonicalHash(left));
+  }
+
+  private int countValidMoves(BitboardGame packed) {
+    int count = 0;
+    for (int row = 0; row < packed.getBoardH(); row++) {
+      for (int col = 0; col < packed.getBoardW(); col++) {
+        if (packed.isValidMove(row, col)) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+}
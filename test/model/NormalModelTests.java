@@ -5,6 +5,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
@@ -104,4 +106,348 @@ public class NormalModelTests extends AbstractModelTests {
     assertEquals(game.getBoard()[0][0].getColor(), game.getBoard()[2][0].getColor());
   }
 
+  /**
+   * Tests that counting flips counts the whole combo without flipping anything.
+   */
+  @Test
+  public void testCountPossibleFlipsCountsCombo() {
+    try {
+      game.startGame(game.createDeck(), game.createBoard());
+    } catch (FileNotFoundException e) {
+      e.printStackTrace();
+    }
+    game.playToBoard(0, 0, 0);
+    game.playToBoard(1, 0, 2);
+    Color colorBefore = game.getCardColor(0, 0);
+    int flips = game.countPossibleFlips(2, 0, game.getPlayerHand().get(1));
+    assertEquals(colorBefore, game.getCardColor(0, 0));
+    int blueBefore = game.getScore(Color.BLUE);
+    game.playToBoard(2, 0, 1);
+    assertEquals(blueBefore - flips, game.getScore(Color.BLUE));
+  }
+
+  /**
+   * Tests that unmaking a move undoes the placement and every flip of its combo.
+   */
+  @Test
+  public void testUnmakeMoveUndoesCombo() {
+    try {
+      game.startGame(game.createDeck(), game.createBoard());
+    } catch (FileNotFoundException e) {
+      e.printStackTrace();
+    }
+    game.playToBoard(0, 0, 0);
+    game.playToBoard(1, 0, 2);
+    List<ThreeTrioCard> handBefore = game.getPlayerHand();
+    int redBefore = game.getScore(Color.RED);
+    Color colorBefore = game.getCardColor(0, 0);
+
+    game.makeMove(2, 0, 1);
+    assertEquals(game.getBoard()[0][0].getColor(), game.getBoard()[2][0].getColor());
+    game.unmakeMove();
+
+    Assert.assertTrue(game.isValidMove(2, 0));
+    Assert.assertTrue(game.getTurn());
+    Assert.assertEquals(handBefore, game.getPlayerHand());
+    Assert.assertEquals(redBefore, game.getScore(Color.RED));
+    Assert.assertEquals(colorBefore, game.getCardColor(0, 0));
+  }
+
+  /**
+   * Tests that the state hash follows moves, and matches a snapshot of the same state.
+   */
+  @Test
+  public void testStateHash() {
+    try {
+      game.startGame(game.createDeck(), game.createBoard());
+    } catch (FileNotFoundException e) {
+      e.printStackTrace();
+    }
+    game.playToBoard(0, 0, 0);
+    game.playToBoard(1, 0, 2);
+    long hash = game.stateHash();
+    Assert.assertEquals(hash, game.snapshot().stateHash());
+
+    game.makeMove(2, 0, 1);
+    Assert.assertNotEquals(hash, game.stateHash());
+    Assert.assertEquals(game.snapshot().stateHash(), game.stateHash());
+    game.unmakeMove();
+    Assert.assertEquals(hash, game.stateHash());
+  }
+
+  /**
+   * Tests that scoring every move gives the flip counts of each open cell and -1 elsewhere.
+   */
+  @Test
+  public void testScoreMoves() {
+    try {
+      game.startGame(game.createDeck(), game.createBoard());
+    } catch (FileNotFoundException e) {
+      e.printStackTrace();
+    }
+    game.playToBoard(0, 0, 0);
+    game.playToBoard(1, 0, 2);
+    int numCells = game.getBoardW() * game.getBoardH();
+    int[] scores = new int[game.handSize() * numCells];
+    game.scoreMoves(scores);
+    assertEquals(-1, scores[0]);
+    assertEquals(-1, scores[2]);
+    for (int cell = 0; cell < numCells; cell++) {
+      int row = cell / game.getBoardW();
+      int col = cell % game.getBoardW();
+      if (game.isValidMove(row, col)) {
+        assertEquals(game.countPossibleFlips(row, col, game.getPlayerHand().get(1)),
+                scores[numCells + cell]);
+      }
+    }
+    assertEquals(1, scores[numCells + 2 * game.getBoardW()]);
+  }
+
+  /**
+   * Tests that cached move scores stay the same as the game's as moves are made and unmade.
+   */
+  @Test
+  public void testMoveScoreCacheFollowsGame() {
+    try {
+      game.startGame(game.createDeck(), game.createBoard());
+    } catch (FileNotFoundException e) {
+      e.printStackTrace();
+    }
+    MoveScoreCache cache = new MoveScoreCache(game);
+    int numCells = game.getBoardW() * game.getBoardH();
+    int[] expected = new int[game.handSize() * numCells];
+    int[] cached = new int[expected.length];
+    int[][] moves = {{0, 0, 0}, {1, 0, 2}, {2, 0, 1}, {0, 1, 0}};
+    for (int[] move : moves) {
+      game.scoreMoves(expected);
+      cache.scoreMoves(cached);
+      Assert.assertArrayEquals(expected, cached);
+      game.makeMove(move[0], move[1], move[2]);
+    }
+    game.unmakeMove();
+    game.unmakeMove();
+    game.scoreMoves(expected);
+    cache.scoreMoves(cached);
+    Assert.assertArrayEquals(expected, cached);
+  }
+
+  /**
+   * Tests that on a board large enough for the cache to keep counts, they stay the same as the
+   * game's as moves are made and unmade, and after a game sharing the board changes it.
+   */
+  @Test
+  public void testMoveScoreCacheFollowsLargeBoard() {
+    ThreeTrioCard[][] open = new ThreeTrioCard[5][5];
+    for (ThreeTrioCard[] row : open) {
+      for (int col = 0; col < row.length; col++) {
+        row[col] = new PlayingCard();
+      }
+    }
+    List<ThreeTrioCard> red = new ArrayList<>(deck.subList(0, 10));
+    List<ThreeTrioCard> blue = new ArrayList<>(deck.subList(10, 19));
+    red.forEach(card -> card.setColor(Color.RED));
+    blue.forEach(card -> card.setColor(Color.BLUE));
+    ThreeTrioGame large = new ThreeTrioGame(red, blue, open, true);
+    MoveScoreCache cache = new MoveScoreCache(large);
+    int[] expected = new int[10 * 25];
+    int[] cached = new int[expected.length];
+    int[][] moves = {{2, 2, 0}, {2, 3, 0}, {1, 3, 1}, {3, 3, 2}, {0, 0, 3}, {2, 1, 1}};
+    for (int[] move : moves) {
+      large.scoreMoves(expected);
+      cache.scoreMoves(cached);
+      Assert.assertArrayEquals(expected, cached);
+      large.makeMove(move[0], move[1], move[2]);
+    }
+    large.unmakeMove();
+    large.unmakeMove();
+    large.scoreMoves(expected);
+    cache.scoreMoves(cached);
+    Assert.assertArrayEquals(expected, cached);
+
+    new ReverseModel(large).playToBoard(4, 4, 0);
+    large.scoreMoves(expected);
+    cache.scoreMoves(cached);
+    Assert.assertArrayEquals(expected, cached);
+  }
+
+  /**
+   * Tests that the game lists the cells played to and flipped since a marker, taken back moves
+   * included, and that it no longer knows them once a game sharing the board changes it.
+   */
+  @Test
+  public void testChangedSinceListsChangedCells() {
+    try {
+      game.startGame(game.createDeck(), game.createBoard());
+    } catch (FileNotFoundException e) {
+      e.printStackTrace();
+    }
+    int[][] moves = {{0, 0, 0}, {0, 6, 3}, {4, 6, 6}, {1, 2, 1}, {1, 0, 4}};
+    for (int[] move : moves) {
+      game.playToBoard(move[0], move[1], move[2]);
+    }
+    int width = game.getBoardW();
+    long marker = game.changeMarker();
+    int[] cells = new int[16];
+    Assert.assertEquals(0, game.changedSince(marker, cells));
+    // the card at (0, 0) flips, and the card at (1, 0) in turn
+    game.makeMove(0, 1, 0);
+    int numChanged = game.changedSince(marker, cells);
+    Assert.assertArrayEquals(new int[]{1, 0, width}, Arrays.copyOf(cells, numChanged));
+    game.unmakeMove();
+    numChanged = game.changedSince(marker, cells);
+    Assert.assertArrayEquals(new int[]{1, 0, width, width, 0, 1}, Arrays.copyOf(cells, numChanged));
+    Assert.assertEquals(-1, game.changedSince(marker, new int[4]));
+
+    marker = game.changeMarker();
+    new ReverseModel(game).playToBoard(0, 1, 0);
+    Assert.assertEquals(-1, game.changedSince(marker, cells));
+  }
+
+  /**
+   * Tests that the board topology leaves out holes and the edge, and finds the tiles that holes
+   * make corners or edges.
+   */
+  @Test
+  public void testBoardTopology() {
+    try {
+      game.startGame(game.createDeck(), game.createBoard());
+    } catch (FileNotFoundException e) {
+      e.printStackTrace();
+    }
+    BoardTopology topology = game.getTopology();
+    int width = game.getBoardW();
+    Assert.assertEquals(1, topology.neighbor(0, Direction.EAST));
+    Assert.assertEquals(width, topology.neighbor(0, Direction.SOUTH));
+    Assert.assertEquals(-1, topology.neighbor(0, Direction.NORTH));
+    // (0, 2) is a hole
+    Assert.assertEquals(-1, topology.neighbor(1, Direction.EAST));
+    Assert.assertEquals(2, topology.exposedSides(0));
+    Assert.assertTrue(topology.isCorner(0));
+    // (1, 0) can only be attacked from above and below
+    Assert.assertTrue(topology.isEdge(width));
+    Assert.assertFalse(topology.isCorner(width));
+    // (1, 2) has holes on every side
+    Assert.assertEquals(0, topology.exposedSides(width + 2));
+    Assert.assertTrue(topology.isCorner(width + 2));
+    Assert.assertFalse(topology.isTile(2));
+    Assert.assertSame(topology, game.snapshot().getTopology());
+  }
+
+  /**
+   * Tests that the scores kept as cards are placed and flipped match a count of the board and
+   * hands, through a combo and after it is taken back.
+   */
+  @Test
+  public void testRunningScoresFollowCombo() {
+    try {
+      game.startGame(game.createDeck(), game.createBoard());
+    } catch (FileNotFoundException e) {
+      e.printStackTrace();
+    }
+    int[][] moves = {{0, 0, 0}, {0, 6, 3}, {4, 6, 6}, {1, 2, 1}, {1, 0, 4}};
+    for (int[] move : moves) {
+      game.playToBoard(move[0], move[1], move[2]);
+    }
+    int redBefore = game.getScore(Color.RED);
+    int blueBefore = game.getScore(Color.BLUE);
+    // (0, 1) only touches the card at (0, 0), which flips and flips the card at (1, 0) in turn
+    int flips = game.countPossibleFlips(0, 1, game.getPlayerHand().get(0));
+    Assert.assertEquals(2, flips);
+
+    game.makeMove(0, 1, 0);
+    Assert.assertEquals(Color.BLUE, game.getCardColor(1, 0));
+    assertCountedScores(game);
+    Assert.assertEquals(redBefore - flips, game.getScore(Color.RED));
+    Assert.assertEquals(blueBefore + flips, game.getScore(Color.BLUE));
+
+    game.unmakeMove();
+    assertCountedScores(game);
+    Assert.assertEquals(redBefore, game.getScore(Color.RED));
+    Assert.assertEquals(blueBefore, game.getScore(Color.BLUE));
+  }
+
+  /**
+   * Tests that the game is over exactly when the last tile is filled, and that taking the last
+   * move back opens the game again.
+   */
+  @Test
+  public void testGameOverAfterLastPlacement() {
+    try {
+      game.startGame(game.createDeck(), game.createBoard());
+    } catch (FileNotFoundException e) {
+      e.printStackTrace();
+    }
+    int numTiles = game.getNumTiles();
+    int[] open = game.openTiles();
+    Assert.assertEquals(numTiles, open.length);
+    for (int i = 0; i < open.length - 1; i++) {
+      game.playToBoard(open[i] / game.getBoardW(), open[i] % game.getBoardW(), 0);
+      Assert.assertFalse(game.isGameOver());
+    }
+    int last = open[open.length - 1];
+    game.makeMove(last / game.getBoardW(), last % game.getBoardW(), 0);
+    Assert.assertTrue(game.isGameOver());
+    Assert.assertEquals(numTiles, game.getNumTiles());
+    Assert.assertEquals(0, game.openTiles().length);
+    assertCountedScores(game);
+
+    game.unmakeMove();
+    Assert.assertFalse(game.isGameOver());
+    Assert.assertArrayEquals(new int[]{last}, game.openTiles());
+    assertCountedScores(game);
+  }
+
+  /**
+   * Tests that a rule decorator, which shares the board and hands of the game it wraps, and the
+   * wrapped game each see the moves made through the other.
+   */
+  @Test
+  public void testCountsSharedWithDecorator() {
+    try {
+      game.startGame(game.createDeck(), game.createBoard());
+    } catch (FileNotFoundException e) {
+      e.printStackTrace();
+    }
+    game.playToBoard(0, 0, 0);
+    assertCountedScores(game);
+    ThreeTrioGame reverse = new ReverseModel(game);
+    assertCountedScores(reverse);
+
+    reverse.playToBoard(1, 0, 2);
+    reverse.playToBoard(2, 0, 1);
+    assertCountedScores(reverse);
+    assertCountedScores(game);
+    Assert.assertEquals(reverse.openTiles().length, game.openTiles().length);
+    Assert.assertEquals(reverse.stateHash() - (reverse.getTurn() ? Zobrist.PLAYER_ONE_TO_MOVE
+            : 0), game.stateHash() - (game.getTurn() ? Zobrist.PLAYER_ONE_TO_MOVE : 0));
+
+    game.playToBoard(0, 1, 0);
+    assertCountedScores(reverse);
+    Assert.assertFalse(reverse.isValidMove(0, 1));
+    Assert.assertEquals(game.openTiles().length, reverse.openTiles().length);
+  }
+
+  // checks the game's scores against a count of its board and hands
+  private static void assertCountedScores(ThreeTrioGame game) {
+    int red = game.getPlayerOneHand().size();
+    int blue = game.getPlayerTwoHand().size();
+    for (ThreeTrioCard[] row : game.getBoard()) {
+      for (ThreeTrioCard card : row) {
+        if (!card.isHole() && card.getName() != null) {
+          red += card.getColor() == Color.RED ? 1 : 0;
+          blue += card.getColor() == Color.BLUE ? 1 : 0;
+        }
+      }
+    }
+    Assert.assertEquals(red, game.getScore(Color.RED));
+    Assert.assertEquals(blue, game.getScore(Color.BLUE));
+  }
+
+  /**
+   * Tests that unmaking a move with no moves made is not allowed.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testUnmakeMoveWithoutMove() {
+    game.unmakeMove();
+  }
 }
@@ -62,4 +62,41 @@ public class PlayingCardTests {
     Assert.assertEquals(3, card.getAttacks().get(Direction.EAST).getValue());
     Assert.assertEquals(4, card.getAttacks().get(Direction.WEST).getValue());
   }
-}
\ No newline at end of file
+
+  /**
+   * Test that the packed attacks hold the same values as the attack map.
+   */
+  @Test
+  public void testGetPackedAttacks() {
+    int packed = card.getPackedAttacks();
+    for (Direction dir : Direction.values()) {
+      Assert.assertEquals(card.getAttacks().get(dir).getValue(),
+              CardDefinition.attackOf(packed, dir.ordinal()));
+    }
+  }
+
+  /**
+   * Test that the attack map belongs to the caller, so changing it changes neither the card nor
+   * the copies sharing its definition.
+   */
+  @Test
+  public void testGetAttacksNotShared() {
+    PlayingCard copy = card.deepCopy();
+    copy.getAttacks().put(Direction.NORTH, Attack.A);
+    Assert.assertEquals(1, card.getAttacks().get(Direction.NORTH).getValue());
+    Assert.assertEquals(1, copy.getAttacks().get(Direction.NORTH).getValue());
+  }
+
+  /**
+   * Test that copies of a card share its definition instead of copying it.
+   */
+  @Test
+  public void testDeepCopySharesDefinition() {
+    card.setColor(Color.RED);
+    PlayingCard copy = card.deepCopy();
+    Assert.assertSame(card.getDefinition(), copy.getDefinition());
+    Assert.assertEquals(card, copy);
+    copy.setColor(Color.BLUE);
+    Assert.assertEquals(Color.RED, card.getColor());
+  }
+}
@@ -41,6 +41,47 @@ public class PlusRuleTests extends AbstractModelTests {
     Assert.assertEquals(newGame.getBoard()[0][1].getColor(), newGame.getBoard()[1][1].getColor());
   }
 
+  /**
+   * Tests that the plus rule combines with the same rule, so a game with both flips the cards
+   * either rule would flip on its own.
+   */
+  @Test
+  public void plusRuleCombinesWithSameRule() throws FileNotFoundException {
+    // the plus rule flips the blue card at (1, 0), which the same rule does not
+    ThreeTrioGame plusOnly = new PlusModel(boardTwoGame());
+    ThreeTrioGame sameOnly = new SameModel(boardTwoGame());
+    ThreeTrioGame both = new SameModel(new PlusModel(boardTwoGame()));
+    for (ThreeTrioGame game : new ThreeTrioGame[]{plusOnly, sameOnly, both}) {
+      game.playToBoard(2, 1, 3);
+      game.playToBoard(2, 0, 3);
+      game.playToBoard(1, 2, 0);
+      game.playToBoard(1, 0, 2);
+      game.playToBoard(1, 1, 1);
+    }
+    Assert.assertEquals(Color.RED, plusOnly.getBoard()[1][0].getColor());
+    Assert.assertEquals(Color.BLUE, sameOnly.getBoard()[1][0].getColor());
+    Assert.assertEquals(Color.RED, both.getBoard()[1][0].getColor());
+
+    // the same rule flips the blue card at (1, 2), which the plus rule does not
+    plusOnly = new PlusModel(boardTwoGame());
+    both = new PlusModel(new SameModel(boardTwoGame()));
+    for (ThreeTrioGame game : new ThreeTrioGame[]{plusOnly, both}) {
+      game.playToBoard(1, 0, 2);
+      game.playToBoard(1, 2, 1);
+      game.playToBoard(1, 1, 2);
+    }
+    Assert.assertEquals(Color.BLUE, plusOnly.getBoard()[1][2].getColor());
+    Assert.assertEquals(Color.RED, both.getBoard()[1][2].getColor());
+  }
+
+  // a started game on the 3x3 board with the second deck
+  private ThreeTrioModel<ThreeTrioCard> boardTwoGame() throws FileNotFoundException {
+    ThreeTrioModel<ThreeTrioCard> newModel = new ThreeTrioGame("board2.config", "deck2.config");
+    newModel.startGame(newModel.createDeck(), newModel.createBoard());
+    newModel.setDeck(newModel.createDeck());
+    return newModel;
+  }
+
   /**
    * Tests getBoard works as expected.
    */
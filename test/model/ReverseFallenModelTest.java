@@ -5,6 +5,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Class to test the Reverse Fallen Rule model of the game.
@@ -40,4 +42,54 @@ public class ReverseFallenModelTest extends AbstractModelTests {
     game.playToBoard(0, 0, 2);
     Assert.assertTrue(game.getBoard()[0][0].getColor().equals(game.getBoard()[0][1].getColor()));
   }
+
+  /**
+   * Tests that stacked rules compare attacks as each rule applied on top of the one below it.
+   */
+  @Test
+  public void testStackedRulesCompare() {
+    ThreeTrioCard one = new PlayingCard("one", 1, 1, 1, 1);
+    ThreeTrioCard two = new PlayingCard("two", 2, 2, 2, 2);
+    ThreeTrioCard ace = new PlayingCard("ace", 10, 10, 10, 10);
+    // reversed, a one beats an ace, and the fallen angel rule swaps that back
+    Assert.assertFalse(game.compareAttacks(ace, one, Direction.NORTH, Direction.SOUTH));
+    Assert.assertTrue(game.compareAttacks(two, one, Direction.NORTH, Direction.SOUTH));
+    Assert.assertFalse(game.compareAttacks(one, two, Direction.NORTH, Direction.SOUTH));
+  }
+
+  /**
+   * Tests that the beat matrix of a game with both rules agrees with compareAttacks for every
+   * pair of dealt cards on every side, and that its counts match counting one card at a time.
+   */
+  @Test
+  public void testBeatMatrixFollowsStackedRules() throws FileNotFoundException {
+    ThreeTrioGame base = new ThreeTrioGame("board.config", "deck.config");
+    base.startGame(base.createDeck(), base.createBoard());
+    ThreeTrioGame stacked = new ReverseModel(new FallenModel(base));
+    BeatMatrix matrix = stacked.getBeatMatrix();
+    List<ThreeTrioCard> cards = new ArrayList<>(stacked.getPlayerOneHand());
+    cards.addAll(stacked.getPlayerTwoHand());
+    Assert.assertEquals(cards.size(), matrix.size());
+    long[] blue = matrix.setOf(stacked.getPlayerTwoHand());
+    for (ThreeTrioCard defender : cards) {
+      int card = matrix.indexOf(defender);
+      for (Direction side : Direction.values()) {
+        Direction facing = Direction.values()[side.ordinal() ^ 1];
+        int flippers = 0;
+        for (ThreeTrioCard attacker : cards) {
+          boolean flips = stacked.compareAttacks(defender, attacker, facing, side);
+          Assert.assertEquals(flips, matrix.flips(matrix.indexOf(attacker), side, card));
+          if (flips && stacked.getPlayerTwoHand().contains(attacker)) {
+            flippers++;
+          }
+        }
+        Assert.assertEquals(flippers, matrix.countFlippers(card, side, blue));
+      }
+    }
+    // the packed copy works out the same comparisons for its own copies of the cards
+    BeatMatrix packed = stacked.snapshot().getBeatMatrix();
+    Assert.assertEquals(matrix.countFlippers(0, Direction.EAST, blue),
+            packed.countFlippers(packed.indexOf(cards.get(0)), Direction.EAST,
+                    packed.setOf(stacked.getPlayerTwoHand())));
+  }
 }
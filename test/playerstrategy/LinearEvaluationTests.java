@@ -0,0 +1,56 @@
+package playerstrategy;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.FileNotFoundException;
+import java.util.EnumMap;
+import java.util.Map;
+
+import model.Color;
+import model.ThreeTrioCard;
+import model.ThreeTrioGame;
+import model.ThreeTrioModel;
+
+/**
+ * Tests that the leaf evaluation kept up to date move by move scores every position the same as
+ * one built from scratch for it.
+ */
+public class LinearEvaluationTests {
+
+  /**
+   * Tests that making and unmaking moves, a combo among them, keeps every feature total the same
+   * as an evaluation built fresh at each step.
+   */
+  @Test
+  public void testIncrementalTotalsMatchFresh() throws FileNotFoundException {
+    ThreeTrioGame game = new ThreeTrioGame("board.config", "deck.config");
+    game.startGame(game.createDeck(), game.createBoard());
+    ThreeTrioModel<ThreeTrioCard> sim = game.searchCopy();
+    // a weight per feature far enough apart that a wrong total in any one of them shows
+    Map<LinearEvaluation.Feature, Integer> weights = new EnumMap<>(LinearEvaluation.Feature.class);
+    int weight = 1;
+    for (LinearEvaluation.Feature feature : LinearEvaluation.Feature.values()) {
+      weights.put(feature, weight);
+      weight *= 100;
+    }
+    LinearEvaluation evaluation = new LinearEvaluation(sim, weights);
+    // the last move places at (0, 1) next to the card at (0, 0) alone, which flips and flips
+    // the card at (1, 0) in turn
+    int[][] moves = {{0, 0, 0}, {0, 6, 3}, {4, 6, 6}, {1, 2, 1}, {1, 0, 4}, {0, 1, 0}};
+    int width = sim.getBoardW();
+    for (int[] move : moves) {
+      Assert.assertEquals(new LinearEvaluation(sim, weights).evaluate(), evaluation.evaluate());
+      sim.makeMove(move[0], move[1], move[2]);
+      evaluation.moveMade(move[0] * width + move[1]);
+    }
+    Assert.assertEquals(Color.BLUE, sim.ownerAt(0, 0));
+    Assert.assertEquals(Color.BLUE, sim.ownerAt(1, 0));
+    Assert.assertEquals(new LinearEvaluation(sim, weights).evaluate(), evaluation.evaluate());
+    for (int i = 0; i < moves.length; i++) {
+      sim.unmakeMove();
+      evaluation.moveUnmade();
+      Assert.assertEquals(new LinearEvaluation(sim, weights).evaluate(), evaluation.evaluate());
+    }
+  }
+}